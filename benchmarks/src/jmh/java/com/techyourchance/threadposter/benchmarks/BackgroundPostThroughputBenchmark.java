@@ -0,0 +1,79 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sustained throughput of posting no-op {@link Runnable}s under 1, 4 and 16
+ * concurrent producers.<br>
+ * The number of posted, but not yet completed, {@link Runnable}s is limited, such that the
+ * results reflect the rate at which the executor can actually complete the work (and not just the
+ * rate at which it can accept it).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BackgroundPostThroughputBenchmark {
+
+    private static final int MAX_OUTSTANDING_RUNNABLES = 1024;
+
+    @Param
+    public ExecutorType mExecutorType;
+
+    private ExecutorType.BenchmarkExecutor mExecutor;
+
+    private final Semaphore mOutstandingRunnablesPermits = new Semaphore(MAX_OUTSTANDING_RUNNABLES);
+
+    private final Runnable mRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mOutstandingRunnablesPermits.release();
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mExecutor = mExecutorType.newExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mOutstandingRunnablesPermits.acquireUninterruptibly(MAX_OUTSTANDING_RUNNABLES);
+        mExecutor.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post_1producer() {
+        post();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4producers() {
+        post();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void post_16producers() {
+        post();
+    }
+
+    private void post() {
+        mOutstandingRunnablesPermits.acquireUninterruptibly();
+        mExecutor.post(mRunnable);
+    }
+}
@@ -0,0 +1,71 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to complete a burst of concurrent posts of blocking work (e.g.
+ * server-side use cases that wait for network or disk I/O). Blocking I/O is simulated by sleeping.
+ * <br>
+ * Executors with a fixed number of threads are excluded because they can't execute this
+ * workload concurrently by design. Run on JDK 21+ in order to compare regular and virtual threads
+ * (on older runtimes, BACKGROUND_THREAD_POSTER_VIRTUAL falls back to regular threads).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BlockingIoBenchmark {
+
+    @Param({"BACKGROUND_THREAD_POSTER", "BACKGROUND_THREAD_POSTER_VIRTUAL", "THREAD_POOL_EXECUTOR"})
+    public ExecutorType mExecutorType;
+
+    @Param({"10000", "50000"})
+    public int mNumOfPosts;
+
+    @Param({"10"})
+    public int mBlockingMillis;
+
+    private ExecutorType.BenchmarkExecutor mExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mExecutor = mExecutorType.newExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void postBlockingBurst() throws InterruptedException {
+        final CountDownLatch completionLatch = new CountDownLatch(mNumOfPosts);
+        final long blockingMillis = mBlockingMillis;
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(blockingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completionLatch.countDown();
+            }
+        };
+        for (int i = 0; i < mNumOfPosts; i++) {
+            mExecutor.post(runnable);
+        }
+        completionLatch.await();
+    }
+}
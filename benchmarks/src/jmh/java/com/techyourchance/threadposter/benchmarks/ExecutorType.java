@@ -0,0 +1,132 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background executors compared by the benchmarks.
+ */
+public enum ExecutorType {
+
+    /**
+     * {@link BackgroundThreadPoster} with the default configuration
+     */
+    BACKGROUND_THREAD_POSTER {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new BackgroundThreadPosterExecutor(new BackgroundThreadPoster.Builder());
+        }
+    },
+
+    /**
+     * {@link BackgroundThreadPoster} with the number of threads bounded by the number of cores
+     */
+    BACKGROUND_THREAD_POSTER_BOUNDED {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new BackgroundThreadPosterExecutor(
+                    new BackgroundThreadPoster.Builder().setMaxThreads(Runtime.getRuntime().availableProcessors())
+            );
+        }
+    },
+
+    /**
+     * {@link BackgroundThreadPoster} that uses virtual threads (falls back to regular threads on
+     * runtimes older than JDK 21)
+     */
+    BACKGROUND_THREAD_POSTER_VIRTUAL {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new BackgroundThreadPosterExecutor(
+                    new BackgroundThreadPoster.Builder().setUseVirtualThreads(true)
+            );
+        }
+    },
+
+    /**
+     * {@link BackgroundThreadPoster} that uses work-stealing engine with the number of threads
+     * equal to the number of cores
+     */
+    BACKGROUND_THREAD_POSTER_WORK_STEALING {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new BackgroundThreadPosterExecutor(
+                    new BackgroundThreadPoster.Builder().setWorkStealingThreads(Runtime.getRuntime().availableProcessors())
+            );
+        }
+    },
+
+    /**
+     * Plain {@link ThreadPoolExecutor} configured the same way as the default
+     * {@link BackgroundThreadPoster} (baseline)
+     */
+    THREAD_POOL_EXECUTOR {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new ExecutorServiceExecutor(new ThreadPoolExecutor(
+                    3,
+                    Integer.MAX_VALUE,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>()
+            ));
+        }
+    },
+
+    /**
+     * {@link ForkJoinPool} with parallelism equal to the number of cores (baseline)
+     */
+    FORK_JOIN_POOL {
+        @Override
+        public BenchmarkExecutor newExecutor() {
+            return new ExecutorServiceExecutor(new ForkJoinPool());
+        }
+    };
+
+    public abstract BenchmarkExecutor newExecutor();
+
+    public interface BenchmarkExecutor {
+        void post(Runnable runnable);
+        void shutdown();
+    }
+
+    private static class BackgroundThreadPosterExecutor extends BackgroundThreadPoster
+            implements BenchmarkExecutor {
+
+        private BackgroundThreadPosterExecutor(Builder builder) {
+            super(builder);
+        }
+
+        @Override
+        public void shutdown() {
+            // work-stealing workers don't have to be shut down - they terminate once idle
+            if (!isWorkStealing()) {
+                getThreadPoolExecutor().shutdown();
+            }
+        }
+    }
+
+    private static class ExecutorServiceExecutor implements BenchmarkExecutor {
+
+        private final ExecutorService mExecutorService;
+
+        private ExecutorServiceExecutor(ExecutorService executorService) {
+            mExecutorService = executorService;
+        }
+
+        @Override
+        public void post(Runnable runnable) {
+            mExecutorService.execute(runnable);
+        }
+
+        @Override
+        public void shutdown() {
+            mExecutorService.shutdown();
+        }
+    }
+}
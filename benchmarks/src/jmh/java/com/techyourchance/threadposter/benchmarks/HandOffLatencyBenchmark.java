@@ -0,0 +1,58 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency between posting a {@link Runnable} and the start of its execution on a
+ * background thread.<br>
+ * {@link Mode#SampleTime} reports the distribution of latencies (p50, p90, p99, etc.).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HandOffLatencyBenchmark {
+
+    @Param
+    public ExecutorType mExecutorType;
+
+    private ExecutorType.BenchmarkExecutor mExecutor;
+
+    private volatile boolean mIsExecuted;
+
+    private final Runnable mRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mIsExecuted = true;
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mExecutor = mExecutorType.newExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void postToRun() {
+        mIsExecuted = false;
+        mExecutor.post(mRunnable);
+        while (!mIsExecuted) {
+            // busy-wait in order to not add the latency of thread wake-up to the measurement
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.UiThreadPoster;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of different initialization choices of {@link BackgroundThreadPoster} and
+ * {@link UiThreadPoster} during application startup:
+ * <ul>
+ *     <li>construct: the time spent on the critical startup path (e.g. in Application#onCreate())</li>
+ *     <li>firstPost: the time it takes the first {@link Runnable}s posted to freshly constructed
+ *     posters to execute</li>
+ * </ul>
+ * Startup happens once, so each invocation is measured in isolation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    public enum InitializationType {
+        /**
+         * Posters constructed with the default configuration
+         */
+        EAGER,
+        /**
+         * Posters constructed with lazy initialization
+         */
+        LAZY,
+        /**
+         * Posters constructed and prestarted right away. If the application defers prestarting
+         * until after the first frame, this cost moves off the critical startup path, while the
+         * first posts still execute on prestarted threads.
+         */
+        PRESTARTED
+    }
+
+    private static final long SETTLE_MILLIS = 20;
+
+    @Param
+    public InitializationType mInitializationType;
+
+    private Posters mPosters;
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        mPosters.shutdown();
+    }
+
+    @Benchmark
+    public Object construct() {
+        mPosters = new Posters(mInitializationType);
+        return mPosters;
+    }
+
+    @Benchmark
+    public void firstPost(ConstructedPosters constructedPosters) {
+        mPosters = constructedPosters.mPosters;
+        mPosters.postAndWait();
+    }
+
+    /**
+     * Posters constructed before each invocation of {@link #firstPost(ConstructedPosters)}
+     */
+    @State(Scope.Thread)
+    public static class ConstructedPosters {
+
+        private Posters mPosters;
+
+        @Setup(Level.Invocation)
+        public void setup(StartupBenchmark benchmark) throws InterruptedException {
+            mPosters = new Posters(benchmark.mInitializationType);
+            // in real applications, some time passes between the startup and the first posts, so
+            // the prestarted threads are already waiting for work
+            Thread.sleep(SETTLE_MILLIS);
+        }
+    }
+
+    private static class Posters {
+
+        private final Semaphore mCompletionSemaphore = new Semaphore(0);
+
+        private final Runnable mRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mCompletionSemaphore.release();
+            }
+        };
+
+        private final ShutdownableBackgroundThreadPoster mBackgroundThreadPoster;
+        private final UiThreadPoster mUiThreadPoster;
+
+        private Posters(InitializationType initializationType) {
+            boolean isLazy = initializationType == InitializationType.LAZY;
+            mBackgroundThreadPoster = new ShutdownableBackgroundThreadPoster(
+                    new BackgroundThreadPoster.Builder().setLazyInitialization(isLazy)
+            );
+            mUiThreadPoster = new UiThreadPoster.Builder().setLazyInitialization(isLazy).build();
+            if (initializationType == InitializationType.PRESTARTED) {
+                mBackgroundThreadPoster.prestart();
+                mUiThreadPoster.prestart();
+            }
+        }
+
+        private void postAndWait() {
+            mBackgroundThreadPoster.post(mRunnable);
+            mCompletionSemaphore.acquireUninterruptibly();
+            mUiThreadPoster.post(mRunnable);
+            mCompletionSemaphore.acquireUninterruptibly();
+        }
+
+        private void shutdown() {
+            mBackgroundThreadPoster.shutdown();
+        }
+    }
+
+    private static class ShutdownableBackgroundThreadPoster extends BackgroundThreadPoster {
+
+        private ShutdownableBackgroundThreadPoster(Builder builder) {
+            super(builder);
+        }
+
+        private void shutdown() {
+            if (isInitialized()) {
+                getThreadPoolExecutor().shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to complete a batch of root {@link Runnable}s, each of which posts
+ * a number of short CPU-bound subtasks to the same executor (e.g. a request handler that fans out
+ * parsing of the individual items of the response).<br>
+ * This workload stresses the path of posting from the threads of the executor itself, which the
+ * work-stealing engine serves from per-thread queues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SubtaskSpawningBenchmark {
+
+    @Param({
+            "BACKGROUND_THREAD_POSTER",
+            "BACKGROUND_THREAD_POSTER_BOUNDED",
+            "BACKGROUND_THREAD_POSTER_WORK_STEALING",
+            "THREAD_POOL_EXECUTOR",
+            "FORK_JOIN_POOL"
+    })
+    public ExecutorType mExecutorType;
+
+    @Param({"16"})
+    public int mNumOfRoots;
+
+    @Param({"64"})
+    public int mSubtasksPerRoot;
+
+    @Param({"1000"})
+    public int mSubtaskWorkIterations;
+
+    private ExecutorType.BenchmarkExecutor mExecutor;
+
+    private volatile long mSink;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mExecutor = mExecutorType.newExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void postRootsAndSubtasks() throws InterruptedException {
+        final CountDownLatch completionLatch = new CountDownLatch(mNumOfRoots * mSubtasksPerRoot);
+        final int subtasksPerRoot = mSubtasksPerRoot;
+        final int subtaskWorkIterations = mSubtaskWorkIterations;
+        final Runnable subtask = new Runnable() {
+            @Override
+            public void run() {
+                long hash = 17;
+                for (int i = 0; i < subtaskWorkIterations; i++) {
+                    hash = hash * 31 + i;
+                }
+                mSink = hash;
+                completionLatch.countDown();
+            }
+        };
+        Runnable root = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < subtasksPerRoot; i++) {
+                    mExecutor.post(subtask);
+                }
+            }
+        };
+        for (int i = 0; i < mNumOfRoots; i++) {
+            mExecutor.post(root);
+        }
+        completionLatch.await();
+    }
+}
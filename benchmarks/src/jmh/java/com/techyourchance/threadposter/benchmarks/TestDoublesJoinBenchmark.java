@@ -0,0 +1,71 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.UiThreadPoster;
+import com.techyourchance.threadposter.testdoubles.DeterministicThreadPostersTestDouble;
+import com.techyourchance.threadposter.testdoubles.ThreadPostersTestDouble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a typical unit test "act" stage that uses {@link ThreadPostersTestDouble}
+ * or {@link DeterministicThreadPostersTestDouble}: post N {@link Runnable}s to background test
+ * double, each of which posts a {@link Runnable} to UI test double, and then join.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TestDoublesJoinBenchmark {
+
+    public enum TestDoublesType {
+        MULTI_THREADED,
+        DETERMINISTIC
+    }
+
+    @Param
+    public TestDoublesType mTestDoublesType;
+
+    @Param({"1", "10", "100"})
+    public int mNumOfRunnables;
+
+    @Benchmark
+    public Object postAndJoin() {
+        if (mTestDoublesType == TestDoublesType.DETERMINISTIC) {
+            DeterministicThreadPostersTestDouble threadPostersTestDouble = new DeterministicThreadPostersTestDouble();
+            post(threadPostersTestDouble.getBackgroundTestDouble(), threadPostersTestDouble.getUiTestDouble());
+            threadPostersTestDouble.runUntilIdle();
+            return threadPostersTestDouble;
+        } else {
+            ThreadPostersTestDouble threadPostersTestDouble = new ThreadPostersTestDouble();
+            post(threadPostersTestDouble.getBackgroundTestDouble(), threadPostersTestDouble.getUiTestDouble());
+            threadPostersTestDouble.join();
+            return threadPostersTestDouble;
+        }
+    }
+
+    private void post(BackgroundThreadPoster backgroundThreadPoster, final UiThreadPoster uiThreadPoster) {
+        final Runnable uiRunnable = new Runnable() {
+            @Override
+            public void run() {
+                // no-op
+            }
+        };
+        Runnable backgroundRunnable = new Runnable() {
+            @Override
+            public void run() {
+                uiThreadPoster.post(uiRunnable);
+            }
+        };
+        for (int i = 0; i < mNumOfRunnables; i++) {
+            backgroundThreadPoster.post(backgroundRunnable);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import com.techyourchance.threadposter.UiThreadPoster;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency between posting a latency-critical {@link Runnable} (e.g. a reaction to
+ * user's input) to {@link UiThreadPoster} and the start of its execution, while UI thread is
+ * busy with a backlog of bulk work (e.g. warming of caches).<br>
+ * UI thread is simulated by the JVM stand-in of Android's main looper (see
+ * {@link android.os.Looper}), so the absolute numbers differ from the ones on a real device, but
+ * the relative cost of different posting methods is representative.<br>
+ * {@link Mode#SampleTime} reports the distribution of latencies (p50, p90, p99, etc.).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UiInputLatencyBenchmark {
+
+    private static final int NUM_OF_BULK_RUNNABLES = 100;
+    private static final long BULK_RUNNABLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public enum BulkPostType {
+        POST,
+        POST_IDLE
+    }
+
+    public enum InputPostType {
+        POST,
+        POST_URGENT
+    }
+
+    @Param
+    public BulkPostType mBulkPostType;
+
+    @Param
+    public InputPostType mInputPostType;
+
+    private final UiThreadPoster mUiThreadPoster = new UiThreadPoster();
+
+    private final Semaphore mBulkRunnablesCompletions = new Semaphore(0);
+
+    private final Runnable mBulkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            while (System.nanoTime() - startNanos < BULK_RUNNABLE_NANOS) {
+                // simulate a chunk of bulk work
+            }
+            mBulkRunnablesCompletions.release();
+        }
+    };
+
+    private volatile boolean mIsExecuted;
+
+    private final Runnable mInputRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mIsExecuted = true;
+        }
+    };
+
+    @Setup(Level.Invocation)
+    public void postBulkWork() {
+        for (int i = 0; i < NUM_OF_BULK_RUNNABLES; i++) {
+            switch (mBulkPostType) {
+                case POST:
+                    mUiThreadPoster.post(mBulkRunnable);
+                    break;
+                case POST_IDLE:
+                    mUiThreadPoster.postIdle(mBulkRunnable);
+                    break;
+                default:
+                    throw new RuntimeException("unsupported type: " + mBulkPostType);
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void awaitBulkWork() {
+        mBulkRunnablesCompletions.acquireUninterruptibly(NUM_OF_BULK_RUNNABLES);
+    }
+
+    @Benchmark
+    public void postInputToRun() {
+        mIsExecuted = false;
+        switch (mInputPostType) {
+            case POST:
+                mUiThreadPoster.post(mInputRunnable);
+                break;
+            case POST_URGENT:
+                mUiThreadPoster.postUrgent(mInputRunnable);
+                break;
+            default:
+                throw new RuntimeException("unsupported type: " + mInputPostType);
+        }
+        while (!mIsExecuted) {
+            // busy-wait in order to not add the latency of thread wake-up to the measurement
+        }
+    }
+}
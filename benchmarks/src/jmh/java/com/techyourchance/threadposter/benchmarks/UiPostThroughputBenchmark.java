@@ -0,0 +1,88 @@
+package com.techyourchance.threadposter.benchmarks;
+
+import com.techyourchance.threadposter.UiThreadPoster;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sustained throughput of posting no-op {@link Runnable}s to {@link UiThreadPoster}
+ * from background threads.<br>
+ * UI thread is simulated by the JVM stand-in of Android's main looper (see
+ * {@link android.os.Looper}), so the absolute numbers differ from the ones on a real device, but
+ * the relative cost of different {@link UiThreadPoster} configurations is representative.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class UiPostThroughputBenchmark {
+
+    private static final int MAX_OUTSTANDING_RUNNABLES = 1024;
+
+    public enum UiThreadPosterType {
+        DEFAULT,
+        BATCHING
+    }
+
+    @Param
+    public UiThreadPosterType mUiThreadPosterType;
+
+    private UiThreadPoster mUiThreadPoster;
+
+    private final Semaphore mOutstandingRunnablesPermits = new Semaphore(MAX_OUTSTANDING_RUNNABLES);
+
+    private final Runnable mRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mOutstandingRunnablesPermits.release();
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (mUiThreadPosterType) {
+            case DEFAULT:
+                mUiThreadPoster = new UiThreadPoster();
+                break;
+            case BATCHING:
+                mUiThreadPoster = new UiThreadPoster.Builder().setBatching(64).build();
+                break;
+            default:
+                throw new RuntimeException("unsupported type: " + mUiThreadPosterType);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mOutstandingRunnablesPermits.acquireUninterruptibly(MAX_OUTSTANDING_RUNNABLES);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post_1producer() {
+        post();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4producers() {
+        post();
+    }
+
+    private void post() {
+        mOutstandingRunnablesPermits.acquireUninterruptibly();
+        mUiThreadPoster.post(mRunnable);
+    }
+}
@@ -0,0 +1,37 @@
+package android.os;
+
+/**
+ * JVM stand-in for Android's Handler that is used in benchmarks.
+ */
+public class Handler {
+
+    private final Looper mLooper;
+
+    public Handler(Looper looper) {
+        mLooper = looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        mLooper.enqueue(runnable, SystemClock.uptimeMillis());
+        return true;
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        mLooper.enqueue(runnable, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+        return true;
+    }
+
+    public final boolean postAtFrontOfQueue(Runnable runnable) {
+        // similarly to Android, the message is scheduled for the beginning of time
+        mLooper.enqueue(runnable, 0);
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        mLooper.remove(runnable);
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+}
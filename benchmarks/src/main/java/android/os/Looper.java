@@ -0,0 +1,121 @@
+package android.os;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * JVM stand-in for Android's Looper that is used in benchmarks.<br>
+ * The "main" looper is backed by a single daemon thread that executes the posted
+ * {@link Runnable}s in the order of their scheduled times (and in the order they were posted,
+ * if scheduled for the same time). Idle handlers of its {@link MessageQueue} are invoked once
+ * every time the looper runs out of due messages.
+ */
+public final class Looper {
+
+    private static final Looper MAIN_LOOPER = new Looper("main");
+
+    // guarded by itself
+    private final PriorityQueue<Message> mQueue = new PriorityQueue<>();
+    private long mSequenceNumber = 0;
+
+    private final MessageQueue mMessageQueue = new MessageQueue();
+
+    private final Thread mThread;
+
+    private Looper(String threadName) {
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, threadName);
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN_LOOPER;
+    }
+
+    public static MessageQueue myQueue() {
+        if (Thread.currentThread() != MAIN_LOOPER.mThread) {
+            throw new IllegalStateException("only the main looper is supported");
+        }
+        return MAIN_LOOPER.mMessageQueue;
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    /* pp */ void enqueue(Runnable runnable, long uptimeMillis) {
+        synchronized (mQueue) {
+            mQueue.add(new Message(runnable, uptimeMillis, mSequenceNumber++));
+            mQueue.notifyAll();
+        }
+    }
+
+    /* pp */ void remove(Runnable runnable) {
+        synchronized (mQueue) {
+            Iterator<Message> iterator = mQueue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().mRunnable == runnable) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void loop() {
+        while (true) {
+            Runnable runnable;
+            try {
+                runnable = next();
+            } catch (InterruptedException e) {
+                return;
+            }
+            runnable.run();
+        }
+    }
+
+    private Runnable next() throws InterruptedException {
+        boolean isIdleHandlersInvoked = false;
+        while (true) {
+            synchronized (mQueue) {
+                Message message = mQueue.peek();
+                long waitMillis = message == null ? 0 : message.mUptimeMillis - SystemClock.uptimeMillis();
+                if (message != null && waitMillis <= 0) {
+                    return mQueue.poll().mRunnable;
+                }
+                if (isIdleHandlersInvoked) {
+                    mQueue.wait(waitMillis);
+                    continue;
+                }
+            }
+            // similarly to Android, idle handlers are invoked once per idle period, outside the lock
+            isIdleHandlersInvoked = true;
+            mMessageQueue.runIdleHandlers();
+        }
+    }
+
+    private static final class Message implements Comparable<Message> {
+
+        private final Runnable mRunnable;
+        private final long mUptimeMillis;
+        private final long mSequenceNumber;
+
+        private Message(Runnable runnable, long uptimeMillis, long sequenceNumber) {
+            mRunnable = runnable;
+            mUptimeMillis = uptimeMillis;
+            mSequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(Message other) {
+            if (mUptimeMillis != other.mUptimeMillis) {
+                return mUptimeMillis < other.mUptimeMillis ? -1 : 1;
+            }
+            return mSequenceNumber < other.mSequenceNumber ? -1 : (mSequenceNumber == other.mSequenceNumber ? 0 : 1);
+        }
+    }
+}
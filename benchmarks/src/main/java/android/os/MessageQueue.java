@@ -0,0 +1,44 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for Android's MessageQueue that is used in benchmarks.<br>
+ * Only the idle handlers are supported (the messages are kept by {@link Looper}).
+ */
+public final class MessageQueue {
+
+    // guarded by itself
+    private final List<IdleHandler> mIdleHandlers = new ArrayList<>();
+
+    /* pp */ MessageQueue() {}
+
+    public void addIdleHandler(IdleHandler handler) {
+        synchronized (mIdleHandlers) {
+            mIdleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        synchronized (mIdleHandlers) {
+            mIdleHandlers.remove(handler);
+        }
+    }
+
+    /* pp */ void runIdleHandlers() {
+        IdleHandler[] idleHandlers;
+        synchronized (mIdleHandlers) {
+            idleHandlers = mIdleHandlers.toArray(new IdleHandler[0]);
+        }
+        for (IdleHandler idleHandler : idleHandlers) {
+            if (!idleHandler.queueIdle()) {
+                removeIdleHandler(idleHandler);
+            }
+        }
+    }
+
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+}
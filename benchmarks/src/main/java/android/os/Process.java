@@ -0,0 +1,21 @@
+package android.os;
+
+/**
+ * JVM stand-in for Android's Process that is used in benchmarks.<br>
+ * Linux nice values of individual threads can't be changed from JVM, so, similarly to local unit
+ * tests, this class isn't functional and ThreadPoster falls back to Java thread priorities.
+ */
+public class Process {
+
+    public static final int THREAD_PRIORITY_DEFAULT = 0;
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+    public static final int THREAD_PRIORITY_DISPLAY = -4;
+
+    public static final int myTid() {
+        throw new UnsupportedOperationException("not supported on JVM");
+    }
+
+    public static final void setThreadPriority(int tid, int priority) {
+        throw new UnsupportedOperationException("not supported on JVM");
+    }
+}
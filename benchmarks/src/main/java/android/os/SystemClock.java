@@ -0,0 +1,15 @@
+package android.os;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in for Android's SystemClock that is used in benchmarks.
+ */
+public final class SystemClock {
+
+    private SystemClock() {}
+
+    public static long uptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -1,15 +1,13 @@
 package com.techyourchance.threadposters;
 
-import android.support.annotation.UiThread;
 import android.support.annotation.WorkerThread;
 
+import com.techyourchance.threadposter.BiConsumer;
+import com.techyourchance.threadposter.Consumer;
+import com.techyourchance.threadposter.UiBroadcaster;
 import com.techyourchance.threadposter.UiThreadPoster;
 import com.techyourchance.threadposter.BackgroundThreadPoster;
 
-import java.util.Collections;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
 public class FetchDataUseCase {
 
     public interface Listener {
@@ -17,72 +15,62 @@ public class FetchDataUseCase {
         void onDataFetchFailed();
     }
 
+    // posting these pre-allocated instances (instead of capturing anonymous classes) makes the
+    // notifications on UI thread allocation-free
+    private static final BiConsumer<Listener, String> NOTIFY_SUCCESS = new BiConsumer<Listener, String>() {
+        @Override
+        public void accept(Listener listener, String data) {
+            listener.onDataFetched(data);
+        }
+    };
+    private static final Consumer<Listener> NOTIFY_FAILURE = new Consumer<Listener>() {
+        @Override
+        public void accept(Listener listener) {
+            listener.onDataFetchFailed();
+        }
+    };
+
     private final FakeDataFetcher mFakeDataFetcher;
     private final BackgroundThreadPoster mBackgroundThreadPoster;
-    private final UiThreadPoster mUiThreadPoster;
+    private final UiBroadcaster<Listener> mUiBroadcaster;
 
-    private final Set<Listener> mListeners = Collections.newSetFromMap(
-            new ConcurrentHashMap<Listener, Boolean>());
+    private final Runnable mFetchDataSync = new Runnable() {
+        @Override
+        public void run() {
+            fetchDataSync();
+        }
+    };
 
     public FetchDataUseCase(FakeDataFetcher fakeDataFetcher,
                             BackgroundThreadPoster backgroundThreadPoster,
                             UiThreadPoster uiThreadPoster) {
         mFakeDataFetcher = fakeDataFetcher;
         mBackgroundThreadPoster = backgroundThreadPoster;
-        mUiThreadPoster = uiThreadPoster;
+        mUiBroadcaster = new UiBroadcaster<>(uiThreadPoster);
     }
 
     public void registerListener(Listener listener) {
-        mListeners.add(listener);
+        mUiBroadcaster.registerListener(listener);
     }
 
     public void unregisterListener(Listener listener) {
-        mListeners.remove(listener);
+        mUiBroadcaster.unregisterListener(listener);
     }
 
     public void fetchData() {
         // offload work to background thread
-        mBackgroundThreadPoster.post(new Runnable() {
-            @Override
-            public void run() {
-                fetchDataSync();
-            }
-        });
+        mBackgroundThreadPoster.post(mFetchDataSync);
     }
 
     @WorkerThread
     private void fetchDataSync() {
         try {
-            final String data = mFakeDataFetcher.getData();
-            mUiThreadPoster.post(new Runnable() { // notify listeners on UI thread
-                @Override
-                public void run() {
-                    notifySuccess(data);
-                }
-            });
+            String data = mFakeDataFetcher.getData();
+            mUiBroadcaster.broadcast(NOTIFY_SUCCESS, data); // notify listeners on UI thread
         } catch (FakeDataFetcher.DataFetchException e) {
-            mUiThreadPoster.post(new Runnable() { // notify listeners on UI thread
-                @Override
-                public void run() {
-                    notifyFailure();
-                }
-            });
+            mUiBroadcaster.broadcast(NOTIFY_FAILURE); // notify listeners on UI thread
         }
 
     }
 
-    @UiThread
-    private void notifyFailure() {
-        for (Listener listener : mListeners) {
-            listener.onDataFetchFailed();
-        }
-    }
-
-    @UiThread
-    private void notifySuccess(String data) {
-        for (Listener listener : mListeners) {
-            listener.onDataFetched(data);
-        }
-    }
-
 }
@@ -35,6 +35,14 @@ public class SampleActivity extends AppCompatActivity implements FetchDataUseCas
             }
         });
 
+        // runs after the first traversal of the view hierarchy, once the first frame is drawn
+        getWindow().getDecorView().post(new Runnable() {
+            @Override
+            public void run() {
+                ((SampleApplication) getApplication()).prestartThreadPosters();
+            }
+        });
+
     }
 
     @Override
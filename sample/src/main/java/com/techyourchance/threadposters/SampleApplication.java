@@ -10,9 +10,14 @@ public class SampleApplication extends Application {
     /*
       IMPORTANT:
       Both BackgroundThreadPoster and UiThreadPoster should be global objects (single instance).
+      The same BackgroundThreadPoster serves both CPU-bound (postCompute) and I/O-bound (postIo) work.
+      Both posters are initialized lazily to keep their setup off the startup path, and are
+      prestarted once the first frame has been drawn (see SampleActivity).
      */
-    private final BackgroundThreadPoster mBackgroundThreadPoster = new BackgroundThreadPoster();
-    private final UiThreadPoster mUiThreadPoster = new UiThreadPoster();
+    private final BackgroundThreadPoster mBackgroundThreadPoster =
+            new BackgroundThreadPoster.Builder().setLazyInitialization(true).build();
+    private final UiThreadPoster mUiThreadPoster =
+            new UiThreadPoster.Builder().setLazyInitialization(true).build();
 
     private final FakeDataFetcher mFakeDataFetcher = new FakeDataFetcher();
     private final FetchDataUseCase mFetchDataUseCase =
@@ -21,4 +26,9 @@ public class SampleApplication extends Application {
     public FetchDataUseCase getFetchDataUseCase() {
         return mFetchDataUseCase;
     }
+
+    public void prestartThreadPosters() {
+        mBackgroundThreadPoster.prestart();
+        mUiThreadPoster.prestart();
+    }
 }
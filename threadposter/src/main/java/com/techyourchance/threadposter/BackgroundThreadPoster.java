@@ -1,5 +1,7 @@
 package com.techyourchance.threadposter;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -7,13 +9,196 @@ import java.util.concurrent.TimeUnit;
 
 public class BackgroundThreadPoster {
 
+    /**
+     * Priority lanes supported by {@link BackgroundThreadPoster}.<br>
+     * Priorities take effect only when the poster is constructed with a bounded number of threads
+     * (see {@link Builder#setMaxThreads(int)} and {@link Builder#setAdaptiveThreads(int, int, long)}).
+     * In the default (unbounded) mode each
+     * {@link Runnable} gets its own thread right away, so there is nothing to prioritize. The
+     * work-stealing engine (see {@link Builder#setWorkStealingThreads(int)}) ignores priorities.
+     */
+    public enum Priority {
+        /**
+         * Work that the user is actively waiting for (e.g. loading the content of the current
+         * screen)
+         */
+        USER_BLOCKING,
+        /**
+         * Regular background work
+         */
+        DEFAULT,
+        /**
+         * Bulk or speculative work that can wait (e.g. prefetching and cache warming)
+         */
+        PREFETCH
+    }
+
+    /**
+     * Lanes of {@link BackgroundThreadPoster}. Each lane has its own threads.
+     * @see Builder#setThreadQos(Lane, ThreadQos)
+     */
+    public enum Lane {
+        /**
+         * The main pool, which executes the work posted using {@link #post(Runnable)},
+         * {@link #postIo(Runnable)} and all the other methods, except for the ones listed below
+         */
+        IO,
+        /**
+         * The lane of {@link #postCompute(Runnable)}
+         */
+        COMPUTE,
+        /**
+         * The lane of {@link #postUserInteractive(Runnable)}
+         */
+        USER_INTERACTIVE
+    }
+
     private static final int CORE_THREADS = 3;
     private static final long KEEP_ALIVE_SECONDS = 60L;
 
-    private final ThreadPoolExecutor mThreadPoolExecutor;
+    /* pp */ static final int UNBOUNDED = 0;
+    /* pp */ static final long NOT_ADAPTIVE = 0L;
+
+    private static final Consumer<Consumer<WorkerContext>> RUN_WITH_CONTEXT = new Consumer<Consumer<WorkerContext>>() {
+        @Override
+        public void accept(Consumer<WorkerContext> consumer) {
+            WorkerThreadFactory.runWithContext(consumer);
+        }
+    };
+
+    private final int mMaxThreads;
+    private final int mMinThreads;
+    private final long mTargetWaitNanos;
+    private final PosterMetrics mUserMetrics;
+    private final ThreadFactory mVirtualThreadFactory;
+    private final SaturationGate mSaturationGate;
+    private final boolean mIsWorkStealing;
+
+    // constructed on the first post if initialization is lazy (see initializeIfNeeded())
+    private final Object mInitializationLock = new Object();
+    private volatile boolean mIsInitialized = false;
+    private PosterMetrics mMetrics;
+    private ThreadPoolExecutor mThreadPoolExecutor;
+    private WorkStealingExecutor mWorkStealingExecutor;
+
+    private final ThreadQos mIoThreadQos;
+
+    // the pool size controller of adaptive mode controls only the main pool
+    private final PosterMetrics mLaneMetrics;
+    private final LanePool mComputeLane;
+    private final LanePool mUserInteractiveLane;
+
+    private final KeyedSerialExecutor mKeyedSerialExecutor = new KeyedSerialExecutor(new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            enqueue(runnable, Priority.DEFAULT);
+        }
+    });
+
+    private final KeyedRateLimiter mKeyedRateLimiter = new KeyedRateLimiter() {
+        @Override
+        /* pp */ void scheduleTimer(Runnable trigger, long delayMillis) {
+            BackgroundThreadPoster.this.scheduleTimer(trigger, delayMillis);
+        }
+
+        @Override
+        /* pp */ long getUptimeMillis() {
+            return BackgroundThreadPoster.this.getUptimeMillis();
+        }
+
+        @Override
+        /* pp */ void dispatch(Runnable runnable) {
+            enqueue(runnable, Priority.DEFAULT);
+        }
+    };
 
     public BackgroundThreadPoster() {
-        mThreadPoolExecutor = newThreadPoolExecutor();
+        this(new Builder());
+    }
+
+    protected BackgroundThreadPoster(Builder builder) {
+        mMaxThreads = builder.mMaxThreads;
+        mMinThreads = builder.mMinThreads;
+        mTargetWaitNanos = builder.mTargetWaitNanos;
+        mVirtualThreadFactory = builder.mUseVirtualThreads ? VirtualThreads.getThreadFactory() : null;
+        mSaturationGate = builder.mSaturationPolicy != null
+                ? new SaturationGate(builder.mCapacity, builder.mSaturationPolicy) : null;
+        mIsWorkStealing = builder.mUseWorkStealing;
+        mUserMetrics = builder.mMetrics;
+        mLaneMetrics = builder.mMetrics;
+        mIoThreadQos = builder.mIoThreadQos;
+        // CPU-bound work never uses virtual threads: they don't add parallelism
+        int laneThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        mComputeLane = new LanePool(
+                laneThreads,
+                KEEP_ALIVE_SECONDS,
+                new WorkerThreadFactory("ThreadPoster-compute-", builder.mComputeThreadQos)
+        );
+        mUserInteractiveLane = new LanePool(
+                laneThreads,
+                KEEP_ALIVE_SECONDS,
+                new WorkerThreadFactory("ThreadPoster-interactive-", builder.mUserInteractiveThreadQos)
+        );
+        if (!builder.mIsLazy) {
+            initializeIfNeeded();
+        }
+    }
+
+    /**
+     * Construct the underlying executor and start its threads ahead of time, so that the first
+     * posted {@link Runnable}s don't pay for it.<br>
+     * Starts all the core threads of the main pool (or all the threads, if the number of threads
+     * is limited). Threads that don't receive any work are terminated after the usual period of
+     * inactivity. Call this method once the application is past its critical startup path
+     * (e.g. after the first frame had been drawn). The other lanes are never prestarted.
+     * @see Builder#setLazyInitialization(boolean)
+     */
+    public void prestart() {
+        initializeIfNeeded();
+        if (isWorkStealing()) {
+            mWorkStealingExecutor.prestartAllWorkers();
+        } else if (!isUsingVirtualThreads()) {
+            mThreadPoolExecutor.prestartAllCoreThreads();
+        }
+    }
+
+    /**
+     * @return true if the underlying executor has already been constructed
+     * @see Builder#setLazyInitialization(boolean)
+     */
+    public final boolean isInitialized() {
+        return mIsInitialized;
+    }
+
+    private void initializeIfNeeded() {
+        if (mIsInitialized) {
+            return;
+        }
+        synchronized (mInitializationLock) {
+            if (mIsInitialized) {
+                return;
+            }
+            // only the executor of the selected engine is constructed
+            if (mIsWorkStealing) {
+                mWorkStealingExecutor = newWorkStealingExecutor();
+            } else {
+                mThreadPoolExecutor = newThreadPoolExecutor();
+            }
+            if (isAdaptive()) {
+                mMetrics = new PoolSizeController(
+                        mThreadPoolExecutor,
+                        mMinThreads,
+                        mMaxThreads,
+                        mTargetWaitNanos,
+                        PoolSizeController.DEFAULT_CONTROL_INTERVAL_NANOS,
+                        mUserMetrics
+                );
+            } else {
+                mMetrics = mUserMetrics;
+            }
+            // the volatile write publishes the fields above
+            mIsInitialized = true;
+        }
     }
 
     /**
@@ -21,15 +206,506 @@ public class BackgroundThreadPoster {
      * @param runnable {@link Runnable} instance containing the code that should be executed
      */
     public void post(Runnable runnable) {
-        mThreadPoolExecutor.execute(runnable);
+        post(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread.<br>
+     * If all threads are busy, {@link Runnable}s with higher priority will be executed before
+     * {@link Runnable}s with lower priority. {@link Runnable}s having the same priority are
+     * executed in the order they were posted.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @param priority the priority of this {@link Runnable}
+     */
+    public void post(Runnable runnable, Priority priority) {
+        submit(runnable, priority);
+    }
+
+    /**
+     * Execute CPU-bound {@link Runnable} (e.g. JSON parsing or image decoding) on a background
+     * thread of the compute lane.<br>
+     * The compute lane has as many threads as there are available processors, so CPU-bound work
+     * doesn't oversubscribe the cores, and it's separated from the work posted using
+     * {@link #post(Runnable)} and {@link #postIo(Runnable)}, so blocking I/O can't starve it.
+     * When all compute threads are busy, the posted {@link Runnable}s wait in a queue, ordered by
+     * their {@link Priority}.<br>
+     * Don't post blocking work to the compute lane.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postCompute(Runnable runnable) {
+        postCompute(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postCompute(Runnable)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public void postCompute(Runnable runnable, Priority priority) {
+        Runnable admitted = admit(runnable);
+        if (admitted != null) {
+            enqueueToLane(admitted, priority, Lane.COMPUTE);
+        }
+    }
+
+    /**
+     * Execute short {@link Runnable} that the user is waiting for right now (e.g. preparing the
+     * data for the next frame) on a background thread of the user-interactive lane.<br>
+     * The threads of this lane run at {@link ThreadQos#USER_INTERACTIVE} priority by default, so
+     * they compete with UI thread for CPU, instead of yielding to it like the threads of the other
+     * lanes. The user-interactive lane has as many threads as there are available processors.
+     * When all its threads are busy, the posted {@link Runnable}s wait in a queue, ordered by
+     * their {@link Priority}.<br>
+     * Don't post long or blocking work to the user-interactive lane.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postUserInteractive(Runnable runnable) {
+        postUserInteractive(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postUserInteractive(Runnable)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public void postUserInteractive(Runnable runnable, Priority priority) {
+        Runnable admitted = admit(runnable);
+        if (admitted != null) {
+            enqueueToLane(admitted, priority, Lane.USER_INTERACTIVE);
+        }
+    }
+
+    /**
+     * Same as {@link #post(Runnable)}, but returns a handle that allows to raise the priority of
+     * the thread that executes this work while someone (e.g. UI) is waiting for its result.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @return handle that allows to boost the execution
+     */
+    public Boostable postBoostable(Runnable runnable) {
+        return postBoostable(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postBoostable(Runnable)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public Boostable postBoostable(Runnable runnable, Priority priority) {
+        BoostableTask boostableTask = new BoostableTask(runnable);
+        submit(boostableTask, priority);
+        return boostableTask;
+    }
+
+    /**
+     * Execute I/O-bound {@link Runnable} (e.g. network or disk call) on a background thread of
+     * the I/O lane.<br>
+     * The I/O lane is the main pool of this {@link BackgroundThreadPoster} (the same one used by
+     * {@link #post(Runnable)}), so it's elastic by default and can be configured using
+     * {@link Builder}. This method exists to make the intent explicit at call sites.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @see #postCompute(Runnable)
+     */
+    public void postIo(Runnable runnable) {
+        postIo(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postIo(Runnable)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public void postIo(Runnable runnable, Priority priority) {
+        submit(runnable, priority);
+    }
+
+    /**
+     * Same as {@link #post(Runnable)}, but returns a handle that allows to cancel the execution.<br>
+     * If the work is cancelled before it started, it will not be executed and the reference to
+     * the {@link Runnable} is released right away. If it has already started, it can optionally be
+     * interrupted (see {@link Cancellable#cancel(boolean)}).
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postCancellable(Runnable runnable) {
+        return postCancellable(runnable, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postCancellable(Runnable)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public Cancellable postCancellable(Runnable runnable, Priority priority) {
+        CancellableTask cancellableTask = mSaturationGate != null
+                ? mSaturationGate.newCancellableTask(runnable) : new CancellableTask(runnable, true);
+        submit(cancellableTask, priority);
+        return cancellableTask;
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread after the specified delay.<br>
+     * Pending delays don't occupy background threads: all the timers of all
+     * {@link BackgroundThreadPoster}s are served by a single timer thread.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @param delayMillis the delay in milliseconds
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postDelayed(Runnable runnable, long delayMillis) {
+        return schedule(runnable, delayMillis, ScheduledTask.NOT_PERIODIC);
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread periodically, starting after the
+     * specified initial delay.<br>
+     * The executions are scheduled relative to the initial one, so they don't drift. If an
+     * execution takes longer than the period, the subsequent execution starts right after it
+     * completes (executions never overlap). The periodic execution stops when the returned handle
+     * is cancelled, or if the {@link Runnable} throws.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @param initialDelayMillis the delay of the first execution in milliseconds
+     * @param periodMillis the period of execution in milliseconds; must be positive
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postAtFixedRate(Runnable runnable, long initialDelayMillis, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + periodMillis);
+        }
+        return schedule(runnable, initialDelayMillis, periodMillis);
+    }
+
+    /**
+     * Execute {@link Consumer} on a random background thread.<br>
+     * Unlike posting of a capturing {@link Runnable}, this method doesn't allocate new objects in
+     * steady state (assuming that the same {@link Consumer} instance is being reused), if the
+     * number of threads is bounded (see {@link Builder#setMaxThreads(int)} and
+     * {@link Builder#setAdaptiveThreads(int, int, long)}). An unbounded
+     * {@link BackgroundThreadPoster} hands each task over to a thread through a
+     * {@link java.util.concurrent.SynchronousQueue}, and the work-stealing engine queues the work
+     * posted from other threads in a {@link java.util.concurrent.ConcurrentLinkedQueue}; both
+     * allocate a small node per post.
+     * @param consumer {@link Consumer} instance containing the code that should be executed
+     * @param arg the argument that will be passed to {@link Consumer#accept(Object)}
+     */
+    public <T> void post(Consumer<T> consumer, T arg) {
+        post(consumer, arg, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #post(Consumer, Object)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public <T> void post(Consumer<T> consumer, T arg, Priority priority) {
+        submit(PooledTask.obtain(consumer, arg), priority);
+    }
+
+    /**
+     * Execute {@link BiConsumer} on a random background thread.<br>
+     * Unlike posting of a capturing {@link Runnable}, this method doesn't allocate new objects in
+     * steady state (assuming that the same {@link BiConsumer} instance is being reused), if the
+     * number of threads is bounded.
+     * @see #post(Consumer, Object)
+     * @param biConsumer {@link BiConsumer} instance containing the code that should be executed
+     * @param arg1 the first argument that will be passed to {@link BiConsumer#accept(Object, Object)}
+     * @param arg2 the second argument that will be passed to {@link BiConsumer#accept(Object, Object)}
+     */
+    public <A, B> void post(BiConsumer<A, B> biConsumer, A arg1, B arg2) {
+        post(biConsumer, arg1, arg2, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #post(BiConsumer, Object, Object)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public <A, B> void post(BiConsumer<A, B> biConsumer, A arg1, B arg2, Priority priority) {
+        submit(PooledTask.obtain(biConsumer, arg1, arg2), priority);
+    }
+
+    /**
+     * Execute {@link Consumer} on a random background thread, passing it the {@link WorkerContext}
+     * of that thread.<br>
+     * Use this method for hot work that needs scratch resources (e.g. buffers): each background
+     * thread creates its own instances of {@link WorkerResource}s once and reuses them for all
+     * the work it executes, resetting them after each piece of work. Doesn't allocate new objects in
+     * steady state (assuming that the same {@link Consumer} instance is being reused), if the
+     * number of threads is bounded (see {@link #post(Consumer, Object)}).
+     * @param consumer {@link Consumer} instance containing the code that should be executed
+     */
+    public void postWithContext(Consumer<WorkerContext> consumer) {
+        postWithContext(consumer, Priority.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #postWithContext(Consumer)}, but with the specified priority.
+     * @see #post(Runnable, Priority)
+     */
+    public void postWithContext(Consumer<WorkerContext> consumer, Priority priority) {
+        submit(PooledTask.obtain(RUN_WITH_CONTEXT, consumer), priority);
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread, serially with respect to all other
+     * {@link Runnable}s posted with the same key.<br>
+     * {@link Runnable}s posted with the same key are executed in the order they were posted, and
+     * the execution of each of them completes before the execution of the next one starts.
+     * {@link Runnable}s posted with different keys can execute concurrently. No thread is
+     * dedicated to any specific key.
+     * @param key the key that defines the serial queue (e.g. user ID or the name of DB table);
+     *            keys are compared using {@link Object#equals(Object)}
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void post(Object key, Runnable runnable) {
+        mKeyedSerialExecutor.execute(key, runnable);
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread after there were no other
+     * {@link Runnable}s posted with the same key for the specified delay.<br>
+     * Bursts of calls (e.g. search-as-you-type) collapse into a single execution of the latest
+     * {@link Runnable}. Posting doesn't block and doesn't occupy background threads while waiting.
+     * @param key the key that identifies the burst; keys are compared using
+     *            {@link Object#equals(Object)}
+     * @param delayMillis the quiet period in milliseconds; must be positive
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postDebounced(Object key, long delayMillis, Runnable runnable) {
+        mKeyedRateLimiter.debounce(key, delayMillis, runnable);
+    }
+
+    /**
+     * Execute {@link Runnable} on a random background thread at most once per the specified
+     * interval for all the {@link Runnable}s posted with the same key.<br>
+     * The first {@link Runnable} of a burst is executed right away. The latest {@link Runnable}
+     * posted during the interval is executed when the interval ends (the other ones are dropped),
+     * so the last call of a burst is never lost. Posting doesn't block.
+     * @param key the key that identifies the burst; keys are compared using
+     *            {@link Object#equals(Object)}
+     * @param intervalMillis the minimal interval between executions in milliseconds; must be
+     *                       positive
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postThrottled(Object key, long intervalMillis, Runnable runnable) {
+        mKeyedRateLimiter.throttle(key, intervalMillis, runnable);
+    }
+
+    private Cancellable schedule(Runnable runnable, long initialDelayMillis, long periodMillis) {
+        ScheduledTask scheduledTask = new ScheduledTask(runnable, periodMillis, true) {
+            @Override
+            /* pp */ Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+                return BackgroundThreadPoster.this.scheduleTimer(trigger, delayMillis);
+            }
+
+            @Override
+            /* pp */ long getUptimeMillis() {
+                return BackgroundThreadPoster.this.getUptimeMillis();
+            }
+
+            @Override
+            /* pp */ void dispatch(Runnable runnable) {
+                enqueue(runnable, Priority.DEFAULT);
+            }
+        };
+        scheduledTask.start(initialDelayMillis);
+        return scheduledTask;
+    }
+
+    private void submit(Runnable runnable, Priority priority) {
+        Runnable admitted = admit(runnable);
+        if (admitted != null) {
+            enqueue(admitted, priority);
+        }
+    }
+
+    /**
+     * @return the {@link Runnable} that should be enqueued, or null if it was handled by the
+     *         saturation policy
+     */
+    private Runnable admit(Runnable runnable) {
+        return mSaturationGate == null ? runnable : mSaturationGate.admit(runnable);
+    }
+
+    private void enqueue(Runnable runnable, Priority priority) {
+        initializeIfNeeded();
+        if (mMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mMetrics);
+        }
+        if (isBounded() && !isWorkStealing()) {
+            // the queue of bounded executor orders its elements, so all of them must be PooledTasks
+            PooledTask task = runnable instanceof PooledTask
+                    ? (PooledTask) runnable : PooledTask.obtain(runnable);
+            task.setPriority(priority);
+            execute(task);
+        } else {
+            execute(runnable);
+        }
+    }
+
+    private void enqueueToLane(Runnable runnable, Priority priority, Lane lane) {
+        if (mLaneMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mLaneMetrics);
+        }
+        // the queues of lane executors order their elements, so all of them must be PooledTasks
+        PooledTask task = runnable instanceof PooledTask
+                ? (PooledTask) runnable : PooledTask.obtain(runnable);
+        task.setPriority(priority);
+        if (lane == Lane.COMPUTE) {
+            executeCompute(task);
+        } else {
+            executeUserInteractive(task);
+        }
+    }
+
+    /**
+     * All the work posted to this {@link BackgroundThreadPoster} ends up in this method, except
+     * for the work posted to the compute and the user-interactive lanes (see
+     * {@link #executeCompute(Runnable)} and {@link #executeUserInteractive(Runnable)}).<br>
+     * The only reason this method is overridable is that BackgroundThreadPosterTestDouble can
+     * override it.
+     */
+    protected void execute(Runnable runnable) {
+        if (mWorkStealingExecutor != null) {
+            mWorkStealingExecutor.execute(runnable);
+        } else {
+            mThreadPoolExecutor.execute(runnable);
+        }
+    }
+
+    /**
+     * All the work posted to the compute lane of this {@link BackgroundThreadPoster} ends up in
+     * this method.<br>
+     * The only reason this method is overridable is that BackgroundThreadPosterTestDouble can
+     * override it.
+     * @see #postCompute(Runnable)
+     */
+    protected void executeCompute(Runnable runnable) {
+        mComputeLane.execute((PooledTask) runnable);
+    }
+
+    /**
+     * All the work posted to the user-interactive lane of this {@link BackgroundThreadPoster}
+     * ends up in this method.<br>
+     * The only reason this method is overridable is that BackgroundThreadPosterTestDouble can
+     * override it.
+     * @see #postUserInteractive(Runnable)
+     */
+    protected void executeUserInteractive(Runnable runnable) {
+        mUserInteractiveLane.execute((PooledTask) runnable);
+    }
+
+    /**
+     * All the timers of delayed and periodic work posted to this {@link BackgroundThreadPoster}
+     * are scheduled using this method. The trigger must be invoked after the specified delay, and
+     * must not block.<br>
+     * The only reason this method is overridable is that BackgroundThreadPosterTestDouble can
+     * override it.
+     * @return handle that allows to cancel the timer
+     */
+    protected Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+        return TimingWheel.getInstance().schedule(trigger, delayMillis);
+    }
+
+    /**
+     * @return the current time of the clock that the timers are based on, in milliseconds
+     * @see #scheduleTimer(Runnable, long)
+     */
+    protected long getUptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * @return true if the number of threads used by this {@link BackgroundThreadPoster} is bounded
+     */
+    public final boolean isBounded() {
+        return mMaxThreads != UNBOUNDED;
+    }
+
+    /**
+     * @return true if this {@link BackgroundThreadPoster} adjusts the number of its threads to the
+     *         load
+     * @see Builder#setAdaptiveThreads(int, int, long)
+     */
+    public final boolean isAdaptive() {
+        return mTargetWaitNanos != NOT_ADAPTIVE;
+    }
+
+    /**
+     * @return true if the number of posted {@link Runnable}s that haven't completed yet has
+     *         reached the capacity of this {@link BackgroundThreadPoster}, such that the next
+     *         post will be handled by its {@link SaturationPolicy}; always false if the capacity
+     *         isn't limited
+     * @see Builder#setCapacity(int, SaturationPolicy)
+     */
+    public final boolean isSaturated() {
+        return mSaturationGate != null && mSaturationGate.isSaturated();
+    }
+
+    /**
+     * Producers can use this method in order to slow down before this
+     * {@link BackgroundThreadPoster} becomes saturated.
+     * @return the number of {@link Runnable}s that can be posted before this
+     *         {@link BackgroundThreadPoster} becomes saturated, or {@link Integer#MAX_VALUE} if
+     *         the capacity isn't limited
+     * @see Builder#setCapacity(int, SaturationPolicy)
+     */
+    public final int getRemainingCapacity() {
+        return mSaturationGate == null ? Integer.MAX_VALUE : mSaturationGate.getRemainingCapacity();
+    }
+
+    /**
+     * @return true if this {@link BackgroundThreadPoster} uses the work-stealing engine
+     * @see Builder#setWorkStealingThreads(int)
+     */
+    public final boolean isWorkStealing() {
+        return mIsWorkStealing;
+    }
+
+    /**
+     * @return true if this {@link BackgroundThreadPoster} executes the posted work on virtual
+     *         threads
+     * @see Builder#setUseVirtualThreads(boolean)
+     */
+    public final boolean isUsingVirtualThreads() {
+        return mVirtualThreadFactory != null;
+    }
+
+    /**
+     * @return the number of threads that are currently alive in this {@link BackgroundThreadPoster}
+     *         (in all the lanes)
+     */
+    public int getAliveThreadsCount() {
+        int mainThreadsCount;
+        if (!isInitialized()) {
+            mainThreadsCount = 0;
+        } else if (isWorkStealing()) {
+            mainThreadsCount = mWorkStealingExecutor.getAliveWorkersCount();
+        } else {
+            mainThreadsCount = mThreadPoolExecutor.getPoolSize();
+        }
+        return mainThreadsCount + mComputeLane.getPoolSize() + mUserInteractiveLane.getPoolSize();
+    }
+
+    /**
+     * @return the largest number of threads that have ever simultaneously been alive in this
+     *         {@link BackgroundThreadPoster} (the sum of the peaks of all the lanes)
+     */
+    public int getPeakThreadsCount() {
+        int mainPeakThreadsCount;
+        if (!isInitialized()) {
+            mainPeakThreadsCount = 0;
+        } else if (isWorkStealing()) {
+            mainPeakThreadsCount = mWorkStealingExecutor.getPeakAliveWorkersCount();
+        } else {
+            mainPeakThreadsCount = mThreadPoolExecutor.getLargestPoolSize();
+        }
+        return mainPeakThreadsCount
+                + mComputeLane.getLargestPoolSize()
+                + mUserInteractiveLane.getLargestPoolSize();
     }
 
     /**
      * Get the underlying {@link ThreadPoolExecutor}.
      * In general, this method shouldn't be used and is provided only for the purpose of
      * integration with existing libraries and frameworks.
+     * @return the underlying {@link ThreadPoolExecutor}, or null if this
+     *         {@link BackgroundThreadPoster} uses the work-stealing engine (see
+     *         {@link #isWorkStealing()})
      */
     protected final ThreadPoolExecutor getThreadPoolExecutor() {
+        initializeIfNeeded();
         return mThreadPoolExecutor;
     }
 
@@ -39,6 +715,10 @@ public class BackgroundThreadPoster {
      * integration with existing libraries and frameworks.
      */
     protected final ThreadFactory getThreadFactory() {
+        if (isWorkStealing()) {
+            initializeIfNeeded();
+            return mWorkStealingExecutor.getThreadFactory();
+        }
         return getThreadPoolExecutor().getThreadFactory();
     }
 
@@ -49,13 +729,236 @@ public class BackgroundThreadPoster {
      * Override only if you're ABSOLUTELY sure that you know what you're doing.
      */
     protected ThreadPoolExecutor newThreadPoolExecutor() {
-        return new ThreadPoolExecutor(
-                CORE_THREADS,
-                Integer.MAX_VALUE,
-                KEEP_ALIVE_SECONDS,
-                TimeUnit.SECONDS,
-                new SynchronousQueue<Runnable>()
+        ThreadPoolExecutor threadPoolExecutor;
+        if (isBounded()) {
+            threadPoolExecutor = new ThreadPoolExecutor(
+                    isAdaptive() ? mMinThreads : mMaxThreads,
+                    mMaxThreads,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<Runnable>()
+            );
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+        } else {
+            threadPoolExecutor = new ThreadPoolExecutor(
+                    CORE_THREADS,
+                    Integer.MAX_VALUE,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>()
+            );
+        }
+        if (isUsingVirtualThreads()) {
+            threadPoolExecutor.setThreadFactory(mVirtualThreadFactory);
+        } else {
+            threadPoolExecutor.setThreadFactory(new WorkerThreadFactory("ThreadPoster-background-", mIoThreadQos));
+        }
+        return threadPoolExecutor;
+    }
+
+    private WorkStealingExecutor newWorkStealingExecutor() {
+        return new WorkStealingExecutor(
+                mMaxThreads,
+                TimeUnit.SECONDS.toNanos(KEEP_ALIVE_SECONDS),
+                isUsingVirtualThreads()
+                        ? mVirtualThreadFactory
+                        : new WorkerThreadFactory("ThreadPoster-background-", mIoThreadQos)
         );
     }
 
+    /**
+     * Builder of configured instances of {@link BackgroundThreadPoster}.<br>
+     * Instances built with the default configuration are equivalent to the ones constructed
+     * using {@link BackgroundThreadPoster#BackgroundThreadPoster()}.
+     */
+    public static class Builder {
+
+        private int mMaxThreads = UNBOUNDED;
+        private int mMinThreads = UNBOUNDED;
+        private long mTargetWaitNanos = NOT_ADAPTIVE;
+        private PosterMetrics mMetrics;
+        private boolean mUseVirtualThreads = false;
+        private boolean mUseWorkStealing = false;
+        private int mCapacity = UNBOUNDED;
+        private SaturationPolicy mSaturationPolicy;
+        private boolean mIsLazy = false;
+        private ThreadQos mIoThreadQos = ThreadQos.BACKGROUND;
+        private ThreadQos mComputeThreadQos = ThreadQos.BACKGROUND;
+        private ThreadQos mUserInteractiveThreadQos = ThreadQos.USER_INTERACTIVE;
+
+        /**
+         * Limit the number of threads used by {@link BackgroundThreadPoster}.<br>
+         * When all threads are busy, the posted {@link Runnable}s will wait in a queue, ordered by
+         * their {@link Priority}. Idle threads are terminated after a period of inactivity.
+         * Overrides {@link #setAdaptiveThreads(int, int, long)} and {@link #setWorkStealingThreads(int)}.
+         * @param maxThreads the maximal number of threads; must be positive
+         */
+        public Builder setMaxThreads(int maxThreads) {
+            if (maxThreads <= 0) {
+                throw new IllegalArgumentException("max threads must be positive: " + maxThreads);
+            }
+            mMaxThreads = maxThreads;
+            mMinThreads = UNBOUNDED;
+            mTargetWaitNanos = NOT_ADAPTIVE;
+            mUseWorkStealing = false;
+            return this;
+        }
+
+        /**
+         * Adjust the number of threads used by {@link BackgroundThreadPoster} to the load.<br>
+         * In this mode, the posted {@link Runnable}s wait in a queue, ordered by their
+         * {@link Priority}, similarly to {@link #setMaxThreads(int)}. The time they spend in the
+         * queue and their run time are measured, and the number of threads grows when the
+         * average wait exceeds the target, or shrinks towards the number of threads that are
+         * actually busy when the average wait is well below the target. Therefore, the number of
+         * threads follows the sustained demand instead of growing with each burst.<br>
+         * Idle threads are terminated after a period of inactivity.
+         * Overrides {@link #setMaxThreads(int)} and {@link #setWorkStealingThreads(int)}.
+         * @param minThreads the minimal number of threads the pool shrinks to; must be positive
+         * @param maxThreads the maximal number of threads the pool grows to; must not be less than
+         *                   minThreads
+         * @param targetWaitMillis the target average time the posted {@link Runnable}s wait in the
+         *                         queue, in milliseconds; must be positive
+         */
+        public Builder setAdaptiveThreads(int minThreads, int maxThreads, long targetWaitMillis) {
+            if (minThreads <= 0) {
+                throw new IllegalArgumentException("min threads must be positive: " + minThreads);
+            }
+            if (maxThreads < minThreads) {
+                throw new IllegalArgumentException(
+                        "max threads must not be less than min threads: " + maxThreads + " < " + minThreads);
+            }
+            if (targetWaitMillis <= 0) {
+                throw new IllegalArgumentException("target wait must be positive: " + targetWaitMillis);
+            }
+            mMinThreads = minThreads;
+            mMaxThreads = maxThreads;
+            mTargetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMillis);
+            mUseWorkStealing = false;
+            return this;
+        }
+
+        /**
+         * Execute the posted work on the specified number of threads using work-stealing engine.<br>
+         * In this mode, each thread owns a local queue. {@link Runnable}s posted from these threads
+         * (e.g. subtasks spawned by other posted work) go onto the local queue of the posting
+         * thread, and {@link Runnable}s posted from other threads go onto a shared lock-free queue.
+         * Idle threads steal work from the queues of the busy ones. This reduces the contention
+         * when many threads post concurrently, and keeps subtasks on the threads that spawned
+         * them, but {@link Priority} and the order of execution aren't respected.<br>
+         * Idle threads are terminated after a period of inactivity.
+         * Overrides {@link #setMaxThreads(int)} and {@link #setAdaptiveThreads(int, int, long)}.
+         * @param numOfThreads the number of threads; must be positive
+         * @see BackgroundThreadPoster#isWorkStealing()
+         */
+        public Builder setWorkStealingThreads(int numOfThreads) {
+            if (numOfThreads <= 0) {
+                throw new IllegalArgumentException("number of threads must be positive: " + numOfThreads);
+            }
+            mMaxThreads = numOfThreads;
+            mMinThreads = UNBOUNDED;
+            mTargetWaitNanos = NOT_ADAPTIVE;
+            mUseWorkStealing = true;
+            return this;
+        }
+
+        /**
+         * Limit the number of posted {@link Runnable}s that haven't completed yet (either queued
+         * or executing), and apply the specified {@link SaturationPolicy} to the {@link Runnable}s
+         * posted beyond this limit.<br>
+         * By default, {@link BackgroundThreadPoster} accepts all the posted work, so producers
+         * that outrun the threads accumulate unbounded number of queued {@link Runnable}s (or
+         * threads, in the default unbounded mode). With the capacity limited, producers can also
+         * slow down ahead of time using {@link BackgroundThreadPoster#getRemainingCapacity()}.<br>
+         * The capacity applies to the {@link Runnable}s posted using post(), postCancellable(),
+         * postCompute() and postIo() (including the ones that accept {@link Consumer}s and
+         * {@link BiConsumer}s). Delayed, periodic, debounced, throttled and keyed serial posts
+         * aren't limited. {@link Runnable}s that were cancelled before they started don't count
+         * against the capacity.
+         * @param capacity the maximal number of {@link Runnable}s that haven't completed yet;
+         *                 must be positive
+         * @param saturationPolicy the policy that handles the {@link Runnable}s posted when the
+         *                         capacity is exhausted
+         */
+        public Builder setCapacity(int capacity, SaturationPolicy saturationPolicy) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            if (saturationPolicy == null) {
+                throw new IllegalArgumentException("saturation policy must not be null");
+            }
+            mCapacity = capacity;
+            mSaturationPolicy = saturationPolicy;
+            return this;
+        }
+
+        /**
+         * Report the metrics of the posted work to the specified {@link PosterMetrics}.
+         * @see PosterMetricsRecorder
+         */
+        public Builder setMetrics(PosterMetrics metrics) {
+            mMetrics = metrics;
+            return this;
+        }
+
+        /**
+         * Execute the posted work on virtual threads, if the runtime supports them (JDK 21+).
+         * Otherwise, regular threads are used (e.g. on Android). In both cases, the semantics of
+         * {@link BackgroundThreadPoster} are the same.<br>
+         * Virtual threads are much cheaper than regular threads when the posted work spends most
+         * of its time blocked (e.g. on network or disk I/O), so this mode is useful when the same
+         * code also runs on the server side, under high load.
+         * @see BackgroundThreadPoster#isUsingVirtualThreads()
+         */
+        public Builder setUseVirtualThreads(boolean useVirtualThreads) {
+            mUseVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        /**
+         * Defer the construction of the underlying executor until the first {@link Runnable} is
+         * posted (or until {@link BackgroundThreadPoster#prestart()} is called).<br>
+         * In this mode, constructing {@link BackgroundThreadPoster} is nearly free, so it can be
+         * done on the critical startup path of the application (e.g. in Application#onCreate())
+         * without slowing it down.
+         * @see BackgroundThreadPoster#isInitialized()
+         */
+        public Builder setLazyInitialization(boolean isLazy) {
+            mIsLazy = isLazy;
+            return this;
+        }
+
+        /**
+         * Set the scheduling priority of the threads of the specified lane.<br>
+         * By default, the threads of {@link Lane#IO} and {@link Lane#COMPUTE} lanes run at
+         * {@link ThreadQos#BACKGROUND} priority, so they don't compete with UI thread for CPU,
+         * and the threads of {@link Lane#USER_INTERACTIVE} lane run at
+         * {@link ThreadQos#USER_INTERACTIVE} priority. Virtual threads ignore this setting.
+         * @see BackgroundThreadPoster#postBoostable(Runnable)
+         */
+        public Builder setThreadQos(Lane lane, ThreadQos threadQos) {
+            if (threadQos == null) {
+                throw new IllegalArgumentException("thread QoS must not be null");
+            }
+            switch (lane) {
+                case IO:
+                    mIoThreadQos = threadQos;
+                    break;
+                case COMPUTE:
+                    mComputeThreadQos = threadQos;
+                    break;
+                case USER_INTERACTIVE:
+                    mUserInteractiveThreadQos = threadQos;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported lane: " + lane);
+            }
+            return this;
+        }
+
+        public BackgroundThreadPoster build() {
+            return new BackgroundThreadPoster(this);
+        }
+    }
+
 }
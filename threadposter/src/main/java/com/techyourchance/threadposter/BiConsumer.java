@@ -0,0 +1,11 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Action that accepts two arguments.<br>
+ * Used with the argument-carrying overloads of {@link UiThreadPoster} and
+ * {@link BackgroundThreadPoster} which don't allocate capturing {@link Runnable}s.
+ * Equivalent to java.util.function.BiConsumer, which isn't available on older Android versions.
+ */
+public interface BiConsumer<A, B> {
+    void accept(A arg1, B arg2);
+}
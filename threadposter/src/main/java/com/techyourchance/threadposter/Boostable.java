@@ -0,0 +1,22 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Handle of background work whose thread priority can be raised while someone (e.g. UI) is
+ * waiting for its result.
+ * @see BackgroundThreadPoster#postBoostable(Runnable)
+ */
+public interface Boostable {
+
+    /**
+     * Raise the priority of the thread that executes this work to
+     * {@link ThreadQos#USER_INTERACTIVE} until this work completes. If the work hasn't started
+     * yet, it will execute at the raised priority once it starts. Has no effect if the work has
+     * already completed.
+     */
+    void boost();
+
+    /**
+     * @return true if {@link #boost()} has been called
+     */
+    boolean isBoosted();
+}
@@ -0,0 +1,61 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Wrapper of posted {@link Runnable} that raises the priority of its thread while it's boosted.
+ * Only the threads of {@link BackgroundThreadPoster} are boosted. The work that executes on
+ * other threads (e.g. virtual threads or the posting thread when the poster is saturated) is
+ * never boosted, because the priority of these threads isn't managed by this library.
+ */
+/* pp */ final class BoostableTask implements Runnable, Boostable {
+
+    private final Runnable mRunnable;
+
+    // guarded by this
+    private boolean mIsBoosted = false;
+    private boolean mIsCompleted = false;
+    private WorkerThreadFactory.WorkerThread mRunningThread;
+
+    /* pp */ BoostableTask(Runnable runnable) {
+        mRunnable = runnable;
+    }
+
+    @Override
+    public void run() {
+        Thread currentThread = Thread.currentThread();
+        WorkerThreadFactory.WorkerThread workerThread = currentThread instanceof WorkerThreadFactory.WorkerThread
+                ? (WorkerThreadFactory.WorkerThread) currentThread : null;
+        synchronized (this) {
+            mRunningThread = workerThread;
+            if (mIsBoosted && workerThread != null) {
+                workerThread.setThreadQos(ThreadQos.USER_INTERACTIVE);
+            }
+        }
+        try {
+            mRunnable.run();
+        } finally {
+            synchronized (this) {
+                if (mIsBoosted && workerThread != null) {
+                    workerThread.restoreThreadQos();
+                }
+                mRunningThread = null;
+                mIsCompleted = true;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void boost() {
+        if (mIsBoosted || mIsCompleted) {
+            return;
+        }
+        mIsBoosted = true;
+        if (mRunningThread != null) {
+            mRunningThread.setThreadQos(ThreadQos.USER_INTERACTIVE);
+        }
+    }
+
+    @Override
+    public synchronized boolean isBoosted() {
+        return mIsBoosted;
+    }
+}
@@ -0,0 +1,29 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Handle of posted work that allows to cancel it.<br>
+ * Cancelled work releases the references to the posted {@link Runnable} right away, so it
+ * doesn't hold on to memory while waiting in queues.
+ */
+public interface Cancellable {
+
+    /**
+     * Cancel the work if it hasn't started yet. Same as {@code cancel(false)}.
+     * @return true if the work was cancelled before it started
+     */
+    boolean cancel();
+
+    /**
+     * Cancel the work if it hasn't started yet, or, optionally, interrupt the thread that executes
+     * it if it has already started.<br>
+     * Work executing on UI thread is never interrupted.
+     * @param mayInterruptIfRunning whether the thread that executes the work should be interrupted
+     * @return true if the work was cancelled before it started, or if it was interrupted
+     */
+    boolean cancel(boolean mayInterruptIfRunning);
+
+    /**
+     * @return true if the work was cancelled
+     */
+    boolean isCancelled();
+}
@@ -0,0 +1,95 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link Runnable} wrapper that implements {@link Cancellable}.
+ */
+/* pp */ class CancellableTask implements Runnable, Cancellable {
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int COMPLETED = 2;
+    private static final int CANCELLED = 3;
+    private static final int INTERRUPTING = 4;
+    private static final int INTERRUPTED = 5;
+
+    private static final AtomicIntegerFieldUpdater<CancellableTask> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(CancellableTask.class, "mState");
+
+    private final boolean mIsInterruptible;
+
+    private volatile int mState = NEW;
+    private volatile Runnable mRunnable;
+    private volatile Thread mRunner;
+
+    /**
+     * @param runnable the wrapped {@link Runnable}
+     * @param isInterruptible whether the thread that executes this task can be interrupted
+     */
+    /* pp */ CancellableTask(Runnable runnable, boolean isInterruptible) {
+        mRunnable = runnable;
+        mIsInterruptible = isInterruptible;
+    }
+
+    @Override
+    public void run() {
+        mRunner = Thread.currentThread();
+        if (!STATE.compareAndSet(this, NEW, RUNNING)) {
+            mRunner = null;
+            return; // cancelled
+        }
+        Runnable runnable = mRunnable;
+        mRunnable = null;
+        try {
+            runnable.run();
+        } finally {
+            mRunner = null;
+            if (!STATE.compareAndSet(this, RUNNING, COMPLETED)) {
+                // make sure that the interrupt aimed at this task doesn't leak into the next task
+                // executed by this thread
+                while (mState == INTERRUPTING) {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        return cancel(false);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (STATE.compareAndSet(this, NEW, CANCELLED)) {
+            mRunnable = null;
+            onCancelledBeforeStart();
+            return true;
+        }
+        if (mayInterruptIfRunning && mIsInterruptible && STATE.compareAndSet(this, RUNNING, INTERRUPTING)) {
+            try {
+                Thread runner = mRunner;
+                if (runner != null) {
+                    runner.interrupt();
+                }
+            } finally {
+                mState = INTERRUPTED;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        int state = mState;
+        return state == CANCELLED || state == INTERRUPTING || state == INTERRUPTED;
+    }
+
+    /**
+     * Invoked when this task is cancelled before it started. Subclasses can override this method
+     * in order to remove this task from queues.
+     */
+    protected void onCancelledBeforeStart() {}
+}
@@ -0,0 +1,11 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Action that accepts a single argument.<br>
+ * Used with the argument-carrying overloads of {@link UiThreadPoster} and
+ * {@link BackgroundThreadPoster} which don't allocate capturing {@link Runnable}s.
+ * Equivalent to java.util.function.Consumer, which isn't available on older Android versions.
+ */
+public interface Consumer<T> {
+    void accept(T arg);
+}
@@ -0,0 +1,10 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Function that accepts a single argument and produces a result.<br>
+ * Used to define the stages of {@link Pipeline}. Similar to java.util.function.Function, which
+ * isn't available on older Android versions, but can throw checked exceptions.
+ */
+public interface Function<T, R> {
+    R apply(T arg) throws Exception;
+}
@@ -0,0 +1,191 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Debounces and throttles bursts of {@link Runnable}s posted with the same key.<br>
+ * Each key gets a small state object that exists only while there is a burst in progress for
+ * this key. The state is updated using CAS, so posting never blocks, and the whole burst costs a
+ * single timer at a time.
+ */
+/* pp */ abstract class KeyedRateLimiter {
+
+    /**
+     * Marks the state of a burst that has ended; such a state can't accept new {@link Runnable}s
+     */
+    private static final Runnable RETIRED = new Runnable() {
+        @Override
+        public void run() {
+            throw new IllegalStateException("must never run");
+        }
+    };
+
+    private final ConcurrentMap<Object, Debounce> mDebounces = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Throttle> mThrottles = new ConcurrentHashMap<>();
+
+    /* pp */ void debounce(Object key, long delayMillis, Runnable runnable) {
+        checkPositive("delay", delayMillis);
+        long uptimeMillis = getUptimeMillis();
+        while (true) {
+            Debounce debounce = mDebounces.get(key);
+            if (debounce == null) {
+                debounce = new Debounce(key, delayMillis, uptimeMillis, runnable);
+                if (mDebounces.putIfAbsent(key, debounce) == null) {
+                    scheduleTimer(debounce, delayMillis);
+                    return;
+                }
+            } else if (debounce.offer(delayMillis, uptimeMillis, runnable)) {
+                return;
+            } else {
+                // the burst has just ended - help to remove its state instead of spinning
+                mDebounces.remove(key, debounce);
+            }
+        }
+    }
+
+    /* pp */ void throttle(Object key, long intervalMillis, Runnable runnable) {
+        checkPositive("interval", intervalMillis);
+        while (true) {
+            Throttle throttle = mThrottles.get(key);
+            if (throttle == null) {
+                throttle = new Throttle(key, intervalMillis);
+                if (mThrottles.putIfAbsent(key, throttle) == null) {
+                    dispatch(runnable);
+                    scheduleTimer(throttle, intervalMillis);
+                    return;
+                }
+            } else if (throttle.offer(runnable)) {
+                return;
+            } else {
+                // the burst has just ended - help to remove its state instead of spinning
+                mThrottles.remove(key, throttle);
+            }
+        }
+    }
+
+    private static void checkPositive(String name, long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + millis);
+        }
+    }
+
+    /**
+     * @return the number of keys that have a burst in progress
+     */
+    /* pp */ int getActiveKeysCount() {
+        return mDebounces.size() + mThrottles.size();
+    }
+
+    /**
+     * Schedule the specified trigger to be invoked after the specified delay.
+     */
+    /* pp */ abstract void scheduleTimer(Runnable trigger, long delayMillis);
+
+    /**
+     * @return the current time of the clock that the timers are based on
+     */
+    /* pp */ abstract long getUptimeMillis();
+
+    /**
+     * Execute the specified {@link Runnable} on the target thread.
+     */
+    /* pp */ abstract void dispatch(Runnable runnable);
+
+    /**
+     * The state of debounced burst. The timer is re-armed until there are no new {@link Runnable}s
+     * for the specified delay, and then the latest {@link Runnable} is dispatched.
+     */
+    private final class Debounce implements Runnable {
+
+        private final Object mKey;
+        private final AtomicReference<Runnable> mLatestRunnable;
+        private volatile long mDelayMillis;
+        private volatile long mLastOfferUptimeMillis;
+
+        private Debounce(Object key, long delayMillis, long uptimeMillis, Runnable runnable) {
+            mKey = key;
+            mDelayMillis = delayMillis;
+            mLastOfferUptimeMillis = uptimeMillis;
+            mLatestRunnable = new AtomicReference<>(runnable);
+        }
+
+        private boolean offer(long delayMillis, long uptimeMillis, Runnable runnable) {
+            // the timing must be visible before the Runnable, which is read by the timer first
+            mDelayMillis = delayMillis;
+            mLastOfferUptimeMillis = uptimeMillis;
+            Runnable current;
+            while ((current = mLatestRunnable.get()) != RETIRED) {
+                if (mLatestRunnable.compareAndSet(current, runnable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable latest = mLatestRunnable.get();
+                long remainingMillis = mLastOfferUptimeMillis + mDelayMillis - getUptimeMillis();
+                if (remainingMillis > 0) {
+                    scheduleTimer(this, remainingMillis);
+                    return;
+                }
+                if (mLatestRunnable.compareAndSet(latest, RETIRED)) {
+                    mDebounces.remove(mKey, this);
+                    dispatch(latest);
+                    return;
+                }
+                // a new Runnable has just been offered - re-check the timing
+            }
+        }
+    }
+
+    /**
+     * The state of throttled burst. The first {@link Runnable} is dispatched right away and opens
+     * the interval. The latest {@link Runnable} offered during the interval is dispatched when the
+     * interval ends and opens the next interval. The burst ends after an interval without
+     * {@link Runnable}s.
+     */
+    private final class Throttle implements Runnable {
+
+        private final Object mKey;
+        private final long mIntervalMillis;
+        private final AtomicReference<Runnable> mPendingRunnable = new AtomicReference<>(null);
+
+        private Throttle(Object key, long intervalMillis) {
+            mKey = key;
+            mIntervalMillis = intervalMillis;
+        }
+
+        private boolean offer(Runnable runnable) {
+            Runnable current;
+            while ((current = mPendingRunnable.get()) != RETIRED) {
+                if (mPendingRunnable.compareAndSet(current, runnable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable pending = mPendingRunnable.get();
+                if (pending == null) {
+                    if (mPendingRunnable.compareAndSet(null, RETIRED)) {
+                        mThrottles.remove(mKey, this);
+                        return;
+                    }
+                } else if (mPendingRunnable.compareAndSet(pending, null)) {
+                    dispatch(pending);
+                    scheduleTimer(this, mIntervalMillis);
+                    return;
+                }
+                // a new Runnable has just been offered - re-check
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.techyourchance.threadposter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Multiplexes any number of serial (FIFO, non-overlapping) queues onto a shared {@link Executor}.<br>
+ * Each key gets a lightweight queue that exists only while there is pending work for this key.
+ * At most one {@link Runnable} per key is handed to the underlying {@link Executor} at any
+ * given time, so no thread is dedicated to any specific key.
+ */
+/* pp */ class KeyedSerialExecutor {
+
+    private final Executor mExecutor;
+
+    // guarded by itself
+    private final Map<Object, SerialQueue> mSerialQueues = new HashMap<>();
+
+    /* pp */ KeyedSerialExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /* pp */ void execute(Object key, Runnable runnable) {
+        SerialQueue newSerialQueue = null;
+        synchronized (mSerialQueues) {
+            SerialQueue serialQueue = mSerialQueues.get(key);
+            if (serialQueue == null) {
+                serialQueue = newSerialQueue = new SerialQueue(key);
+                mSerialQueues.put(key, serialQueue);
+            }
+            serialQueue.mRunnables.add(runnable);
+        }
+        if (newSerialQueue != null) {
+            mExecutor.execute(newSerialQueue);
+        }
+    }
+
+    /**
+     * @return the number of keys that have pending or executing work
+     */
+    /* pp */ int getActiveKeysCount() {
+        synchronized (mSerialQueues) {
+            return mSerialQueues.size();
+        }
+    }
+
+    private class SerialQueue implements Runnable {
+
+        private final Object mKey;
+
+        // guarded by mSerialQueues; the head of the queue is the currently executing Runnable
+        private final ArrayDeque<Runnable> mRunnables = new ArrayDeque<>(4);
+
+        private SerialQueue(Object key) {
+            mKey = key;
+        }
+
+        @Override
+        public void run() {
+            Runnable runnable;
+            synchronized (mSerialQueues) {
+                runnable = mRunnables.peek();
+            }
+            try {
+                runnable.run();
+            } finally {
+                boolean hasMoreWork;
+                synchronized (mSerialQueues) {
+                    mRunnables.poll();
+                    hasMoreWork = !mRunnables.isEmpty();
+                    if (!hasMoreWork) {
+                        mSerialQueues.remove(mKey);
+                    }
+                }
+                if (hasMoreWork) {
+                    // re-submit instead of looping in order to not starve other keys and tasks
+                    mExecutor.execute(this);
+                }
+            }
+        }
+    }
+}
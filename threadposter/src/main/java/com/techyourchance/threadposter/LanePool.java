@@ -0,0 +1,65 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size pool of a secondary lane of {@link BackgroundThreadPoster} (e.g. the compute lane).
+ * <br>
+ * The underlying executor is constructed lazily, so applications that don't use the lane don't
+ * pay for it. Its queue orders the elements by priority, so all of them must be
+ * {@link PooledTask}s.
+ */
+/* pp */ final class LanePool {
+
+    private final int mNumOfThreads;
+    private final long mKeepAliveSeconds;
+    private final ThreadFactory mThreadFactory;
+
+    private final Object mLock = new Object();
+    private volatile ThreadPoolExecutor mThreadPoolExecutor;
+
+    /* pp */ LanePool(int numOfThreads, long keepAliveSeconds, ThreadFactory threadFactory) {
+        mNumOfThreads = numOfThreads;
+        mKeepAliveSeconds = keepAliveSeconds;
+        mThreadFactory = threadFactory;
+    }
+
+    /* pp */ void execute(PooledTask task) {
+        getThreadPoolExecutor().execute(task);
+    }
+
+    /* pp */ int getPoolSize() {
+        ThreadPoolExecutor threadPoolExecutor = mThreadPoolExecutor;
+        return threadPoolExecutor == null ? 0 : threadPoolExecutor.getPoolSize();
+    }
+
+    /* pp */ int getLargestPoolSize() {
+        ThreadPoolExecutor threadPoolExecutor = mThreadPoolExecutor;
+        return threadPoolExecutor == null ? 0 : threadPoolExecutor.getLargestPoolSize();
+    }
+
+    private ThreadPoolExecutor getThreadPoolExecutor() {
+        ThreadPoolExecutor threadPoolExecutor = mThreadPoolExecutor;
+        if (threadPoolExecutor == null) {
+            synchronized (mLock) {
+                threadPoolExecutor = mThreadPoolExecutor;
+                if (threadPoolExecutor == null) {
+                    threadPoolExecutor = new ThreadPoolExecutor(
+                            mNumOfThreads,
+                            mNumOfThreads,
+                            mKeepAliveSeconds,
+                            TimeUnit.SECONDS,
+                            new PriorityBlockingQueue<Runnable>(),
+                            mThreadFactory
+                    );
+                    threadPoolExecutor.allowCoreThreadTimeOut(true);
+                    mThreadPoolExecutor = threadPoolExecutor;
+                }
+            }
+        }
+        return threadPoolExecutor;
+    }
+}
@@ -0,0 +1,138 @@
+package com.techyourchance.threadposter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes independent pieces of work in parallel on {@link BackgroundThreadPoster} and delivers
+ * their aggregated result on UI thread through {@link UiThreadPoster}.<br>
+ * No background thread ever blocks waiting for other pieces: the piece that completes last
+ * posts the aggregated result. Background threads that complete their piece early pick up the
+ * pieces that haven't been started yet.
+ */
+public class ParallelPoster {
+
+    private final BackgroundThreadPoster mBackgroundThreadPoster;
+    private final UiThreadPoster mUiThreadPoster;
+
+    public ParallelPoster(BackgroundThreadPoster backgroundThreadPoster, UiThreadPoster uiThreadPoster) {
+        mBackgroundThreadPoster = backgroundThreadPoster;
+        mUiThreadPoster = uiThreadPoster;
+    }
+
+    /**
+     * Execute all {@link Callable}s in parallel on background threads and deliver their results
+     * on UI thread. {@link UiCallback} is invoked exactly once: either with the list of the
+     * results (in the same order as the {@link Callable}s), or with the first exception thrown by
+     * any of the {@link Callable}s (an {@link Error} is delivered wrapped in
+     * {@link ExecutionException}, and then rethrown on the background thread). After a failure,
+     * the {@link Callable}s that haven't been started yet are skipped.
+     * @param callables the independent pieces of work
+     * @param callback the callback that will be invoked on UI thread
+     */
+    public <T> void postAll(List<? extends Callable<? extends T>> callables, UiCallback<List<T>> callback) {
+        postAll(callables, Math.max(1, callables.size()), callback);
+    }
+
+    /**
+     * Same as {@link #postAll(List, UiCallback)}, but at most the specified number of
+     * {@link Callable}s will be executing at any instant.
+     * @param maxParallelism the maximal number of {@link Callable}s that execute concurrently;
+     *                       must be positive
+     */
+    public <T> void postAll(List<? extends Callable<? extends T>> callables,
+                            int maxParallelism,
+                            UiCallback<List<T>> callback) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("max parallelism must be positive: " + maxParallelism);
+        }
+        if (callables.isEmpty()) {
+            deliverSuccess(callback, Collections.<T>emptyList());
+            return;
+        }
+        FanOut<T> fanOut = new FanOut<>(new ArrayList<Callable<? extends T>>(callables), callback);
+        int numOfWorkers = Math.min(maxParallelism, callables.size());
+        for (int i = 0; i < numOfWorkers; i++) {
+            mBackgroundThreadPoster.post(fanOut);
+        }
+    }
+
+    private <T> void deliverSuccess(final UiCallback<List<T>> callback, final List<T> results) {
+        mUiThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onSuccess(results);
+            }
+        });
+    }
+
+    private <T> void deliverFailure(final UiCallback<List<T>> callback, final Exception exception) {
+        mUiThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onFailure(exception);
+            }
+        });
+    }
+
+    /**
+     * Each background worker executes this {@link Runnable}, which claims and executes the pieces
+     * of work until there are none left.
+     */
+    private class FanOut<T> implements Runnable {
+
+        private final List<Callable<? extends T>> mCallables;
+        private final UiCallback<List<T>> mCallback;
+        private final Object[] mResults;
+        private final AtomicInteger mNextIndex = new AtomicInteger(0);
+        private final AtomicInteger mRemaining;
+        private final AtomicBoolean mFailed = new AtomicBoolean(false);
+
+        private FanOut(List<Callable<? extends T>> callables, UiCallback<List<T>> callback) {
+            mCallables = callables;
+            mCallback = callback;
+            mResults = new Object[callables.size()];
+            mRemaining = new AtomicInteger(callables.size());
+        }
+
+        @Override
+        public void run() {
+            int index;
+            while (!mFailed.get() && (index = mNextIndex.getAndIncrement()) < mCallables.size()) {
+                try {
+                    mResults[index] = mCallables.get(index).call();
+                } catch (Exception e) {
+                    onPieceFailed(e);
+                    return;
+                } catch (Error e) {
+                    // the callback must be invoked even in this case, and the Error still propagates
+                    onPieceFailed(new ExecutionException(e));
+                    throw e;
+                }
+                // the decrement establishes happens-before between the stores into mResults and
+                // the reads performed by the worker that completes last (after a failure, the
+                // count never reaches zero)
+                if (mRemaining.decrementAndGet() == 0) {
+                    deliverSuccess(mCallback, resultsAsList());
+                }
+            }
+        }
+
+        private void onPieceFailed(Exception exception) {
+            if (mFailed.compareAndSet(false, true)) {
+                deliverFailure(mCallback, exception);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> resultsAsList() {
+            return (List<T>) Collections.unmodifiableList(Arrays.asList(mResults));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Typed chain of stages, each of which executes either on a background thread or on UI thread,
+ * and receives the result of the previous stage. Built using {@link PipelinePoster}:
+ * <pre>
+ * pipelinePoster.onBackground(load)
+ *         .thenBackground(parse)
+ *         .thenUi(render)
+ *         .onError(showError)
+ *         .post();
+ * </pre>
+ * Consecutive stages with the same thread affinity are fused: they execute inline on the same
+ * thread, one after another, without being re-posted. Therefore, hops happen only when the
+ * affinity changes. Each stage is a single object which is allocated when the {@link Pipeline}
+ * is built; the hops themselves don't allocate new objects.<br>
+ * If any stage throws, the subsequent stages are skipped and the exception is delivered to the
+ * error handler on UI thread.<br>
+ * {@link Pipeline}s are single-use: each stage can be chained only once, and each
+ * {@link Pipeline} can be posted only once.
+ * @param <T> the type of the result of the last stage
+ */
+public final class Pipeline<T> {
+
+    private final PipelinePoster mPipelinePoster;
+    private final Pipeline<?> mFirst;
+    private final boolean mIsOnUiThread;
+    private final Callable<?> mCallable; // the first stage only
+    private final Function<Object, ?> mFunction; // all the other stages
+
+    private Pipeline<?> mNext;
+
+    // the input of this stage; set right before this stage is posted
+    private Object mInput;
+
+    // the first stage only
+    private Consumer<Exception> mErrorHandler;
+    private boolean mIsPosted;
+
+    @SuppressWarnings("unchecked")
+    private Pipeline(PipelinePoster pipelinePoster,
+                     Pipeline<?> first,
+                     boolean isOnUiThread,
+                     Callable<?> callable,
+                     Function<?, ?> function) {
+        mPipelinePoster = pipelinePoster;
+        mFirst = first != null ? first : this;
+        mIsOnUiThread = isOnUiThread;
+        mCallable = callable;
+        mFunction = (Function<Object, ?>) function;
+    }
+
+    /* pp */ static <T> Pipeline<T> first(PipelinePoster pipelinePoster,
+                                          boolean isOnUiThread,
+                                          Callable<? extends T> callable) {
+        return new Pipeline<>(pipelinePoster, null, isOnUiThread, callable, null);
+    }
+
+    /**
+     * Add a stage that will execute on a background thread and receive the result of this stage.
+     */
+    public <R> Pipeline<R> thenBackground(Function<? super T, ? extends R> function) {
+        return then(false, function);
+    }
+
+    /**
+     * Add a stage that will execute on UI thread and receive the result of this stage.
+     */
+    public <R> Pipeline<R> thenUi(Function<? super T, ? extends R> function) {
+        return then(true, function);
+    }
+
+    private <R> Pipeline<R> then(boolean isOnUiThread, Function<? super T, ? extends R> function) {
+        checkNotPosted();
+        if (mNext != null) {
+            throw new IllegalStateException("this stage has already been chained");
+        }
+        Pipeline<R> next = new Pipeline<>(mPipelinePoster, mFirst, isOnUiThread, null, function);
+        mNext = next;
+        return next;
+    }
+
+    /**
+     * Set the handler that will be invoked on UI thread if any stage of this {@link Pipeline}
+     * throws. If there is no handler, the exception will be re-thrown on the thread where it
+     * occurred.
+     */
+    public Pipeline<T> onError(Consumer<Exception> errorHandler) {
+        checkNotPosted();
+        mFirst.mErrorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * Start the execution of this {@link Pipeline}. Can be called on the object returned by any
+     * stage.
+     */
+    public void post() {
+        checkNotPosted();
+        mFirst.mIsPosted = true;
+        mPipelinePoster.dispatch(mFirst, mFirst.mIsOnUiThread);
+    }
+
+    /**
+     * Add a stage that will consume the result of this stage on UI thread, and start the execution
+     * of this {@link Pipeline}.
+     */
+    public void post(final Consumer<? super T> uiConsumer) {
+        thenUi(new Function<T, Void>() {
+            @Override
+            public Void apply(T arg) {
+                uiConsumer.accept(arg);
+                return null;
+            }
+        }).post();
+    }
+
+    private void checkNotPosted() {
+        if (mFirst.mIsPosted) {
+            throw new IllegalStateException("this pipeline has already been posted");
+        }
+    }
+
+    /**
+     * Execute the specified stage, and all the subsequent stages that have the same thread
+     * affinity, on the current thread. The first stage with a different affinity is posted to
+     * its thread.
+     */
+    /* pp */ static void execute(Pipeline<?> stage, boolean isOnUiThread) {
+        Object value = stage.mInput;
+        stage.mInput = null;
+        try {
+            while (stage != null) {
+                if (stage.mIsOnUiThread != isOnUiThread) {
+                    stage.mInput = value;
+                    stage.mPipelinePoster.dispatch(stage, stage.mIsOnUiThread);
+                    return;
+                }
+                value = stage.mCallable != null ? stage.mCallable.call() : stage.mFunction.apply(value);
+                stage = stage.mNext;
+            }
+        } catch (Exception e) {
+            deliverError(stage, isOnUiThread, e);
+        }
+    }
+
+    private static void deliverError(Pipeline<?> stage, boolean isOnUiThread, Exception exception) {
+        Consumer<Exception> errorHandler = stage.mFirst.mErrorHandler;
+        if (errorHandler == null) {
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new RuntimeException(exception);
+        }
+        if (isOnUiThread) {
+            errorHandler.accept(exception);
+        } else {
+            stage.mPipelinePoster.dispatchError(errorHandler, exception);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Entry point for building {@link Pipeline}s: chains of stages that hop between
+ * {@link BackgroundThreadPoster} and {@link UiThreadPoster}.
+ */
+public class PipelinePoster {
+
+    private final BackgroundThreadPoster mBackgroundThreadPoster;
+    private final UiThreadPoster mUiThreadPoster;
+
+    private final Consumer<Pipeline<?>> mBackgroundStageExecutor = new Consumer<Pipeline<?>>() {
+        @Override
+        public void accept(Pipeline<?> stage) {
+            Pipeline.execute(stage, false);
+        }
+    };
+
+    private final Consumer<Pipeline<?>> mUiStageExecutor = new Consumer<Pipeline<?>>() {
+        @Override
+        public void accept(Pipeline<?> stage) {
+            Pipeline.execute(stage, true);
+        }
+    };
+
+    public PipelinePoster(BackgroundThreadPoster backgroundThreadPoster, UiThreadPoster uiThreadPoster) {
+        mBackgroundThreadPoster = backgroundThreadPoster;
+        mUiThreadPoster = uiThreadPoster;
+    }
+
+    /**
+     * Start building a {@link Pipeline} which first stage executes on a background thread.
+     * @param callable the first stage
+     */
+    public <T> Pipeline<T> onBackground(Callable<? extends T> callable) {
+        return Pipeline.first(this, false, callable);
+    }
+
+    /**
+     * Start building a {@link Pipeline} which first stage executes on UI thread.
+     * @param callable the first stage
+     */
+    public <T> Pipeline<T> onUi(Callable<? extends T> callable) {
+        return Pipeline.first(this, true, callable);
+    }
+
+    /**
+     * Post the specified stage (and all the subsequent stages) to the thread it should execute
+     * on. Doesn't allocate new objects.
+     */
+    /* pp */ void dispatch(Pipeline<?> stage, boolean isOnUiThread) {
+        if (isOnUiThread) {
+            mUiThreadPoster.post(mUiStageExecutor, stage);
+        } else {
+            mBackgroundThreadPoster.post(mBackgroundStageExecutor, stage);
+        }
+    }
+
+    /**
+     * Deliver the specified exception to the error handler on UI thread.
+     */
+    /* pp */ void dispatchError(Consumer<Exception> errorHandler, Exception exception) {
+        mUiThreadPoster.post(errorHandler, exception);
+    }
+}
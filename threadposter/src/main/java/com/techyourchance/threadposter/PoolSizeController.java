@@ -0,0 +1,156 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adjusts the number of threads of {@link BackgroundThreadPoster} in adaptive mode (see
+ * {@link BackgroundThreadPoster.Builder#setAdaptiveThreads(int, int, long)}).<br>
+ * It's installed as {@link PosterMetrics} (forwarding all the callbacks to the metrics installed by
+ * the user, if any) and measures the queue wait time and the total run time of the tasks. Once
+ * per control interval, on the thread that starts a task:
+ * <ul>
+ *     <li>If the average wait exceeds the target, the pool grows by half (at least by one thread).</li>
+ *     <li>If the average wait is below half of the target, the pool shrinks towards the number of
+ *     threads that were actually busy during the interval (plus one).</li>
+ * </ul>
+ * If all the threads are blocked, no task starts, so the above never happens. Therefore, while
+ * there are queued tasks, the wait time of the head of the queue is also checked once per control
+ * interval on the timer thread, and the pool grows if it exceeds the target.<br>
+ * The size always stays within the configured bounds. Excess threads terminate once idle.
+ */
+/* pp */ final class PoolSizeController implements PosterMetrics {
+
+    /* pp */ static final long DEFAULT_CONTROL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ThreadPoolExecutor mThreadPoolExecutor;
+    private final int mMinThreads;
+    private final int mMaxThreads;
+    private final long mTargetWaitNanos;
+    private final long mControlIntervalNanos;
+    private final PosterMetrics mDelegate;
+
+    private final AtomicLong mIntervalStartNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong mStartedTasksCount = new AtomicLong(0);
+    private final AtomicLong mTotalWaitNanos = new AtomicLong(0);
+    private final AtomicLong mTotalRunNanos = new AtomicLong(0);
+
+    private final AtomicBoolean mIsStarvationCheckScheduled = new AtomicBoolean(false);
+    private final Runnable mStarvationCheck = new Runnable() {
+        @Override
+        public void run() {
+            checkStarvation();
+        }
+    };
+
+    /**
+     * @param delegate {@link PosterMetrics} that all the callbacks are forwarded to; can be null
+     */
+    /* pp */ PoolSizeController(ThreadPoolExecutor threadPoolExecutor,
+                                int minThreads,
+                                int maxThreads,
+                                long targetWaitNanos,
+                                long controlIntervalNanos,
+                                PosterMetrics delegate) {
+        mThreadPoolExecutor = threadPoolExecutor;
+        mMinThreads = minThreads;
+        mMaxThreads = maxThreads;
+        mTargetWaitNanos = targetWaitNanos;
+        mControlIntervalNanos = controlIntervalNanos;
+        mDelegate = delegate;
+    }
+
+    @Override
+    public void onTaskPosted(String tag) {
+        if (mDelegate != null) {
+            mDelegate.onTaskPosted(tag);
+        }
+        scheduleStarvationCheckIfNeeded();
+    }
+
+    @Override
+    public void onTaskStarted(String tag, long waitNanos) {
+        mStartedTasksCount.incrementAndGet();
+        mTotalWaitNanos.addAndGet(waitNanos);
+        if (mDelegate != null) {
+            mDelegate.onTaskStarted(tag, waitNanos);
+        }
+        resizeIfNeeded();
+    }
+
+    @Override
+    public void onTaskCompleted(String tag, long waitNanos, long runNanos) {
+        mTotalRunNanos.addAndGet(runNanos);
+        if (mDelegate != null) {
+            mDelegate.onTaskCompleted(tag, waitNanos, runNanos);
+        }
+    }
+
+    private void resizeIfNeeded() {
+        long nowNanos = System.nanoTime();
+        long intervalStartNanos = mIntervalStartNanos.get();
+        long intervalNanos = nowNanos - intervalStartNanos;
+        if (intervalNanos < mControlIntervalNanos
+                || !mIntervalStartNanos.compareAndSet(intervalStartNanos, nowNanos)) {
+            return; // not the time yet, or another thread evaluates this interval
+        }
+
+        long startedTasksCount = mStartedTasksCount.getAndSet(0);
+        long totalWaitNanos = mTotalWaitNanos.getAndSet(0);
+        long totalRunNanos = mTotalRunNanos.getAndSet(0);
+        if (startedTasksCount == 0) {
+            return;
+        }
+
+        long averageWaitNanos = totalWaitNanos / startedTasksCount;
+        int currentThreads = mThreadPoolExecutor.getCorePoolSize();
+        int newThreads = currentThreads;
+        if (averageWaitNanos > mTargetWaitNanos) {
+            newThreads = getGrownPoolSize(currentThreads);
+        } else if (averageWaitNanos < mTargetWaitNanos / 2) {
+            // the average number of busy threads is the throughput multiplied by the run time
+            int busyThreads = (int) Math.ceil((double) totalRunNanos / Math.max(1, intervalNanos));
+            newThreads = Math.min(currentThreads, busyThreads + 1);
+        }
+        newThreads = Math.max(mMinThreads, Math.min(mMaxThreads, newThreads));
+        if (newThreads != currentThreads) {
+            mThreadPoolExecutor.setCorePoolSize(newThreads);
+        }
+    }
+
+    private int getGrownPoolSize(int currentThreads) {
+        return currentThreads + Math.max(1, currentThreads / 2);
+    }
+
+    private void scheduleStarvationCheckIfNeeded() {
+        if (mIsStarvationCheckScheduled.compareAndSet(false, true)) {
+            TimingWheel.getInstance().schedule(
+                    mStarvationCheck, TimeUnit.NANOSECONDS.toMillis(mControlIntervalNanos)
+            );
+        }
+    }
+
+    private void checkStarvation() {
+        try {
+            // the head could start (and its PooledTask could be reused) concurrently, in which
+            // case the wait time is underestimated and the pool grows on the next check
+            Runnable head = mThreadPoolExecutor.getQueue().peek();
+            if (head instanceof PooledTask
+                    && System.nanoTime() - ((PooledTask) head).getPostedNanos() > mTargetWaitNanos) {
+                int currentThreads = mThreadPoolExecutor.getCorePoolSize();
+                int newThreads = Math.min(mMaxThreads, getGrownPoolSize(currentThreads));
+                if (newThreads > currentThreads) {
+                    mThreadPoolExecutor.setCorePoolSize(newThreads);
+                }
+            }
+        } finally {
+            mIsStarvationCheckScheduled.set(false);
+            // the checks continue only while there are queued tasks, so an idle pool costs nothing
+            if (!mThreadPoolExecutor.getQueue().isEmpty() && !mThreadPoolExecutor.isShutdown()) {
+                scheduleStarvationCheckIfNeeded();
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recyclable unit of work that is used internally by {@link BackgroundThreadPoster} and
+ * {@link UiThreadPoster}.<br>
+ * Instances are obtained from a small global pool and are returned into it right before the
+ * wrapped action is executed, so, in steady state, posting doesn't allocate new objects.<br>
+ * {@link PooledTask}s are ordered by {@link BackgroundThreadPoster.Priority} and, within the same
+ * priority, by the order in which they were obtained.
+ */
+/* pp */ final class PooledTask implements Runnable, Comparable<PooledTask> {
+
+    private static final int POOL_SIZE = 64; // must be a power of two
+    private static final AtomicReferenceArray<PooledTask> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    private static final AtomicIntegerFieldUpdater<PooledTask> PERMIT_TICKET =
+            AtomicIntegerFieldUpdater.newUpdater(PooledTask.class, "mPermitTicket");
+
+    private Runnable mRunnable;
+    private Consumer<Object> mConsumer;
+    private BiConsumer<Object, Object> mBiConsumer;
+    private Object mArg1;
+    private Object mArg2;
+
+    private int mPriority;
+    private long mSequenceNumber;
+
+    private PosterMetrics mMetrics;
+    private String mTag;
+    private long mPostedNanos;
+
+    // the permit of SaturationGate held by this task (see SaturationGate); the ticket is non-zero
+    // until the task starts, or is discarded or cancelled
+    private SaturationGate mSaturationGate;
+    private volatile int mPermitTicket;
+
+    /**
+     * The neighbours in the list of pending tasks of {@link SaturationGate} (guarded by the gate)
+     */
+    /* pp */ PooledTask mPendingPrevious;
+    /* pp */ PooledTask mPendingNext;
+
+    /**
+     * The next task in {@link TaskQueue}
+     */
+    /* pp */ volatile PooledTask mNext;
+
+    /* pp */ PooledTask() {}
+
+    /* pp */ static PooledTask obtain(Runnable runnable) {
+        PooledTask task = obtain();
+        task.mRunnable = runnable;
+        return task;
+    }
+
+    @SuppressWarnings("unchecked")
+    /* pp */ static <T> PooledTask obtain(Consumer<T> consumer, T arg) {
+        PooledTask task = obtain();
+        task.mConsumer = (Consumer<Object>) consumer;
+        task.mArg1 = arg;
+        return task;
+    }
+
+    @SuppressWarnings("unchecked")
+    /* pp */ static <A, B> PooledTask obtain(BiConsumer<A, B> biConsumer, A arg1, B arg2) {
+        PooledTask task = obtain();
+        task.mBiConsumer = (BiConsumer<Object, Object>) biConsumer;
+        task.mArg1 = arg1;
+        task.mArg2 = arg2;
+        return task;
+    }
+
+    private static PooledTask obtain() {
+        PooledTask task = null;
+        int start = (int) Thread.currentThread().getId();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int index = (start + i) & (POOL_SIZE - 1);
+            PooledTask candidate = POOL.get(index);
+            if (candidate != null && POOL.compareAndSet(index, candidate, null)) {
+                task = candidate;
+                break;
+            }
+        }
+        if (task == null) {
+            task = new PooledTask();
+        }
+        task.mPriority = BackgroundThreadPoster.Priority.DEFAULT.ordinal();
+        task.mSequenceNumber = SEQUENCE.getAndIncrement();
+        return task;
+    }
+
+    private static void recycle(PooledTask task) {
+        int start = (int) Thread.currentThread().getId();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int index = (start + i) & (POOL_SIZE - 1);
+            if (POOL.get(index) == null && POOL.compareAndSet(index, null, task)) {
+                return;
+            }
+        }
+        // the pool is full - this instance will be garbage collected
+    }
+
+    /* pp */ void setPriority(BackgroundThreadPoster.Priority priority) {
+        mPriority = priority.ordinal();
+    }
+
+    /**
+     * Wrap the provided {@link Runnable} (unless it's already a {@link PooledTask}) and make the
+     * resulting task report to the specified {@link PosterMetrics}. Must be called when the task
+     * is posted.
+     */
+    /* pp */ static PooledTask instrument(Runnable runnable, PosterMetrics metrics) {
+        PooledTask task = runnable instanceof PooledTask ? (PooledTask) runnable : obtain(runnable);
+        Runnable wrapped = task.mRunnable;
+        String tag = wrapped instanceof TaggedRunnable ? ((TaggedRunnable) wrapped).getTag() : null;
+        task.mMetrics = metrics;
+        task.mTag = tag;
+        task.mPostedNanos = System.nanoTime();
+        metrics.onTaskPosted(tag);
+        return task;
+    }
+
+    /**
+     * @return the time at which this task was instrumented (see
+     *         {@link #instrument(Runnable, PosterMetrics)}), in {@link System#nanoTime()} units
+     */
+    /* pp */ long getPostedNanos() {
+        return mPostedNanos;
+    }
+
+    /**
+     * Make this task hold a permit of the specified {@link SaturationGate}.
+     * @return the ticket of the permit, which identifies this use of this task
+     */
+    /* pp */ int holdPermit(SaturationGate saturationGate) {
+        mSaturationGate = saturationGate;
+        // odd, hence non-zero; differs between the uses of the same instance
+        int ticket = ((int) mSequenceNumber << 1) | 1;
+        mPermitTicket = ticket;
+        return ticket;
+    }
+
+    /* pp */ int getPermitTicket() {
+        return mPermitTicket;
+    }
+
+    /**
+     * @return true if the caller became responsible for the permit identified by the ticket;
+     *         false if this task doesn't hold that permit anymore
+     */
+    /* pp */ boolean claimPermit(int ticket) {
+        return ticket != 0 && PERMIT_TICKET.compareAndSet(this, ticket, 0);
+    }
+
+    @Override
+    public void run() {
+        Runnable runnable = mRunnable;
+        Consumer<Object> consumer = mConsumer;
+        BiConsumer<Object, Object> biConsumer = mBiConsumer;
+        Object arg1 = mArg1;
+        Object arg2 = mArg2;
+        PosterMetrics metrics = mMetrics;
+        String tag = mTag;
+        long postedNanos = mPostedNanos;
+        SaturationGate saturationGate = mSaturationGate;
+        if (saturationGate != null && !saturationGate.onTaskStarted(this)) {
+            // discarded or cancelled - the metrics still see this task, but with no action
+            runnable = null;
+            consumer = null;
+            biConsumer = null;
+            saturationGate = null;
+        }
+
+        // release all the references and return this instance into the pool before the execution,
+        // such that long-running actions don't hold on to it
+        mRunnable = null;
+        mConsumer = null;
+        mBiConsumer = null;
+        mArg1 = null;
+        mArg2 = null;
+        mMetrics = null;
+        mTag = null;
+        mSaturationGate = null;
+        recycle(this);
+
+        try {
+            if (metrics == null) {
+                run(runnable, consumer, biConsumer, arg1, arg2);
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            long waitNanos = startNanos - postedNanos;
+            metrics.onTaskStarted(tag, waitNanos);
+            try {
+                run(runnable, consumer, biConsumer, arg1, arg2);
+            } finally {
+                metrics.onTaskCompleted(tag, waitNanos, System.nanoTime() - startNanos);
+            }
+        } finally {
+            if (saturationGate != null) {
+                saturationGate.onTaskCompleted();
+            }
+        }
+    }
+
+    private static void run(Runnable runnable,
+                            Consumer<Object> consumer,
+                            BiConsumer<Object, Object> biConsumer,
+                            Object arg1,
+                            Object arg2) {
+        if (runnable != null) {
+            runnable.run();
+        } else if (consumer != null) {
+            consumer.accept(arg1);
+        } else if (biConsumer != null) {
+            biConsumer.accept(arg1, arg2);
+        }
+    }
+
+    @Override
+    public int compareTo(PooledTask other) {
+        if (mPriority != other.mPriority) {
+            return mPriority < other.mPriority ? -1 : 1;
+        }
+        if (mSequenceNumber != other.mSequenceNumber) {
+            return mSequenceNumber < other.mSequenceNumber ? -1 : 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Listener that can be installed into {@link BackgroundThreadPoster} and {@link UiThreadPoster}
+ * (using their builders) in order to collect metrics about the posted work.<br>
+ * Install a separate instance into each poster. The callbacks are invoked on the threads that
+ * post and execute the work, so implementations must be thread-safe and fast.<br>
+ * When no {@link PosterMetrics} is installed, posters don't collect any metrics and their
+ * overhead stays the same.
+ * @see PosterMetricsRecorder
+ * @see TaggedRunnable
+ */
+public interface PosterMetrics {
+
+    /**
+     * Invoked on the posting thread when a task is posted.
+     * @param tag the tag of the task, or null if the task isn't tagged
+     */
+    void onTaskPosted(String tag);
+
+    /**
+     * Invoked on the executing thread right before a task starts.
+     * @param tag the tag of the task, or null if the task isn't tagged
+     * @param waitNanos the time between posting of the task and the start of its execution
+     */
+    void onTaskStarted(String tag, long waitNanos);
+
+    /**
+     * Invoked on the executing thread right after a task completes (including the cases when it
+     * throws).
+     * @param tag the tag of the task, or null if the task isn't tagged
+     * @param waitNanos the time between posting of the task and the start of its execution
+     * @param runNanos the time between the start and the end of task's execution
+     */
+    void onTaskCompleted(String tag, long waitNanos, long runNanos);
+}
@@ -0,0 +1,125 @@
+package com.techyourchance.threadposter;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Built-in implementation of {@link PosterMetrics} that records wait (post-to-start) and run
+ * (start-to-end) times into lock-free {@link LatencyHistogram}s, both in total and per
+ * {@link TaggedRunnable} tag, and keeps track of the number of pending and active tasks.<br>
+ * Install a separate instance into each poster.
+ */
+public class PosterMetricsRecorder implements PosterMetrics {
+
+    private final LatencyHistogram mWaitTimeHistogram = new LatencyHistogram();
+    private final LatencyHistogram mRunTimeHistogram = new LatencyHistogram();
+
+    private final ConcurrentMap<String, LatencyHistogram> mTagWaitTimeHistograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> mTagRunTimeHistograms = new ConcurrentHashMap<>();
+
+    private final AtomicInteger mPendingTasks = new AtomicInteger(0);
+    private final AtomicInteger mActiveTasks = new AtomicInteger(0);
+    private final AtomicInteger mPeakActiveTasks = new AtomicInteger(0);
+
+    @Override
+    public void onTaskPosted(String tag) {
+        mPendingTasks.incrementAndGet();
+    }
+
+    @Override
+    public void onTaskStarted(String tag, long waitNanos) {
+        mPendingTasks.decrementAndGet();
+        int activeTasks = mActiveTasks.incrementAndGet();
+        int peakActiveTasks;
+        while (activeTasks > (peakActiveTasks = mPeakActiveTasks.get())) {
+            if (mPeakActiveTasks.compareAndSet(peakActiveTasks, activeTasks)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onTaskCompleted(String tag, long waitNanos, long runNanos) {
+        mWaitTimeHistogram.record(waitNanos);
+        mRunTimeHistogram.record(runNanos);
+        if (tag != null) {
+            getOrCreateHistogram(mTagWaitTimeHistograms, tag).record(waitNanos);
+            getOrCreateHistogram(mTagRunTimeHistograms, tag).record(runNanos);
+        }
+        mActiveTasks.decrementAndGet();
+    }
+
+    private LatencyHistogram getOrCreateHistogram(ConcurrentMap<String, LatencyHistogram> histograms,
+                                                  String tag) {
+        LatencyHistogram histogram = histograms.get(tag);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(tag, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @return histogram of the times between posting of the tasks and the start of their execution
+     */
+    public LatencyHistogram getWaitTimeHistogram() {
+        return mWaitTimeHistogram;
+    }
+
+    /**
+     * @return histogram of tasks' execution times
+     */
+    public LatencyHistogram getRunTimeHistogram() {
+        return mRunTimeHistogram;
+    }
+
+    /**
+     * @return histogram of wait times of the tasks with the specified tag, or null if no such tasks
+     *         completed yet
+     */
+    public LatencyHistogram getWaitTimeHistogram(String tag) {
+        return mTagWaitTimeHistograms.get(tag);
+    }
+
+    /**
+     * @return histogram of execution times of the tasks with the specified tag, or null if no such
+     *         tasks completed yet
+     */
+    public LatencyHistogram getRunTimeHistogram(String tag) {
+        return mTagRunTimeHistograms.get(tag);
+    }
+
+    /**
+     * @return the tags of all the completed tasks
+     */
+    public Set<String> getTags() {
+        return Collections.unmodifiableSet(mTagRunTimeHistograms.keySet());
+    }
+
+    /**
+     * @return the number of tasks that were posted, but haven't started yet (i.e. queue depth)
+     */
+    public int getPendingTasksCount() {
+        return mPendingTasks.get();
+    }
+
+    /**
+     * @return the number of tasks that are being executed right now (i.e. the number of busy threads)
+     */
+    public int getActiveTasksCount() {
+        return mActiveTasks.get();
+    }
+
+    /**
+     * @return the maximal number of tasks that were executed concurrently
+     */
+    public int getPeakActiveTasksCount() {
+        return mPeakActiveTasks.get();
+    }
+}
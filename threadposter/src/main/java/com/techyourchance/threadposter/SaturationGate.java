@@ -0,0 +1,219 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of {@link Runnable}s that were posted to {@link BackgroundThreadPoster}, but
+ * haven't completed yet, and applies {@link SaturationPolicy} when the limit is reached.<br>
+ * Each accepted {@link Runnable} holds a permit from the moment it's posted until it completes
+ * (or is discarded, or cancelled before it started). The state of the permit is carried by the
+ * {@link PooledTask} that wraps the {@link Runnable}, so admission doesn't allocate new objects.
+ */
+/* pp */ final class SaturationGate {
+
+    private final SaturationPolicy mPolicy;
+    private final boolean mIsTrackingPendingTasks;
+    private final Semaphore mPermits;
+
+    // intrusive list of the tasks that hold permits, but haven't started yet, oldest first
+    // (maintained only for DROP_OLDEST); a task is in this list iff it holds a permit ticket
+    private final Object mPendingTasksLock = new Object();
+    private PooledTask mPendingHead;
+    private PooledTask mPendingTail;
+
+    /* pp */ SaturationGate(int capacity, SaturationPolicy policy) {
+        mPolicy = policy;
+        mIsTrackingPendingTasks = policy.mType == SaturationPolicy.Type.DROP_OLDEST;
+        mPermits = new Semaphore(capacity);
+    }
+
+    /**
+     * @return the {@link Runnable} that should be executed instead of the specified one, or null
+     *         if nothing should be executed (the {@link Runnable} was handled by the policy)
+     */
+    /* pp */ Runnable admit(Runnable runnable) {
+        if (mPermits.tryAcquire()) {
+            return gate(runnable);
+        }
+        switch (mPolicy.mType) {
+            case BLOCK:
+                if (tryAcquireUninterruptibly(mPolicy.mTimeoutNanos)) {
+                    return gate(runnable);
+                }
+                mPolicy.mRejectionCallback.accept(runnable);
+                return null;
+            case CALLER_RUNS:
+                runnable.run();
+                return null;
+            case DROP_OLDEST:
+                if (discardOldestPendingTask()) {
+                    // the permit of the discarded task passes to the new one
+                    return gate(runnable);
+                }
+                // all the accepted tasks have started - the capacity might have freed up since
+                return mPermits.tryAcquire() ? gate(runnable) : null;
+            case DROP_NEWEST:
+                return null;
+            case REJECT:
+                mPolicy.mRejectionCallback.accept(runnable);
+                return null;
+            default:
+                throw new IllegalStateException("unsupported policy: " + mPolicy.mType);
+        }
+    }
+
+    /**
+     * Construct {@link CancellableTask} that, if cancelled before it started, returns its permit
+     * right away, instead of holding it until it's dequeued.
+     */
+    /* pp */ CancellableTask newCancellableTask(Runnable runnable) {
+        return new GatedCancellableTask(runnable);
+    }
+
+    private boolean tryAcquireUninterruptibly(long timeoutNanos) {
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                try {
+                    return mPermits.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private PooledTask gate(Runnable runnable) {
+        PooledTask task = runnable instanceof PooledTask
+                ? (PooledTask) runnable : PooledTask.obtain(runnable);
+        int ticket = task.holdPermit(this);
+        if (mIsTrackingPendingTasks) {
+            synchronized (mPendingTasksLock) {
+                linkLast(task);
+            }
+        }
+        if (runnable instanceof GatedCancellableTask) {
+            // set before the task is enqueued, and before the handle is returned to the user
+            ((GatedCancellableTask) runnable).setGatedTask(task, ticket);
+        }
+        return task;
+    }
+
+    private boolean discardOldestPendingTask() {
+        synchronized (mPendingTasksLock) {
+            PooledTask oldestTask = mPendingHead;
+            if (oldestTask == null || !oldestTask.claimPermit(oldestTask.getPermitTicket())) {
+                return false;
+            }
+            unlink(oldestTask);
+            return true;
+        }
+    }
+
+    /**
+     * Invoked by the task right before it starts.
+     * @return true if the task should be executed; false if it was discarded or cancelled, in
+     *         which case its permit had already been passed on or released
+     */
+    /* pp */ boolean onTaskStarted(PooledTask task) {
+        return claimPermit(task, task.getPermitTicket());
+    }
+
+    /**
+     * Invoked by the task once it completes (even if it threw). Not invoked for the tasks for
+     * which {@link #onTaskStarted(PooledTask)} returned false.
+     */
+    /* pp */ void onTaskCompleted() {
+        mPermits.release();
+    }
+
+    private void onTaskCancelled(PooledTask task, int ticket) {
+        if (claimPermit(task, ticket)) {
+            mPermits.release();
+        }
+    }
+
+    /**
+     * @param ticket the permit ticket of the task, as observed by the caller; the task could be
+     *               recycled and reused since, in which case its current ticket differs
+     * @return true if the caller became the (only) party responsible for the permit of the task
+     */
+    private boolean claimPermit(PooledTask task, int ticket) {
+        if (!mIsTrackingPendingTasks) {
+            return task.claimPermit(ticket);
+        }
+        synchronized (mPendingTasksLock) {
+            if (!task.claimPermit(ticket)) {
+                return false;
+            }
+            unlink(task);
+            return true;
+        }
+    }
+
+    private void linkLast(PooledTask task) {
+        task.mPendingPrevious = mPendingTail;
+        task.mPendingNext = null;
+        if (mPendingTail == null) {
+            mPendingHead = task;
+        } else {
+            mPendingTail.mPendingNext = task;
+        }
+        mPendingTail = task;
+    }
+
+    private void unlink(PooledTask task) {
+        PooledTask previous = task.mPendingPrevious;
+        PooledTask next = task.mPendingNext;
+        if (previous == null) {
+            mPendingHead = next;
+        } else {
+            previous.mPendingNext = next;
+        }
+        if (next == null) {
+            mPendingTail = previous;
+        } else {
+            next.mPendingPrevious = previous;
+        }
+        task.mPendingPrevious = null;
+        task.mPendingNext = null;
+    }
+
+    /* pp */ boolean isSaturated() {
+        return mPermits.availablePermits() == 0;
+    }
+
+    /* pp */ int getRemainingCapacity() {
+        return Math.max(0, mPermits.availablePermits());
+    }
+
+    private final class GatedCancellableTask extends CancellableTask {
+
+        private volatile PooledTask mGatedTask;
+        private volatile int mPermitTicket;
+
+        private GatedCancellableTask(Runnable runnable) {
+            super(runnable, true);
+        }
+
+        private void setGatedTask(PooledTask gatedTask, int permitTicket) {
+            mPermitTicket = permitTicket;
+            mGatedTask = gatedTask;
+        }
+
+        @Override
+        protected void onCancelledBeforeStart() {
+            PooledTask gatedTask = mGatedTask;
+            if (gatedTask != null) {
+                mGatedTask = null;
+                onTaskCancelled(gatedTask, mPermitTicket);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defines what {@link BackgroundThreadPoster} does with a posted {@link Runnable} when it's
+ * saturated (see {@link BackgroundThreadPoster.Builder#setCapacity(int, SaturationPolicy)}).
+ */
+public final class SaturationPolicy {
+
+    /* pp */ enum Type {
+        BLOCK,
+        CALLER_RUNS,
+        DROP_OLDEST,
+        DROP_NEWEST,
+        REJECT
+    }
+
+    /* pp */ final Type mType;
+    /* pp */ final long mTimeoutNanos;
+    /* pp */ final Consumer<Runnable> mRejectionCallback;
+
+    private SaturationPolicy(Type type, long timeoutNanos, Consumer<Runnable> rejectionCallback) {
+        mType = type;
+        mTimeoutNanos = timeoutNanos;
+        mRejectionCallback = rejectionCallback;
+    }
+
+    /**
+     * Block the posting thread until there is free capacity, but no longer than the specified
+     * timeout. If the timeout elapses, the {@link Runnable} is passed to the specified callback
+     * (on the posting thread) instead of being executed.<br>
+     * Beware of posting from the threads of the same {@link BackgroundThreadPoster} (e.g. work
+     * that posts sub-tasks): while it's saturated, such post blocks a thread that could otherwise
+     * free up the capacity, possibly for the entire timeout. If all the threads post this way,
+     * no work completes until the timeouts elapse.
+     * @param timeoutMillis the maximal blocking time in milliseconds
+     * @param rejectionCallback the callback that will receive the rejected {@link Runnable}s
+     */
+    public static SaturationPolicy block(long timeoutMillis, Consumer<Runnable> rejectionCallback) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeoutMillis);
+        }
+        return new SaturationPolicy(
+                Type.BLOCK, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), checkNotNull(rejectionCallback)
+        );
+    }
+
+    /**
+     * Execute the {@link Runnable} on the posting thread. This slows the producer down to the
+     * rate at which the work is actually completed.
+     */
+    public static SaturationPolicy callerRuns() {
+        return new SaturationPolicy(Type.CALLER_RUNS, 0, null);
+    }
+
+    /**
+     * Discard the oldest {@link Runnable} that hasn't started yet, and accept the new one
+     * instead. If all the accepted {@link Runnable}s have already started, the new one is
+     * discarded.
+     */
+    public static SaturationPolicy dropOldest() {
+        return new SaturationPolicy(Type.DROP_OLDEST, 0, null);
+    }
+
+    /**
+     * Discard the new {@link Runnable}.
+     */
+    public static SaturationPolicy dropNewest() {
+        return new SaturationPolicy(Type.DROP_NEWEST, 0, null);
+    }
+
+    /**
+     * Pass the new {@link Runnable} to the specified callback (on the posting thread) instead of
+     * executing it.
+     * @param rejectionCallback the callback that will receive the rejected {@link Runnable}s
+     */
+    public static SaturationPolicy reject(Consumer<Runnable> rejectionCallback) {
+        return new SaturationPolicy(Type.REJECT, 0, checkNotNull(rejectionCallback));
+    }
+
+    private static Consumer<Runnable> checkNotNull(Consumer<Runnable> rejectionCallback) {
+        if (rejectionCallback == null) {
+            throw new IllegalArgumentException("rejection callback must not be null");
+        }
+        return rejectionCallback;
+    }
+}
@@ -0,0 +1,140 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delayed or periodic work posted to {@link BackgroundThreadPoster} or {@link UiThreadPoster}.<br>
+ * When the timer expires, this task dispatches a new execution of the wrapped {@link Runnable}
+ * to the target thread. Periodic tasks are re-scheduled only after the previous execution
+ * completes, relative to the initial schedule, so executions neither overlap nor drift.
+ */
+/* pp */ abstract class ScheduledTask implements Cancellable {
+
+    /* pp */ static final long NOT_PERIODIC = 0;
+
+    private final long mPeriodMillis;
+    private final boolean mIsInterruptible;
+
+    private final AtomicBoolean mIsCancelled = new AtomicBoolean(false);
+
+    private volatile Runnable mRunnable;
+    private volatile Cancellable mTimer;
+    private volatile CancellableTask mExecution;
+
+    // accessed by one thread at a time (the timer is re-scheduled only after the execution completes)
+    private long mNextRunUptimeMillis;
+
+    private final Runnable mTrigger = new Runnable() {
+        @Override
+        public void run() {
+            onTimerExpired();
+        }
+    };
+
+    private final Runnable mExecutionRunner = new Runnable() {
+        @Override
+        public void run() {
+            executeAndReschedule();
+        }
+    };
+
+    /**
+     * @param runnable the wrapped {@link Runnable}
+     * @param periodMillis the period of execution, or {@link #NOT_PERIODIC} for one-shot tasks
+     * @param isInterruptible whether the thread that executes this task can be interrupted
+     */
+    /* pp */ ScheduledTask(Runnable runnable, long periodMillis, boolean isInterruptible) {
+        mRunnable = runnable;
+        mPeriodMillis = periodMillis;
+        mIsInterruptible = isInterruptible;
+    }
+
+    /**
+     * Schedule the first execution of this task.
+     */
+    /* pp */ void start(long initialDelayMillis) {
+        initialDelayMillis = Math.max(0, initialDelayMillis);
+        mNextRunUptimeMillis = getUptimeMillis() + initialDelayMillis;
+        scheduleTimer(initialDelayMillis);
+    }
+
+    private void scheduleTimer(long delayMillis) {
+        Cancellable timer = scheduleTimer(mTrigger, delayMillis);
+        mTimer = timer;
+        if (mIsCancelled.get()) {
+            timer.cancel();
+        }
+    }
+
+    private void onTimerExpired() {
+        Runnable runnable = mRunnable;
+        if (runnable == null) {
+            return; // cancelled
+        }
+        CancellableTask execution = new CancellableTask(runnable, mIsInterruptible);
+        mExecution = execution;
+        if (mIsCancelled.get()) {
+            execution.cancel();
+        } else {
+            dispatch(mExecutionRunner);
+        }
+    }
+
+    private void executeAndReschedule() {
+        mExecution.run();
+        // similarly to ScheduledExecutorService, periodic execution stops if the Runnable throws
+        if (isPeriodic() && !mIsCancelled.get()) {
+            mNextRunUptimeMillis += mPeriodMillis;
+            scheduleTimer(Math.max(0, mNextRunUptimeMillis - getUptimeMillis()));
+        }
+    }
+
+    private boolean isPeriodic() {
+        return mPeriodMillis != NOT_PERIODIC;
+    }
+
+    @Override
+    public boolean cancel() {
+        return cancel(false);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!mIsCancelled.compareAndSet(false, true)) {
+            return false;
+        }
+        mRunnable = null;
+        Cancellable timer = mTimer;
+        if (timer != null) {
+            timer.cancel();
+        }
+        CancellableTask execution = mExecution;
+        if (execution != null && !execution.cancel(mayInterruptIfRunning) && !isPeriodic()) {
+            // one-shot work that has already started can't be cancelled anymore
+            mIsCancelled.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return mIsCancelled.get();
+    }
+
+    /**
+     * Schedule the specified trigger to be invoked after the specified delay.
+     * @return handle that allows to cancel the timer
+     */
+    /* pp */ abstract Cancellable scheduleTimer(Runnable trigger, long delayMillis);
+
+    /**
+     * @return the current time of the clock that the timers are based on
+     */
+    /* pp */ abstract long getUptimeMillis();
+
+    /**
+     * Execute the specified {@link Runnable} on the target thread.
+     */
+    /* pp */ abstract void dispatch(Runnable runnable);
+}
@@ -0,0 +1,135 @@
+package com.techyourchance.threadposter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates concurrent identical pieces of work: while a {@link Callable} posted with some key
+ * executes on {@link BackgroundThreadPoster}, subsequent posts with the same key attach to it
+ * instead of starting a new execution. All the attached callers get the shared outcome on UI
+ * thread through {@link UiThreadPoster}.<br>
+ * Nothing is cached: once the outcome is delivered, the next post with the same key starts a new
+ * execution.
+ */
+public class SingleFlightPoster {
+
+    private final BackgroundThreadPoster mBackgroundThreadPoster;
+    private final UiThreadPoster mUiThreadPoster;
+
+    private final ConcurrentMap<Object, Flight<?>> mFlights = new ConcurrentHashMap<>();
+
+    public SingleFlightPoster(BackgroundThreadPoster backgroundThreadPoster, UiThreadPoster uiThreadPoster) {
+        mBackgroundThreadPoster = backgroundThreadPoster;
+        mUiThreadPoster = uiThreadPoster;
+    }
+
+    /**
+     * Execute {@link Callable} on a background thread and deliver its outcome on UI thread, unless
+     * a {@link Callable} posted with the same key is already executing. In the latter case, the
+     * specified {@link Callable} is ignored and the {@link UiCallback} will get the outcome of
+     * the one that is already executing.<br>
+     * The callbacks attached to the same execution are invoked in the order they were posted.
+     * An {@link Error} thrown by the {@link Callable} is delivered wrapped in
+     * {@link ExecutionException}, and then rethrown on the background thread.
+     * @param key the key that identifies identical pieces of work (e.g. the URL of the request);
+     *            keys are compared using {@link Object#equals(Object)}, and all the pieces of
+     *            work posted with the same key must produce results of the same type
+     * @param callable the work that should be executed
+     * @param callback the callback that will be invoked on UI thread
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void postSingleFlight(Object key, Callable<T> callable, UiCallback<T> callback) {
+        while (true) {
+            Flight<T> flight = (Flight<T>) mFlights.get(key);
+            if (flight == null) {
+                flight = new Flight<>(key, callable, callback);
+                if (mFlights.putIfAbsent(key, flight) == null) {
+                    mBackgroundThreadPoster.post(flight);
+                    return;
+                }
+            } else if (flight.attach(callback)) {
+                return;
+            } else {
+                // the execution has just completed - help to remove it and start a new one
+                mFlights.remove(key, flight);
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys that have an execution in progress
+     */
+    /* pp */ int getInFlightKeysCount() {
+        return mFlights.size();
+    }
+
+    private class Flight<T> implements Runnable {
+
+        private final Object mKey;
+        private final Callable<T> mCallable;
+
+        // guarded by this; null after the execution completes
+        private List<UiCallback<T>> mCallbacks = new ArrayList<>(2);
+
+        private Flight(Object key, Callable<T> callable, UiCallback<T> callback) {
+            mKey = key;
+            mCallable = callable;
+            mCallbacks.add(callback);
+        }
+
+        private synchronized boolean attach(UiCallback<T> callback) {
+            if (mCallbacks == null) {
+                return false;
+            }
+            mCallbacks.add(callback);
+            return true;
+        }
+
+        private synchronized List<UiCallback<T>> detachCallbacks() {
+            List<UiCallback<T>> callbacks = mCallbacks;
+            mCallbacks = null;
+            return callbacks;
+        }
+
+        @Override
+        public void run() {
+            T result = null;
+            Exception exception = null;
+            Error error = null;
+            try {
+                result = mCallable.call();
+            } catch (Exception e) {
+                exception = e;
+            } catch (Error e) {
+                // the flight must complete even in this case, so that the attached callers and
+                // the later posts with the same key aren't stuck forever
+                exception = new ExecutionException(e);
+                error = e;
+            }
+            mFlights.remove(mKey, this);
+            deliver(detachCallbacks(), result, exception);
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void deliver(final List<UiCallback<T>> callbacks, final T result, final Exception exception) {
+            mUiThreadPoster.post(new Runnable() {
+                @Override
+                public void run() {
+                    for (UiCallback<T> callback : callbacks) {
+                        if (exception == null) {
+                            callback.onSuccess(result);
+                        } else {
+                            callback.onFailure(exception);
+                        }
+                    }
+                }
+            });
+        }
+    }
+}
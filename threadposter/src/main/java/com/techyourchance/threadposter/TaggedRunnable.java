@@ -0,0 +1,29 @@
+package com.techyourchance.threadposter;
+
+/**
+ * {@link Runnable} that carries a tag for {@link PosterMetrics}.<br>
+ * Wrap the posted {@link Runnable}s into this class in order to get per-feature breakdown of the
+ * metrics:
+ * <pre>
+ * mBackgroundThreadPoster.post(new TaggedRunnable("image-decoding", runnable));
+ * </pre>
+ */
+public final class TaggedRunnable implements Runnable {
+
+    private final String mTag;
+    private final Runnable mRunnable;
+
+    public TaggedRunnable(String tag, Runnable runnable) {
+        mTag = tag;
+        mRunnable = runnable;
+    }
+
+    public String getTag() {
+        return mTag;
+    }
+
+    @Override
+    public void run() {
+        mRunnable.run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free queue of {@link PooledTask}s that supports multiple producers and a single
+ * consumer.<br>
+ * This queue is intrusive (it links the tasks themselves through {@link PooledTask#mNext}), so,
+ * unlike {@link java.util.concurrent.ConcurrentLinkedQueue}, it doesn't allocate on insertion.
+ * A task can reside in at most one queue at any instant.
+ */
+/* pp */ final class TaskQueue {
+
+    private final PooledTask mStub = new PooledTask();
+
+    private final AtomicReference<PooledTask> mTail = new AtomicReference<>(mStub);
+
+    // accessed only by the consumer
+    private PooledTask mHead = mStub;
+
+    /**
+     * Add task to the queue. Can be called by any thread.
+     */
+    /* pp */ void add(PooledTask task) {
+        task.mNext = null;
+        PooledTask previous = mTail.getAndSet(task);
+        previous.mNext = task;
+    }
+
+    /**
+     * Retrieve and remove the head of the queue. Must be called only by the consumer.
+     * @return the head of the queue, or null if the queue is empty or the only added task hasn't
+     *         been fully linked yet
+     */
+    /* pp */ PooledTask poll() {
+        PooledTask head = mHead;
+        PooledTask next = head.mNext;
+        if (head == mStub) {
+            if (next == null) {
+                return null;
+            }
+            mHead = next;
+            head = next;
+            next = next.mNext;
+        }
+        if (next != null) {
+            mHead = next;
+            return head;
+        }
+        if (head != mTail.get()) {
+            // a producer is in the middle of linking the next task
+            return null;
+        }
+        // head is the last task - re-insert the stub such that head can be detached
+        add(mStub);
+        next = head.mNext;
+        if (next != null) {
+            mHead = next;
+            return head;
+        }
+        return null;
+    }
+
+    /**
+     * Must be called only by the consumer.
+     * @return the most recently added task, or null if the queue is empty
+     */
+    /* pp */ PooledTask getLast() {
+        PooledTask tail = mTail.get();
+        return tail == mStub ? null : tail;
+    }
+
+    /**
+     * Must be called only by the consumer.
+     * @return true if there are no tasks in this queue (including the ones that are being added)
+     */
+    /* pp */ boolean isEmpty() {
+        return mHead == mStub && mTail.get() == mStub;
+    }
+}
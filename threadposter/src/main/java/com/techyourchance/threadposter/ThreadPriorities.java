@@ -0,0 +1,57 @@
+package com.techyourchance.threadposter;
+
+import android.os.Process;
+
+/**
+ * Applies {@link ThreadQos} to threads.<br>
+ * On Android, Linux nice values are set using {@link Process}. In local unit tests and on other
+ * runtimes {@link Process} isn't functional, so Java thread priorities are used instead. The
+ * availability of {@link Process} is checked once.
+ */
+/* pp */ final class ThreadPriorities {
+
+    /* pp */ static final int UNKNOWN_TID = 0;
+
+    private static final boolean IS_PROCESS_SUPPORTED = isProcessSupported();
+
+    private ThreadPriorities() {}
+
+    /**
+     * @return Linux ID of the current thread, or {@link #UNKNOWN_TID} if it's not available
+     */
+    /* pp */ static int myTid() {
+        return IS_PROCESS_SUPPORTED ? Process.myTid() : UNKNOWN_TID;
+    }
+
+    /**
+     * Apply the specified {@link ThreadQos} to the specified thread. Can be called from any
+     * thread.
+     * @param tid Linux ID of the thread, as returned by {@link #myTid()} on that thread
+     */
+    /* pp */ static void setThreadQos(Thread thread, int tid, ThreadQos threadQos) {
+        if (IS_PROCESS_SUPPORTED && tid != UNKNOWN_TID) {
+            try {
+                Process.setThreadPriority(tid, threadQos.mNiceness);
+            } catch (IllegalArgumentException e) {
+                // the thread has already terminated
+            } catch (SecurityException e) {
+                // not allowed to change the priority of this thread - it's just an optimization
+            }
+        } else {
+            thread.setPriority(threadQos.mJavaPriority);
+        }
+    }
+
+    private static boolean isProcessSupported() {
+        try {
+            Process.myTid();
+            return true;
+        } catch (RuntimeException e) {
+            // "Stub!" or "not mocked" in local unit tests
+            return false;
+        } catch (LinkageError e) {
+            // Android classes aren't available at all
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.techyourchance.threadposter;
+
+import android.os.Process;
+
+/**
+ * Scheduling priority ("quality of service") of the threads of {@link BackgroundThreadPoster}
+ * (see {@link BackgroundThreadPoster.Builder#setThreadQos(BackgroundThreadPoster.Lane, ThreadQos)}).<br>
+ * On Android, each level maps to the respective Linux nice value (see
+ * {@link Process#setThreadPriority(int, int)}). On other runtimes, it maps to Java thread priority,
+ * which is just a hint to the scheduler.
+ */
+public enum ThreadQos {
+    /**
+     * Work that the user is waiting for right now, which should compete with UI thread for CPU
+     */
+    USER_INTERACTIVE(Process.THREAD_PRIORITY_DISPLAY, Thread.NORM_PRIORITY + 2),
+    /**
+     * The same priority as the one of regular application threads
+     */
+    DEFAULT(Process.THREAD_PRIORITY_DEFAULT, Thread.NORM_PRIORITY),
+    /**
+     * Work that shouldn't compete with UI thread for CPU
+     */
+    BACKGROUND(Process.THREAD_PRIORITY_BACKGROUND, Thread.NORM_PRIORITY - 2);
+
+    /* pp */ final int mNiceness;
+    /* pp */ final int mJavaPriority;
+
+    ThreadQos(int niceness, int javaPriority) {
+        mNiceness = niceness;
+        mJavaPriority = javaPriority;
+    }
+}
@@ -0,0 +1,25 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Source of monotonic time, in nanoseconds.<br>
+ * Time budgets (e.g. the one of {@link UiThreadPoster#postSliced(Runnable)}) are measured using
+ * this abstraction, so that tests can substitute the real time with a fake one.
+ */
+public interface Ticker {
+
+    /**
+     * {@link Ticker} based on {@link System#nanoTime()}
+     */
+    Ticker SYSTEM = new Ticker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return the current time in nanoseconds; only the differences between the returned values
+     *         are meaningful
+     */
+    long read();
+}
@@ -0,0 +1,272 @@
+package com.techyourchance.threadposter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel that is used by {@link BackgroundThreadPoster} in order to schedule delayed
+ * and periodic work.<br>
+ * All timers are served by a single daemon thread, which is started when the first timer is
+ * scheduled. Between expirations, this thread parks until the next tick that has timers in its
+ * bucket (or indefinitely, while there are no pending timers), so sparse timers don't cause
+ * periodic wake-ups on every tick. Scheduling and cancellation are O(1)
+ * and never block: new and cancelled timers are handed over to the timer thread through lock-free
+ * queues, and the timer thread is the only one that touches the wheel itself.<br>
+ * Timers expire with the resolution of one tick. The expired timers' triggers are invoked on the
+ * timer thread, so they must be short and non-blocking (e.g. hand the actual work over to an
+ * executor). A trigger that throws is reported to the uncaught exception handler of the timer
+ * thread, and doesn't affect the other timers.
+ */
+/* pp */ final class TimingWheel {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SIZE = 512; // must be a power of two
+
+    private static final TimingWheel INSTANCE = new TimingWheel();
+
+    private final Queue<Timeout> mAddedTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> mCancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean mIsStarted = new AtomicBoolean(false);
+    private final Thread mThread;
+    // set while the timer thread is parked indefinitely (there are no pending timers)
+    private volatile boolean mIsIdle = false;
+    // set while the timer thread is parked until mWakeUpNanos
+    private volatile boolean mIsSleeping = false;
+    private volatile long mWakeUpNanos;
+    private volatile int mWakeUpsCount = 0;
+
+    // accessed only by the timer thread
+    private final Timeout[] mBuckets = new Timeout[WHEEL_SIZE];
+    private final long mStartNanos;
+    private long mTick = 0;
+    private int mTimeoutsCount = 0;
+
+    /**
+     * @return the timing wheel that is shared by all {@link BackgroundThreadPoster}s
+     */
+    /* pp */ static TimingWheel getInstance() {
+        return INSTANCE;
+    }
+
+    /* pp */ TimingWheel() {
+        mStartNanos = System.nanoTime();
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "ThreadPoster-timer");
+        mThread.setDaemon(true);
+    }
+
+    /**
+     * Schedule the specified trigger to be invoked on the timer thread after the specified delay.
+     * @return handle that allows to cancel the timer
+     */
+    /* pp */ Cancellable schedule(Runnable trigger, long delayMillis) {
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        long deadlineNanos = System.nanoTime() + delayNanos;
+        Timeout timeout = new Timeout(this, trigger, deadlineNanos);
+        mAddedTimeouts.add(timeout);
+        if (mIsStarted.compareAndSet(false, true)) {
+            mThread.start();
+        } else if (mIsIdle || (mIsSleeping && deadlineNanos - mWakeUpNanos < 0)) {
+            // the timer thread wouldn't wake up in time for the new timer otherwise
+            LockSupport.unpark(mThread);
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the number of times the timer thread woke up from parking
+     */
+    /* pp */ int getWakeUpsCount() {
+        return mWakeUpsCount;
+    }
+
+    private void onCancelled(Timeout timeout) {
+        mCancelledTimeouts.add(timeout);
+    }
+
+    private void loop() {
+        while (true) {
+            removeCancelledTimeouts();
+            transferAddedTimeouts();
+            if (mTimeoutsCount == 0) {
+                // nothing to wait for - park until new timers are scheduled
+                mIsIdle = true;
+                if (mAddedTimeouts.isEmpty()) {
+                    LockSupport.park(this);
+                    mWakeUpsCount++;
+                }
+                mIsIdle = false;
+                // the wheel is empty, so the ticks that passed while parked can be skipped
+                mTick = Math.max(mTick, (System.nanoTime() - mStartNanos) / TICK_NANOS);
+                continue;
+            }
+
+            // the buckets of the ticks in between are empty, so these ticks can be skipped
+            long nextTick = findNextNonEmptyTick();
+            long tickDeadlineNanos = mStartNanos + (nextTick + 1) * TICK_NANOS;
+            long sleepNanos = tickDeadlineNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                mWakeUpNanos = tickDeadlineNanos;
+                mIsSleeping = true;
+                if (mAddedTimeouts.isEmpty()) {
+                    LockSupport.parkNanos(this, sleepNanos);
+                    mWakeUpsCount++;
+                }
+                mIsSleeping = false;
+                // re-evaluate, because new timers could have been scheduled in the meantime
+                continue;
+            }
+
+            mTick = nextTick;
+            expireTimeouts((int) (mTick & (WHEEL_SIZE - 1)));
+            mTick++;
+        }
+    }
+
+    /**
+     * @return the earliest tick (starting with the current one) whose bucket isn't empty; must be
+     *         called only if there are pending timeouts
+     */
+    private long findNextNonEmptyTick() {
+        for (long tick = mTick; ; tick++) {
+            if (mBuckets[(int) (tick & (WHEEL_SIZE - 1))] != null) {
+                return tick;
+            }
+        }
+    }
+
+    private void transferAddedTimeouts() {
+        Timeout timeout;
+        while ((timeout = mAddedTimeouts.poll()) != null) {
+            if (timeout.mState != Timeout.STATE_PENDING) {
+                continue;
+            }
+            long calculatedTick = (timeout.mDeadlineNanos - mStartNanos + TICK_NANOS - 1) / TICK_NANOS;
+            // timeouts that are already due expire during the current tick
+            long tick = Math.max(calculatedTick, mTick);
+            timeout.mRemainingRounds = (tick - mTick) / WHEEL_SIZE;
+            addToBucket(timeout, (int) (tick & (WHEEL_SIZE - 1)));
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = mCancelledTimeouts.poll()) != null) {
+            if (timeout.mBucket != Timeout.NO_BUCKET) {
+                removeFromBucket(timeout);
+            }
+        }
+    }
+
+    private void expireTimeouts(int bucket) {
+        Timeout timeout = mBuckets[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.mNext;
+            if (timeout.mRemainingRounds <= 0) {
+                removeFromBucket(timeout);
+                try {
+                    timeout.expire();
+                } catch (Throwable t) {
+                    // the timer thread is shared, so it must survive failures of single triggers
+                    mThread.getUncaughtExceptionHandler().uncaughtException(mThread, t);
+                }
+            } else {
+                timeout.mRemainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void addToBucket(Timeout timeout, int bucket) {
+        Timeout head = mBuckets[bucket];
+        timeout.mBucket = bucket;
+        timeout.mNext = head;
+        if (head != null) {
+            head.mPrev = timeout;
+        }
+        mBuckets[bucket] = timeout;
+        mTimeoutsCount++;
+    }
+
+    private void removeFromBucket(Timeout timeout) {
+        if (timeout.mPrev != null) {
+            timeout.mPrev.mNext = timeout.mNext;
+        } else {
+            mBuckets[timeout.mBucket] = timeout.mNext;
+        }
+        if (timeout.mNext != null) {
+            timeout.mNext.mPrev = timeout.mPrev;
+        }
+        timeout.mPrev = null;
+        timeout.mNext = null;
+        timeout.mBucket = Timeout.NO_BUCKET;
+        mTimeoutsCount--;
+    }
+
+    private static final class Timeout implements Cancellable {
+
+        private static final int NO_BUCKET = -1;
+
+        private static final int STATE_PENDING = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "mState");
+
+        private final TimingWheel mTimingWheel;
+        private final long mDeadlineNanos;
+        private volatile Runnable mTrigger;
+        private volatile int mState = STATE_PENDING;
+
+        // accessed only by the timer thread
+        private long mRemainingRounds;
+        private int mBucket = NO_BUCKET;
+        private Timeout mPrev;
+        private Timeout mNext;
+
+        private Timeout(TimingWheel timingWheel, Runnable trigger, long deadlineNanos) {
+            mTimingWheel = timingWheel;
+            mTrigger = trigger;
+            mDeadlineNanos = deadlineNanos;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, STATE_PENDING, STATE_EXPIRED)) {
+                return;
+            }
+            Runnable trigger = mTrigger;
+            mTrigger = null;
+            trigger.run();
+        }
+
+        @Override
+        public boolean cancel() {
+            return cancel(false);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!STATE.compareAndSet(this, STATE_PENDING, STATE_CANCELLED)) {
+                return false;
+            }
+            mTrigger = null;
+            mTimingWheel.onCancelled(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mState == STATE_CANCELLED;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.techyourchance.threadposter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Set of listeners that are notified about events on UI thread through {@link UiThreadPoster}.
+ * <br>
+ * Listeners can be registered and unregistered on any thread. They are stored in an immutable
+ * snapshot array, which is replaced on each modification (copy-on-write), so notifications
+ * iterate over plain arrays without locking or allocation of iterators. Each event posts a single
+ * message to UI thread, regardless of the number of listeners.<br>
+ * Events are delivered to the listeners that are registered at the time of delivery, so a
+ * listener that is unregistered on UI thread isn't notified about the events that are still
+ * pending.<br>
+ * Notifiers (the {@link Consumer}s and {@link BiConsumer}s that invoke the listeners) are expected
+ * to be pre-allocated instances; in this case, broadcasting doesn't allocate new objects in
+ * steady state.
+ * @param <L> the type of the listeners
+ */
+public class UiBroadcaster<L> {
+
+    private static final Object[] NO_LISTENERS = new Object[0];
+
+    private final UiThreadPoster mUiThreadPoster;
+
+    // replaced under mListenersLock; the arrays themselves are never modified
+    private final Object mListenersLock = new Object();
+    private volatile Object[] mListeners = NO_LISTENERS;
+
+    // guarded by itself; identity map because it doesn't allocate entries on insertion
+    private final Map<BiConsumer<L, Object>, Object> mConflatedEvents = new IdentityHashMap<>();
+
+    private final Consumer<Consumer<L>> mNotifyListeners = new Consumer<Consumer<L>>() {
+        @Override
+        public void accept(Consumer<L> notifier) {
+            notifyListeners(notifier);
+        }
+    };
+
+    private final BiConsumer<BiConsumer<L, Object>, Object> mNotifyListenersWithEvent =
+            new BiConsumer<BiConsumer<L, Object>, Object>() {
+        @Override
+        public void accept(BiConsumer<L, Object> notifier, Object event) {
+            notifyListeners(notifier, event);
+        }
+    };
+
+    private final Consumer<BiConsumer<L, Object>> mNotifyListenersWithConflatedEvent =
+            new Consumer<BiConsumer<L, Object>>() {
+        @Override
+        public void accept(BiConsumer<L, Object> notifier) {
+            Object event;
+            synchronized (mConflatedEvents) {
+                event = mConflatedEvents.remove(notifier);
+            }
+            notifyListeners(notifier, event);
+        }
+    };
+
+    public UiBroadcaster(UiThreadPoster uiThreadPoster) {
+        mUiThreadPoster = uiThreadPoster;
+    }
+
+    /**
+     * Register a listener. Has no effect if the listener is already registered.<br>
+     * Listeners are compared using {@link Object#equals(Object)}, and are notified in the order
+     * of registration.
+     */
+    public void registerListener(L listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        synchronized (mListenersLock) {
+            Object[] listeners = mListeners;
+            if (indexOf(listeners, listener) >= 0) {
+                return;
+            }
+            Object[] newListeners = new Object[listeners.length + 1];
+            System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+            newListeners[listeners.length] = listener;
+            mListeners = newListeners;
+        }
+    }
+
+    /**
+     * Unregister a listener. Has no effect if the listener isn't registered.
+     */
+    public void unregisterListener(L listener) {
+        synchronized (mListenersLock) {
+            Object[] listeners = mListeners;
+            int index = indexOf(listeners, listener);
+            if (index < 0) {
+                return;
+            }
+            if (listeners.length == 1) {
+                mListeners = NO_LISTENERS;
+                return;
+            }
+            Object[] newListeners = new Object[listeners.length - 1];
+            System.arraycopy(listeners, 0, newListeners, 0, index);
+            System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+            mListeners = newListeners;
+        }
+    }
+
+    /**
+     * @return the number of the currently registered listeners
+     */
+    public int getListenersCount() {
+        return mListeners.length;
+    }
+
+    /**
+     * Notify all the listeners on UI thread.
+     * @param notifier {@link Consumer} that will be invoked on UI thread for each listener
+     */
+    public void broadcast(Consumer<L> notifier) {
+        mUiThreadPoster.post(mNotifyListeners, notifier);
+    }
+
+    /**
+     * Notify all the listeners about the event on UI thread.
+     * @param notifier {@link BiConsumer} that will be invoked on UI thread for each listener,
+     *                 with the listener and the event as arguments
+     * @param event the event that will be passed to the notifier
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void broadcast(BiConsumer<L, E> notifier, E event) {
+        mUiThreadPoster.post(mNotifyListenersWithEvent, (BiConsumer<L, Object>) notifier, event);
+    }
+
+    /**
+     * Same as {@link #broadcast(BiConsumer, Object)}, but if the listeners haven't been notified
+     * about the previous event broadcast with the same notifier yet, that event is replaced with
+     * the specified one instead of being delivered. Therefore, when events arrive faster than UI
+     * thread can handle them (e.g. progress updates), only the latest event is delivered.<br>
+     * The merged events are delivered at the position of the earliest one among them, relative to
+     * the other work posted to UI thread. Notifiers are compared by identity, so events broadcast
+     * with different notifiers (e.g. the ones of different listener methods) are never merged.
+     * @param notifier {@link BiConsumer} that will be invoked on UI thread for each listener,
+     *                 with the listener and the latest event as arguments
+     * @param event the event that will be passed to the notifier
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void broadcastConflated(BiConsumer<L, E> notifier, E event) {
+        BiConsumer<L, Object> key = (BiConsumer<L, Object>) notifier;
+        synchronized (mConflatedEvents) {
+            boolean isPending = mConflatedEvents.containsKey(key);
+            mConflatedEvents.put(key, event);
+            if (isPending) {
+                return;
+            }
+        }
+        mUiThreadPoster.post(mNotifyListenersWithConflatedEvent, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notifyListeners(Consumer<L> notifier) {
+        Object[] listeners = mListeners;
+        for (Object listener : listeners) {
+            notifier.accept((L) listener);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notifyListeners(BiConsumer<L, Object> notifier, Object event) {
+        Object[] listeners = mListeners;
+        for (Object listener : listeners) {
+            notifier.accept((L) listener, event);
+        }
+    }
+
+    private static int indexOf(Object[] listeners, Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,17 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Callback that delivers the outcome of background work on UI thread.
+ */
+public interface UiCallback<T> {
+
+    /**
+     * Invoked on UI thread when the background work completes successfully.
+     */
+    void onSuccess(T result);
+
+    /**
+     * Invoked on UI thread when the background work fails.
+     */
+    void onFailure(Exception exception);
+}
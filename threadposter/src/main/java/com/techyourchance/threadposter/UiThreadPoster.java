@@ -2,13 +2,110 @@ package com.techyourchance.threadposter;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class UiThreadPoster {
 
-    private final Handler mUiHandler;
+    /* pp */ static final int NO_BATCHING = 0;
+    /* pp */ static final long DEFAULT_SLICE_BUDGET_MILLIS = 8L;
+
+    // constructed on the first post if initialization is lazy (see getUiHandler())
+    private final Object mInitializationLock = new Object();
+    private volatile boolean mIsInitialized = false;
+    private Handler mUiHandler;
+
+    private final PosterMetrics mMetrics;
+
+    private final int mMaxRunnablesPerBatch;
+    private final TaskQueue mBatchQueue = new TaskQueue();
+    private final AtomicBoolean mIsBatchDispatchScheduled = new AtomicBoolean(false);
+    private final Runnable mBatchDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchBatch();
+        }
+    };
+
+    private final Ticker mTicker;
+    private final long mSliceBudgetNanos;
+    private final TaskQueue mSliceQueue = new TaskQueue();
+    private final AtomicBoolean mIsSliceDispatchScheduled = new AtomicBoolean(false);
+    private final Runnable mSliceDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchSlice();
+        }
+    };
+
+    private final TaskQueue mUrgentQueue = new TaskQueue();
+    private final AtomicBoolean mIsUrgentDispatchScheduled = new AtomicBoolean(false);
+    private final Runnable mUrgentDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchUrgent();
+        }
+    };
+
+    private final TaskQueue mIdleQueue = new TaskQueue();
+    private final AtomicBoolean mIsIdleDispatchScheduled = new AtomicBoolean(false);
+    private final Runnable mIdleDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchIdle();
+        }
+    };
+
+    private final KeyedRateLimiter mKeyedRateLimiter = new KeyedRateLimiter() {
+        @Override
+        /* pp */ void scheduleTimer(Runnable trigger, long delayMillis) {
+            UiThreadPoster.this.scheduleTimer(trigger, delayMillis);
+        }
+
+        @Override
+        /* pp */ long getUptimeMillis() {
+            return UiThreadPoster.this.getUptimeMillis();
+        }
+
+        @Override
+        /* pp */ void dispatch(Runnable runnable) {
+            post(runnable);
+        }
+    };
 
     public UiThreadPoster() {
-        mUiHandler = getMainHandler();
+        this(new Builder());
+    }
+
+    protected UiThreadPoster(Builder builder) {
+        mMetrics = builder.mMetrics;
+        mMaxRunnablesPerBatch = builder.mMaxRunnablesPerBatch;
+        mTicker = builder.mTicker;
+        mSliceBudgetNanos = builder.mSliceBudgetNanos;
+        if (!builder.mIsLazy) {
+            getUiHandler();
+        }
+    }
+
+    /**
+     * Construct the underlying {@link Handler} ahead of time, so that the first posted
+     * {@link Runnable} doesn't pay for it.
+     * @see Builder#setLazyInitialization(boolean)
+     */
+    public void prestart() {
+        getUiHandler();
+    }
+
+    /**
+     * @return true if the underlying {@link Handler} has already been constructed
+     * @see Builder#setLazyInitialization(boolean)
+     */
+    public final boolean isInitialized() {
+        return mIsInitialized;
     }
 
     /**
@@ -16,7 +113,395 @@ public class UiThreadPoster {
      * @param runnable {@link Runnable} instance containing the code that should be executed
      */
     public void post(Runnable runnable) {
-        mUiHandler.post(runnable);
+        if (mMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mMetrics);
+        }
+        if (isBatching()) {
+            mBatchQueue.add(
+                    runnable instanceof PooledTask ? (PooledTask) runnable : PooledTask.obtain(runnable)
+            );
+            scheduleBatchDispatchIfNeeded();
+        } else {
+            execute(runnable);
+        }
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread, within the time budget of a frame.<br>
+     * {@link Runnable}s posted using this method are added to an internal queue, which is drained
+     * on UI thread, in order, until the time budget of the current looper turn runs out (see
+     * {@link Builder#setSliceBudget(long)}). The remaining {@link Runnable}s are executed on the
+     * next looper turns, so other messages (e.g. drawing of the next frame) get a chance to run in
+     * between. At least one {@link Runnable} is executed per looper turn.<br>
+     * Use this method when many {@link Runnable}s can be posted at once (e.g. notifications of many
+     * listeners), and none of them is urgent.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postSliced(Runnable runnable) {
+        if (mMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mMetrics);
+        }
+        mSliceQueue.add(
+                runnable instanceof PooledTask ? (PooledTask) runnable : PooledTask.obtain(runnable)
+        );
+        scheduleSliceDispatchIfNeeded();
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread ahead of all the other pending
+     * messages.<br>
+     * {@link Runnable}s posted using this method are added to an internal queue, which is drained
+     * on UI thread, in order, by a message placed at the front of the looper's queue. This
+     * message isn't held back by the work that is already pending on UI thread, or by
+     * synchronization barriers (e.g. while the next frame is waiting for vsync).<br>
+     * Use this method only for small amounts of latency-critical work (e.g. reaction to user's
+     * input), because it delays everything else, including drawing. {@link Runnable}s that are
+     * posted using this method while the urgent work is being dispatched (e.g. by urgent
+     * {@link Runnable}s that re-post themselves) are executed on the next looper turn, after
+     * the other pending messages.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postUrgent(Runnable runnable) {
+        if (mMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mMetrics);
+        }
+        mUrgentQueue.add(
+                runnable instanceof PooledTask ? (PooledTask) runnable : PooledTask.obtain(runnable)
+        );
+        scheduleUrgentDispatchIfNeeded();
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread when it becomes idle.<br>
+     * {@link Runnable}s posted using this method are added to an internal queue, which is drained
+     * on UI thread, in order, only when there are no other messages due for dispatch. Only one
+     * {@link Runnable} is executed per idle period, so messages that arrive in the meantime (e.g.
+     * input events) wait for at most one of them.<br>
+     * Use this method for low-value work (e.g. warming of caches, prefetching) that shouldn't
+     * compete with the rest of the work on UI thread, and split it into small {@link Runnable}s.
+     * Note that {@link Runnable}s posted using this method can be deferred indefinitely if UI
+     * thread is never idle (e.g. during a continuous animation).
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postIdle(Runnable runnable) {
+        if (mMetrics != null) {
+            runnable = PooledTask.instrument(runnable, mMetrics);
+        }
+        mIdleQueue.add(
+                runnable instanceof PooledTask ? (PooledTask) runnable : PooledTask.obtain(runnable)
+        );
+        scheduleIdleDispatchIfNeeded();
+    }
+
+    /**
+     * Same as {@link #post(Runnable)}, but returns a handle that allows to cancel the execution.<br>
+     * If the work is cancelled before it started, it will not be executed and the reference to
+     * the {@link Runnable} is released right away.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postCancellable(Runnable runnable) {
+        // cancelled tasks can be removed from Handler only if they were posted to it directly (and
+        // test doubles don't use Handler at all)
+        final Handler uiHandler = getUiHandler();
+        final boolean isRemovable = uiHandler != null && !isBatching() && mMetrics == null;
+        CancellableTask cancellableTask = new CancellableTask(runnable, false) {
+            @Override
+            protected void onCancelledBeforeStart() {
+                if (isRemovable) {
+                    uiHandler.removeCallbacks(this);
+                }
+            }
+        };
+        post(cancellableTask);
+        return cancellableTask;
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread after the specified delay.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @param delayMillis the delay in milliseconds
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postDelayed(Runnable runnable, long delayMillis) {
+        return schedule(runnable, delayMillis, ScheduledTask.NOT_PERIODIC);
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread periodically, starting after the
+     * specified initial delay.<br>
+     * The executions are scheduled relative to the initial one, so they don't drift. The periodic
+     * execution stops when the returned handle is cancelled, or if the {@link Runnable} throws.
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     * @param initialDelayMillis the delay of the first execution in milliseconds
+     * @param periodMillis the period of execution in milliseconds; must be positive
+     * @return handle that allows to cancel the execution
+     */
+    public Cancellable postAtFixedRate(Runnable runnable, long initialDelayMillis, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + periodMillis);
+        }
+        return schedule(runnable, initialDelayMillis, periodMillis);
+    }
+
+    /**
+     * Execute {@link Consumer} on application's UI thread.<br>
+     * Unlike posting of a capturing {@link Runnable}, this method doesn't allocate new objects in
+     * steady state (assuming that the same {@link Consumer} instance is being reused).
+     * @param consumer {@link Consumer} instance containing the code that should be executed
+     * @param arg the argument that will be passed to {@link Consumer#accept(Object)}
+     */
+    public <T> void post(Consumer<T> consumer, T arg) {
+        post(PooledTask.obtain(consumer, arg));
+    }
+
+    /**
+     * Execute {@link BiConsumer} on application's UI thread.<br>
+     * Unlike posting of a capturing {@link Runnable}, this method doesn't allocate new objects in
+     * steady state (assuming that the same {@link BiConsumer} instance is being reused).
+     * @param biConsumer {@link BiConsumer} instance containing the code that should be executed
+     * @param arg1 the first argument that will be passed to {@link BiConsumer#accept(Object, Object)}
+     * @param arg2 the second argument that will be passed to {@link BiConsumer#accept(Object, Object)}
+     */
+    public <A, B> void post(BiConsumer<A, B> biConsumer, A arg1, B arg2) {
+        post(PooledTask.obtain(biConsumer, arg1, arg2));
+    }
+
+    /**
+     * @return true if this {@link UiThreadPoster} coalesces the posted {@link Runnable}s into
+     *         batches
+     */
+    public final boolean isBatching() {
+        return mMaxRunnablesPerBatch != NO_BATCHING;
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread after there were no other
+     * {@link Runnable}s posted with the same key for the specified delay.<br>
+     * Bursts of calls collapse into a single execution of the latest {@link Runnable}.
+     * @param key the key that identifies the burst; keys are compared using
+     *            {@link Object#equals(Object)}
+     * @param delayMillis the quiet period in milliseconds; must be positive
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postDebounced(Object key, long delayMillis, Runnable runnable) {
+        mKeyedRateLimiter.debounce(key, delayMillis, runnable);
+    }
+
+    /**
+     * Execute {@link Runnable} on application's UI thread at most once per the specified interval
+     * for all the {@link Runnable}s posted with the same key.<br>
+     * The first {@link Runnable} of a burst is executed right away. The latest {@link Runnable}
+     * posted during the interval is executed when the interval ends (the other ones are dropped),
+     * so the last call of a burst is never lost.
+     * @param key the key that identifies the burst; keys are compared using
+     *            {@link Object#equals(Object)}
+     * @param intervalMillis the minimal interval between executions in milliseconds; must be
+     *                       positive
+     * @param runnable {@link Runnable} instance containing the code that should be executed
+     */
+    public void postThrottled(Object key, long intervalMillis, Runnable runnable) {
+        mKeyedRateLimiter.throttle(key, intervalMillis, runnable);
+    }
+
+    private Cancellable schedule(Runnable runnable, long initialDelayMillis, long periodMillis) {
+        ScheduledTask scheduledTask = new ScheduledTask(runnable, periodMillis, false) {
+            @Override
+            /* pp */ Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+                return UiThreadPoster.this.scheduleTimer(trigger, delayMillis);
+            }
+
+            @Override
+            /* pp */ long getUptimeMillis() {
+                return UiThreadPoster.this.getUptimeMillis();
+            }
+
+            @Override
+            /* pp */ void dispatch(Runnable runnable) {
+                // the timer has already expired on UI thread
+                if (mMetrics != null) {
+                    runnable = PooledTask.instrument(runnable, mMetrics);
+                }
+                runnable.run();
+            }
+        };
+        scheduledTask.start(initialDelayMillis);
+        return scheduledTask;
+    }
+
+    private void scheduleBatchDispatchIfNeeded() {
+        if (mIsBatchDispatchScheduled.compareAndSet(false, true)) {
+            execute(mBatchDispatcher);
+        }
+    }
+
+    private void dispatchBatch() {
+        try {
+            Runnable runnable;
+            for (int i = 0; i < mMaxRunnablesPerBatch; i++) {
+                if ((runnable = mBatchQueue.poll()) == null) {
+                    break;
+                }
+                runnable.run();
+            }
+        } finally {
+            mIsBatchDispatchScheduled.set(false);
+            // Runnables that were left over, or were posted while the flag was still set, are
+            // dispatched on the next looper turn
+            if (!mBatchQueue.isEmpty()) {
+                scheduleBatchDispatchIfNeeded();
+            }
+        }
+    }
+
+    private void scheduleSliceDispatchIfNeeded() {
+        if (mIsSliceDispatchScheduled.compareAndSet(false, true)) {
+            execute(mSliceDispatcher);
+        }
+    }
+
+    private void dispatchSlice() {
+        try {
+            long startNanos = mTicker.read();
+            Runnable runnable;
+            do {
+                if ((runnable = mSliceQueue.poll()) == null) {
+                    break;
+                }
+                runnable.run();
+            } while (mTicker.read() - startNanos < mSliceBudgetNanos);
+        } finally {
+            mIsSliceDispatchScheduled.set(false);
+            // Runnables that were left over, or were posted while the flag was still set, are
+            // dispatched on the next looper turn
+            if (!mSliceQueue.isEmpty()) {
+                scheduleSliceDispatchIfNeeded();
+            }
+        }
+    }
+
+    private void scheduleUrgentDispatchIfNeeded() {
+        if (mIsUrgentDispatchScheduled.compareAndSet(false, true)) {
+            executeUrgent(mUrgentDispatcher);
+        }
+    }
+
+    private void dispatchUrgent() {
+        try {
+            // only the Runnables that were posted before this dispatch had started, such that
+            // Runnables that re-post themselves can't hold UI thread forever
+            PooledTask last = mUrgentQueue.getLast();
+            PooledTask runnable;
+            while (last != null && (runnable = mUrgentQueue.poll()) != null) {
+                // the task can be recycled once it completes
+                boolean isLast = runnable == last;
+                runnable.run();
+                if (isLast) {
+                    break;
+                }
+            }
+        } finally {
+            if (!mUrgentQueue.isEmpty()) {
+                // Runnables that were posted during this dispatch (or were left over because one
+                // of the Runnables threw) are dispatched by a regular message, because messages
+                // at the front of the queue would starve all the other messages (e.g. drawing)
+                execute(mUrgentDispatcher);
+            } else {
+                mIsUrgentDispatchScheduled.set(false);
+                // Runnables that were posted after the above check saw the flag still set
+                if (!mUrgentQueue.isEmpty()) {
+                    scheduleUrgentDispatchIfNeeded();
+                }
+            }
+        }
+    }
+
+    private void scheduleIdleDispatchIfNeeded() {
+        if (mIsIdleDispatchScheduled.compareAndSet(false, true)) {
+            executeWhenIdle(mIdleDispatcher);
+        }
+    }
+
+    private void dispatchIdle() {
+        try {
+            Runnable runnable = mIdleQueue.poll();
+            if (runnable != null) {
+                runnable.run();
+            }
+        } finally {
+            mIsIdleDispatchScheduled.set(false);
+            // the remaining Runnables are dispatched during the next idle periods
+            if (!mIdleQueue.isEmpty()) {
+                scheduleIdleDispatchIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * All the messages that this {@link UiThreadPoster} sends to UI thread without delay end up in
+     * this method.<br>
+     * The only reason this method is overridable is that UiThreadPosterTestDouble can override it.
+     */
+    protected void execute(Runnable runnable) {
+        getUiHandler().post(runnable);
+    }
+
+    /**
+     * All the messages that this {@link UiThreadPoster} sends to the front of UI thread's queue end
+     * up in this method.<br>
+     * Front-of-queue placement is used instead of asynchronous messages because it's available on
+     * all supported Android versions, and a message at the front of the queue isn't held back by
+     * synchronization barriers either.<br>
+     * The only reason this method is overridable is that UiThreadPosterTestDouble can override it.
+     */
+    protected void executeUrgent(Runnable runnable) {
+        getUiHandler().postAtFrontOfQueue(runnable);
+    }
+
+    /**
+     * All the messages that this {@link UiThreadPoster} executes when UI thread becomes idle end up
+     * in this method.<br>
+     * {@link MessageQueue.IdleHandler} is registered by a regular message because the queue of the
+     * main looper can be obtained only on UI thread on older Android versions. Processing of this
+     * message also guarantees that the queue goes idle again afterwards, even if the registration
+     * happened during the previous idle period.<br>
+     * The only reason this method is overridable is that UiThreadPosterTestDouble can override it.
+     */
+    protected void executeWhenIdle(final Runnable runnable) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        runnable.run();
+                        return false; // one-shot
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * All the timers of delayed and periodic work posted to this {@link UiThreadPoster} are
+     * scheduled using this method. The trigger must be invoked on UI thread after the specified
+     * delay.<br>
+     * The only reason this method is overridable is that UiThreadPosterTestDouble can override it.
+     * @return handle that allows to cancel the timer
+     */
+    protected Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+        Handler uiHandler = getUiHandler();
+        HandlerTimer handlerTimer = new HandlerTimer(uiHandler, trigger);
+        uiHandler.postDelayed(handlerTimer, delayMillis);
+        return handlerTimer;
+    }
+
+    /**
+     * @return the current time of the clock that the timers are based on, in milliseconds
+     * @see #scheduleTimer(Runnable, long)
+     */
+    protected long getUptimeMillis() {
+        return SystemClock.uptimeMillis();
     }
 
     /**
@@ -27,4 +512,152 @@ public class UiThreadPoster {
         return new Handler(Looper.getMainLooper());
     }
 
+    private Handler getUiHandler() {
+        if (!mIsInitialized) {
+            synchronized (mInitializationLock) {
+                if (!mIsInitialized) {
+                    mUiHandler = getMainHandler();
+                    // the volatile write publishes the field above
+                    mIsInitialized = true;
+                }
+            }
+        }
+        return mUiHandler;
+    }
+
+    private static final class HandlerTimer implements Cancellable, Runnable {
+
+        private static final int STATE_PENDING = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<HandlerTimer> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(HandlerTimer.class, "mState");
+
+        private final Handler mHandler;
+        private volatile Runnable mTrigger;
+        private volatile int mState = STATE_PENDING;
+
+        private HandlerTimer(Handler handler, Runnable trigger) {
+            mHandler = handler;
+            mTrigger = trigger;
+        }
+
+        @Override
+        public void run() {
+            if (!STATE.compareAndSet(this, STATE_PENDING, STATE_EXPIRED)) {
+                return; // the removal of the cancelled timer raced with its dispatch
+            }
+            Runnable trigger = mTrigger;
+            mTrigger = null;
+            trigger.run();
+        }
+
+        @Override
+        public boolean cancel() {
+            return cancel(false);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!STATE.compareAndSet(this, STATE_PENDING, STATE_CANCELLED)) {
+                return false;
+            }
+            mTrigger = null;
+            mHandler.removeCallbacks(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mState == STATE_CANCELLED;
+        }
+    }
+
+    /**
+     * Builder of configured instances of {@link UiThreadPoster}.<br>
+     * Instances built with the default configuration are equivalent to the ones constructed
+     * using {@link UiThreadPoster#UiThreadPoster()}.
+     */
+    public static class Builder {
+
+        private int mMaxRunnablesPerBatch = NO_BATCHING;
+        private PosterMetrics mMetrics;
+        private boolean mIsLazy = false;
+        private Ticker mTicker = Ticker.SYSTEM;
+        private long mSliceBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLICE_BUDGET_MILLIS);
+
+        /**
+         * Coalesce the posted {@link Runnable}s into batches.<br>
+         * In this mode, posted {@link Runnable}s are added to an internal queue and only one
+         * message is scheduled on UI thread while this queue is non-empty. Each dispatch of this
+         * message executes up to the specified number of {@link Runnable}s, in order. If there are
+         * more {@link Runnable}s in the queue, they are executed on the next looper turn.<br>
+         * This mode substantially reduces the overhead of frequent posting (e.g. progress updates).
+         * @param maxRunnablesPerBatch the maximal number of {@link Runnable}s executed during a
+         *                             single dispatch; must be positive
+         */
+        public Builder setBatching(int maxRunnablesPerBatch) {
+            if (maxRunnablesPerBatch <= 0) {
+                throw new IllegalArgumentException(
+                        "max runnables per batch must be positive: " + maxRunnablesPerBatch);
+            }
+            mMaxRunnablesPerBatch = maxRunnablesPerBatch;
+            return this;
+        }
+
+        /**
+         * Report the metrics of the posted work to the specified {@link PosterMetrics}.<br>
+         * {@link PosterMetricsRecorder#getPendingTasksCount()} will then report the depth of the
+         * queue of UI thread (only the work posted through this {@link UiThreadPoster} is counted).
+         * @see PosterMetricsRecorder
+         */
+        public Builder setMetrics(PosterMetrics metrics) {
+            mMetrics = metrics;
+            return this;
+        }
+
+        /**
+         * Defer the construction of the underlying {@link Handler} until the first
+         * {@link Runnable} is posted (or until {@link UiThreadPoster#prestart()} is called).<br>
+         * In this mode, constructing {@link UiThreadPoster} is nearly free, so it can be done on
+         * the critical startup path of the application without slowing it down.
+         * @see UiThreadPoster#isInitialized()
+         */
+        public Builder setLazyInitialization(boolean isLazy) {
+            mIsLazy = isLazy;
+            return this;
+        }
+
+        /**
+         * Set the time budget of a single looper turn for the {@link Runnable}s posted using
+         * {@link UiThreadPoster#postSliced(Runnable)}. The default budget is 8 milliseconds,
+         * which leaves about a half of a 60 FPS frame for other work.
+         * @param budgetMillis the time budget in milliseconds; must be positive
+         */
+        public Builder setSliceBudget(long budgetMillis) {
+            if (budgetMillis <= 0) {
+                throw new IllegalArgumentException("slice budget must be positive: " + budgetMillis);
+            }
+            mSliceBudgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+            return this;
+        }
+
+        /**
+         * Measure the time budgets of {@link UiThreadPoster#postSliced(Runnable)} using the
+         * specified {@link Ticker} instead of the real time (e.g. in tests).
+         */
+        public Builder setTicker(Ticker ticker) {
+            if (ticker == null) {
+                throw new IllegalArgumentException("ticker must not be null");
+            }
+            mTicker = ticker;
+            return this;
+        }
+
+        public UiThreadPoster build() {
+            return new UiThreadPoster(this);
+        }
+    }
+
 }
@@ -0,0 +1,40 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides access to JDK 21+ virtual threads without compile-time dependency on them.<br>
+ * The library targets old Android versions, so the relevant APIs are looked up reflectively, once.
+ * On runtimes without virtual threads (including Android), {@link #getThreadFactory()} returns
+ * null.
+ */
+/* pp */ final class VirtualThreads {
+
+    private static final String THREAD_NAME_PREFIX = "ThreadPoster-virtual-";
+
+    private static final ThreadFactory THREAD_FACTORY = newThreadFactoryOrNull();
+
+    private VirtualThreads() {}
+
+    /**
+     * @return {@link ThreadFactory} that creates virtual threads, or null if the runtime doesn't
+     *         support virtual threads
+     */
+    /* pp */ static ThreadFactory getThreadFactory() {
+        return THREAD_FACTORY;
+    }
+
+    private static ThreadFactory newThreadFactoryOrNull() {
+        try {
+            // Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, THREAD_NAME_PREFIX, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            // either no such APIs, or virtual threads are a disabled preview feature (JDK 19-20)
+            return null;
+        }
+    }
+}
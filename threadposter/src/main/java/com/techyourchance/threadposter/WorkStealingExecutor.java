@@ -0,0 +1,256 @@
+package com.techyourchance.threadposter;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Work-stealing engine of {@link BackgroundThreadPoster} (see
+ * {@link BackgroundThreadPoster.Builder#setWorkStealingThreads(int)}).<br>
+ * Each worker owns a local deque. {@link Runnable}s posted from a worker go onto its own deque,
+ * and {@link Runnable}s posted from other threads go onto a lock-free injection queue, so
+ * concurrent producers don't contend on a single hand-off structure. Idle workers take work from
+ * the injection queue and steal from the deques of other workers.<br>
+ * Local deques are FIFO (similarly to ForkJoinPool in async mode), which suits event-style work
+ * that is never joined. Each deque has its own lock, which is contended only when its owner and a
+ * thief access it at the same time.<br>
+ * Workers are started on demand, park while there is no work, and terminate after the keep-alive
+ * period of inactivity. ForkJoinPool isn't used because it's not available on older Android
+ * versions.
+ */
+/* pp */ final class WorkStealingExecutor implements Executor {
+
+    private final Worker[] mWorkers;
+    private final long mKeepAliveNanos;
+    private final ThreadFactory mThreadFactory;
+
+    private final Queue<Runnable> mInjectionQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Worker> mIdleWorkers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mAliveWorkersCount = new AtomicInteger(0);
+    private final AtomicInteger mPeakAliveWorkersCount = new AtomicInteger(0);
+    private final ThreadLocal<Worker> mCurrentWorker = new ThreadLocal<>();
+
+    /* pp */ WorkStealingExecutor(int numOfWorkers, long keepAliveNanos, ThreadFactory threadFactory) {
+        mWorkers = new Worker[numOfWorkers];
+        for (int i = 0; i < numOfWorkers; i++) {
+            mWorkers[i] = new Worker(i);
+        }
+        mKeepAliveNanos = keepAliveNanos;
+        mThreadFactory = threadFactory;
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        if (runnable == null) {
+            throw new NullPointerException("runnable");
+        }
+        Worker currentWorker = mCurrentWorker.get();
+        if (currentWorker != null) {
+            currentWorker.push(runnable);
+        } else {
+            mInjectionQueue.offer(runnable);
+        }
+        signalWork();
+    }
+
+    /**
+     * Start all the workers that aren't alive yet. Workers that don't receive any work terminate
+     * after the keep-alive period.
+     */
+    /* pp */ void prestartAllWorkers() {
+        while (mAliveWorkersCount.get() < mWorkers.length) {
+            startWorker();
+        }
+    }
+
+    /* pp */ int getAliveWorkersCount() {
+        return mAliveWorkersCount.get();
+    }
+
+    /* pp */ int getPeakAliveWorkersCount() {
+        return mPeakAliveWorkersCount.get();
+    }
+
+    /* pp */ ThreadFactory getThreadFactory() {
+        return mThreadFactory;
+    }
+
+    private void signalWork() {
+        Worker idleWorker = mIdleWorkers.poll();
+        if (idleWorker != null) {
+            LockSupport.unpark(idleWorker.mThread);
+        } else if (mAliveWorkersCount.get() < mWorkers.length) {
+            startWorker();
+        }
+    }
+
+    private void startWorker() {
+        for (Worker worker : mWorkers) {
+            if (worker.mIsAlive.compareAndSet(false, true)) {
+                onWorkerAlive();
+                Thread thread = mThreadFactory.newThread(worker);
+                worker.mThread = thread;
+                thread.start();
+                return;
+            }
+        }
+    }
+
+    private void onWorkerAlive() {
+        int aliveWorkersCount = mAliveWorkersCount.incrementAndGet();
+        int peakAliveWorkersCount;
+        while ((peakAliveWorkersCount = mPeakAliveWorkersCount.get()) < aliveWorkersCount) {
+            if (mPeakAliveWorkersCount.compareAndSet(peakAliveWorkersCount, aliveWorkersCount)) {
+                break;
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        if (!mInjectionQueue.isEmpty()) {
+            return true;
+        }
+        for (Worker worker : mWorkers) {
+            if (!worker.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final AtomicBoolean mIsAlive = new AtomicBoolean(false);
+
+        // guarded by this
+        private final ArrayDeque<Runnable> mDeque = new ArrayDeque<>();
+
+        private volatile Thread mThread;
+
+        // accessed only by the thread of this worker
+        private int mRandomSeed;
+
+        private Worker(int index) {
+            mRandomSeed = index + 1;
+        }
+
+        private synchronized void push(Runnable runnable) {
+            mDeque.addLast(runnable);
+        }
+
+        private synchronized Runnable poll() {
+            return mDeque.pollFirst();
+        }
+
+        private synchronized boolean isEmpty() {
+            return mDeque.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            mCurrentWorker.set(this);
+            boolean isCompletedAbruptly = true;
+            try {
+                runLoop();
+                isCompletedAbruptly = false;
+            } finally {
+                mCurrentWorker.remove();
+                if (isCompletedAbruptly) {
+                    // the Runnable threw - the exception propagates, and another thread takes over
+                    mIsAlive.set(false);
+                    mAliveWorkersCount.decrementAndGet();
+                    if (hasWork()) {
+                        signalWork();
+                    }
+                }
+            }
+        }
+
+        private void runLoop() {
+            while (true) {
+                Runnable runnable = findWork();
+                if (runnable != null) {
+                    // a task could be interrupted by cancellation; don't leak this into the next task
+                    Thread.interrupted();
+                    runnable.run();
+                } else if (!awaitWork()) {
+                    return;
+                }
+            }
+        }
+
+        private Runnable findWork() {
+            Runnable runnable = poll();
+            if (runnable == null) {
+                runnable = mInjectionQueue.poll();
+            }
+            if (runnable == null) {
+                runnable = steal();
+            }
+            return runnable;
+        }
+
+        private Runnable steal() {
+            int numOfWorkers = mWorkers.length;
+            // start from a random victim, so that thieves don't gang up on the same worker
+            int start = nextRandom() % numOfWorkers;
+            for (int i = 0; i < numOfWorkers; i++) {
+                Worker victim = mWorkers[(start + i) % numOfWorkers];
+                if (victim != this) {
+                    Runnable runnable = victim.poll();
+                    if (runnable != null) {
+                        return runnable;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private int nextRandom() {
+            // xorshift
+            int seed = mRandomSeed;
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            mRandomSeed = seed;
+            return seed & Integer.MAX_VALUE;
+        }
+
+        /**
+         * Park until there is new work or the keep-alive period elapses.
+         * @return false if this worker has terminated due to inactivity
+         */
+        private boolean awaitWork() {
+            // register before re-checking, so that either the re-check sees new work, or the
+            // producer of new work sees this worker and unparks it
+            mIdleWorkers.offer(this);
+            if (hasWork()) {
+                mIdleWorkers.remove(this);
+                return true;
+            }
+            long parkStartNanos = System.nanoTime();
+            // parkNanos() returns immediately while the interrupt flag is set
+            Thread.interrupted();
+            LockSupport.parkNanos(this, mKeepAliveNanos);
+            if (!mIdleWorkers.remove(this)) {
+                return true; // unparked by a producer
+            }
+            if (hasWork() || System.nanoTime() - parkStartNanos < mKeepAliveNanos) {
+                return true; // spurious wakeup
+            }
+            mIsAlive.set(false);
+            mAliveWorkersCount.decrementAndGet();
+            // new work could arrive after the last check, when the producer still saw this worker alive
+            if (hasWork() && mIsAlive.compareAndSet(false, true)) {
+                onWorkerAlive();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.techyourchance.threadposter;
+
+/**
+ * Scratch resources of the background thread that executes the current piece of work (see
+ * {@link BackgroundThreadPoster#postWithContext(Consumer)}).<br>
+ * Each thread lazily creates its own instance of each {@link WorkerResource} and lends it to
+ * all the work it executes, so hot background work doesn't need to allocate its buffers on each
+ * execution. The resources are reset after each piece of work that used them, and released when
+ * the thread terminates. Unlike {@link ThreadLocal}, the resources never leak state between
+ * pieces of work, and don't outlive the threads of {@link BackgroundThreadPoster}.<br>
+ * Instances of this class must not be used outside of the work they were passed to.
+ */
+public final class WorkerContext {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // indexed by the IDs of WorkerResources
+    private WorkerResource<?>[] mResourceTypes = new WorkerResource<?>[INITIAL_CAPACITY];
+    private Object[] mResources = new Object[INITIAL_CAPACITY];
+    private boolean[] mIsUsed = new boolean[INITIAL_CAPACITY];
+
+    // the IDs of the resources used by the current piece of work
+    private int[] mUsedIds = new int[INITIAL_CAPACITY];
+    private int mUsedCount = 0;
+
+    /* pp */ WorkerContext() {}
+
+    /**
+     * @return the instance of the specified resource that belongs to the current thread
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(WorkerResource<T> resourceType) {
+        int id = resourceType.mId;
+        ensureCapacity(id + 1);
+        Object resource = mResources[id];
+        if (resource == null) {
+            resource = resourceType.create();
+            mResources[id] = resource;
+            mResourceTypes[id] = resourceType;
+        }
+        if (!mIsUsed[id]) {
+            mIsUsed[id] = true;
+            if (mUsedCount == mUsedIds.length) {
+                mUsedIds = copyOf(mUsedIds, mUsedIds.length * 2);
+            }
+            mUsedIds[mUsedCount++] = id;
+        }
+        return (T) resource;
+    }
+
+    /**
+     * Reset the resources used by the piece of work that has just completed.
+     */
+    /* pp */ void reset() {
+        for (int i = 0; i < mUsedCount; i++) {
+            int id = mUsedIds[i];
+            mIsUsed[id] = false;
+            resetResource(mResourceTypes[id], mResources[id]);
+        }
+        mUsedCount = 0;
+    }
+
+    /**
+     * Release all the resources, once the thread that owns them terminates.
+     */
+    /* pp */ void release() {
+        for (int id = 0; id < mResources.length; id++) {
+            if (mResources[id] != null) {
+                Object resource = mResources[id];
+                mResources[id] = null;
+                releaseResource(mResourceTypes[id], resource);
+                mResourceTypes[id] = null;
+            }
+        }
+        mUsedCount = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void resetResource(WorkerResource<T> resourceType, Object resource) {
+        resourceType.reset((T) resource);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void releaseResource(WorkerResource<T> resourceType, Object resource) {
+        resourceType.release((T) resource);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mResources.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mResources.length * 2);
+        WorkerResource<?>[] resourceTypes = new WorkerResource<?>[newCapacity];
+        System.arraycopy(mResourceTypes, 0, resourceTypes, 0, mResourceTypes.length);
+        mResourceTypes = resourceTypes;
+        Object[] resources = new Object[newCapacity];
+        System.arraycopy(mResources, 0, resources, 0, mResources.length);
+        mResources = resources;
+        boolean[] isUsed = new boolean[newCapacity];
+        System.arraycopy(mIsUsed, 0, isUsed, 0, mIsUsed.length);
+        mIsUsed = isUsed;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
@@ -0,0 +1,47 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Declaration of a reusable scratch resource (e.g. a byte buffer or a {@link StringBuilder})
+ * that each background thread of {@link BackgroundThreadPoster} creates once and lends to the
+ * work it executes through {@link WorkerContext}.<br>
+ * Instances of this class serve as keys and should be created once (e.g. stored in static final
+ * fields):
+ * <pre>
+ * private static final WorkerResource&lt;StringBuilder&gt; STRING_BUILDER = new WorkerResource&lt;StringBuilder&gt;() {
+ *     protected StringBuilder create() {
+ *         return new StringBuilder(1024);
+ *     }
+ *     protected void reset(StringBuilder stringBuilder) {
+ *         stringBuilder.setLength(0);
+ *     }
+ * };
+ * </pre>
+ */
+public abstract class WorkerResource<T> {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+
+    /* pp */ final int mId = NEXT_ID.getAndIncrement();
+
+    /**
+     * Create a new instance of the resource. Called once per thread, when the resource is
+     * requested for the first time.
+     */
+    protected abstract T create();
+
+    /**
+     * Reset the state of the resource, such that no data leaks from one piece of work to the next
+     * one. Called after each piece of work that used the resource.
+     */
+    protected abstract void reset(T resource);
+
+    /**
+     * Release the resource. Called when the thread that owns the resource terminates (e.g. after
+     * a period of inactivity). Does nothing by default.
+     */
+    protected void release(T resource) {
+        // no-op
+    }
+}
@@ -0,0 +1,99 @@
+package com.techyourchance.threadposter;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the background threads of {@link BackgroundThreadPoster}. Each thread runs with the
+ * {@link ThreadQos} of its lane and owns a {@link WorkerContext}, which is released when the
+ * thread terminates.
+ */
+/* pp */ final class WorkerThreadFactory implements ThreadFactory {
+
+    private final String mNamePrefix;
+    private final ThreadQos mThreadQos;
+    private final AtomicInteger mThreadNumber = new AtomicInteger(1);
+
+    /* pp */ WorkerThreadFactory(String namePrefix, ThreadQos threadQos) {
+        mNamePrefix = namePrefix;
+        mThreadQos = threadQos;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        return new WorkerThread(runnable, mNamePrefix + mThreadNumber.getAndIncrement(), mThreadQos);
+    }
+
+    /**
+     * Execute the specified {@link Consumer} with the {@link WorkerContext} of the current thread,
+     * and reset the resources it used afterwards. Threads that weren't created by this factory
+     * (e.g. virtual threads, or the posting thread when the poster is saturated) get a temporary
+     * {@link WorkerContext}. So do nested calls (e.g. work that runs other work inline), because
+     * the {@link WorkerContext} of the thread is still in use by the outer work.
+     */
+    /* pp */ static void runWithContext(Consumer<WorkerContext> consumer) {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof WorkerThread
+                && !((WorkerThread) currentThread).mIsWorkerContextInUse) {
+            WorkerThread workerThread = (WorkerThread) currentThread;
+            workerThread.mIsWorkerContextInUse = true;
+            try {
+                consumer.accept(workerThread.mWorkerContext);
+            } finally {
+                workerThread.mIsWorkerContextInUse = false;
+                workerThread.mWorkerContext.reset();
+            }
+        } else {
+            WorkerContext workerContext = new WorkerContext();
+            try {
+                consumer.accept(workerContext);
+            } finally {
+                workerContext.release();
+            }
+        }
+    }
+
+    /* pp */ static final class WorkerThread extends Thread {
+
+        private final WorkerContext mWorkerContext = new WorkerContext();
+        // accessed only by this thread
+        private boolean mIsWorkerContextInUse = false;
+        private final ThreadQos mThreadQos;
+
+        // Linux nice values can be changed only after the thread has started
+        private volatile int mTid = ThreadPriorities.UNKNOWN_TID;
+
+        private WorkerThread(Runnable runnable, String name, ThreadQos threadQos) {
+            super(runnable, name);
+            mThreadQos = threadQos;
+            // don't inherit these properties from the thread that happened to trigger the creation
+            setDaemon(false);
+            setPriority(threadQos.mJavaPriority);
+        }
+
+        @Override
+        public void run() {
+            mTid = ThreadPriorities.myTid();
+            ThreadPriorities.setThreadQos(this, mTid, mThreadQos);
+            try {
+                super.run();
+            } finally {
+                mWorkerContext.release();
+            }
+        }
+
+        /**
+         * Temporarily change the {@link ThreadQos} of this thread. Can be called from any thread.
+         */
+        /* pp */ void setThreadQos(ThreadQos threadQos) {
+            ThreadPriorities.setThreadQos(this, mTid, threadQos);
+        }
+
+        /**
+         * Restore the {@link ThreadQos} of the lane that this thread belongs to.
+         */
+        /* pp */ void restoreThreadQos() {
+            ThreadPriorities.setThreadQos(this, mTid, mThreadQos);
+        }
+    }
+}
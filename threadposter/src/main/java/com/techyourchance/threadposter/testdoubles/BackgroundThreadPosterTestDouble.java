@@ -2,6 +2,7 @@ package com.techyourchance.threadposter.testdoubles;
 
 
 import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.Cancellable;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -15,67 +16,109 @@ import java.util.concurrent.TimeUnit;
  * a happens-before relationship between any {@link Runnable} sent to execution and subsequent
  * test assertions.
  */
-/* pp */  class BackgroundThreadPosterTestDouble extends BackgroundThreadPoster {
+/* pp */  class BackgroundThreadPosterTestDouble extends BackgroundThreadPoster
+        implements InFlightWork.Dispatcher {
 
-    private final Object MONITOR = new Object();
+    private static final long KEEP_ALIVE_SECONDS = 1L;
 
     private final Queue<Runnable> mRunnables = new ConcurrentLinkedQueue<>();
 
-    private int mNonCompletedRunnables = 0;
+    private final RunningWork mRunningWork = new RunningWork();
+
+    private final VirtualTimer mVirtualTimer;
+    private final InFlightWork mInFlightWork;
+
+    /* pp */ BackgroundThreadPosterTestDouble() {
+        this(new VirtualTimer(), new InFlightWork());
+    }
+
+    /* pp */ BackgroundThreadPosterTestDouble(VirtualTimer virtualTimer, InFlightWork inFlightWork) {
+        mVirtualTimer = virtualTimer;
+        mInFlightWork = inFlightWork;
+    }
 
     @Override
-    public void post(Runnable runnable) {
-        synchronized (MONITOR) {
-            mRunnables.add(runnable);
-            mNonCompletedRunnables++;
-            MONITOR.notifyAll();
-        }
+    protected void execute(Runnable runnable) {
+        mRunnables.add(runnable);
+        mInFlightWork.onPosted();
+    }
+
+    @Override
+    protected void executeCompute(Runnable runnable) {
+        // the lanes make no difference in tests - all the work is tracked in the same way
+        execute(runnable);
+    }
+
+    @Override
+    protected void executeUserInteractive(Runnable runnable) {
+        execute(runnable);
+    }
+
+    @Override
+    protected Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+        return mVirtualTimer.schedule(trigger, delayMillis);
+    }
+
+    @Override
+    protected long getUptimeMillis() {
+        return mVirtualTimer.getUptimeMillis();
     }
 
     @Override
     protected ThreadPoolExecutor newThreadPoolExecutor() {
+        // each Runnable gets a thread right away, but idle threads are reused for a while
         return new ThreadPoolExecutor(
                 0,
                 Integer.MAX_VALUE,
-                0L,
+                KEEP_ALIVE_SECONDS,
                 TimeUnit.SECONDS,
                 new SynchronousQueue<Runnable>(),
                 new ThreadFactory() {
                     @Override
-                    public Thread newThread(final Runnable r) {
-                        return new Thread(new Runnable() {
-                            @Override
-                            public void run() {
-                                r.run();
-                                synchronized (MONITOR) {
-                                    mNonCompletedRunnables--;
-                                    MONITOR.notifyAll();
-                                }
-                            }
-                        });
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r);
+                        thread.setDaemon(true);
+                        return thread;
                     }
                 }
         );
     }
 
+    @Override
+    public void dispatchPending() {
+        Runnable runnable;
+        while ((runnable = mRunnables.poll()) != null) {
+            super.execute(mRunningWork.track(runnable, mInFlightWork));
+        }
+    }
+
+    @Override
+    public void appendDiagnostics(StringBuilder diagnostics) {
+        diagnostics.append("background: ").append(mRunnables.size()).append(" pending, ")
+                .append(mRunningWork.getCount()).append(" running");
+        mRunningWork.appendDiagnostics(diagnostics);
+    }
+
     /**
      * Execute all {@link Runnable}s posted to this "test double". The caller will block until the operation completes<br>
      * Call to this method allows to establish a happens-before relationship between the previously
      * posted {@link Runnable}s and subsequent code.
      */
     /* pp */ void join() {
-        synchronized (MONITOR) {
-            Runnable runnable;
-            while (mNonCompletedRunnables > 0) {
-                while ((runnable = mRunnables.poll()) != null) {
-                    super.post(runnable);
-                }
-                try {
-                    MONITOR.wait();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException("interrupted");
-                }
+        mInFlightWork.join(InFlightWork.DEFAULT_JOIN_TIMEOUT_MILLIS, this);
+    }
+
+    /**
+     * Advance the virtual time of this "test double" by the specified amount. All the delayed and
+     * periodic {@link Runnable}s that become due in the process are executed, in order. The
+     * caller will block until the operation completes.
+     */
+    /* pp */ void advanceTimeBy(long millis) {
+        mVirtualTimer.advanceBy(millis, new Runnable() {
+            @Override
+            public void run() {
+                join();
             }
-        }
+        });
     }
 }
@@ -0,0 +1,58 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.Cancellable;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test double of {@link BackgroundThreadPoster} that doesn't use threads at all: the posted
+ * {@link Runnable}s are executed by {@link DeterministicScheduler}.
+ */
+/* pp */ class DeterministicBackgroundThreadPosterTestDouble extends BackgroundThreadPoster {
+
+    private final DeterministicScheduler mScheduler;
+
+    /* pp */ DeterministicBackgroundThreadPosterTestDouble(DeterministicScheduler scheduler) {
+        mScheduler = scheduler;
+    }
+
+    @Override
+    protected void execute(Runnable runnable) {
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected void executeCompute(Runnable runnable) {
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected void executeUserInteractive(Runnable runnable) {
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected Cancellable scheduleTimer(Runnable trigger, long delayMillis) {
+        return mScheduler.getVirtualTimer().schedule(trigger, delayMillis);
+    }
+
+    @Override
+    protected long getUptimeMillis() {
+        return mScheduler.getVirtualTimer().getUptimeMillis();
+    }
+
+    @Override
+    protected ThreadPoolExecutor newThreadPoolExecutor() {
+        // never used; doesn't start any threads
+        return new ThreadPoolExecutor(
+                0,
+                1,
+                0L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>()
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Executes {@link Runnable}s posted to deterministic test doubles on the thread that drives the
+ * scheduler, in the order they were posted, and with virtual time.<br>
+ * No threads are involved, so there is no need to establish happens-before relationships, and
+ * the order of execution is the same in every run.
+ */
+/* pp */ class DeterministicScheduler {
+
+    private final Queue<Runnable> mRunnables = new ConcurrentLinkedQueue<>();
+
+    private final VirtualTimer mVirtualTimer = new VirtualTimer();
+
+    private final Runnable mRunUntilIdle = new Runnable() {
+        @Override
+        public void run() {
+            runUntilIdle();
+        }
+    };
+
+    /* pp */ void post(Runnable runnable) {
+        mRunnables.add(runnable);
+    }
+
+    /* pp */ VirtualTimer getVirtualTimer() {
+        return mVirtualTimer;
+    }
+
+    /**
+     * Execute all the posted {@link Runnable}s, including the ones posted in the process, until
+     * there are none left.
+     */
+    /* pp */ void runUntilIdle() {
+        Runnable runnable;
+        while ((runnable = mRunnables.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Execute all the posted {@link Runnable}s, and then advance the virtual time by the specified
+     * amount, executing the {@link Runnable}s that become due in the order of their deadlines.
+     */
+    /* pp */ void advanceBy(long millis) {
+        runUntilIdle();
+        mVirtualTimer.advanceBy(millis, mRunUntilIdle);
+    }
+}
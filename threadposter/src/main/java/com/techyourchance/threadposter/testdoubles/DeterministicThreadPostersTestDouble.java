@@ -0,0 +1,71 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.UiThreadPoster;
+
+/**
+ * Alternative to {@link ThreadPostersTestDouble} that doesn't use threads at all.<br>
+ * All the {@link Runnable}s posted to both test doubles are executed on the thread that calls
+ * {@link #runUntilIdle()} or {@link #advanceBy(long)} (usually the test thread), one at a time, in
+ * the order they were posted. Delayed and periodic {@link Runnable}s are driven by a virtual
+ * clock shared by both test doubles. Therefore, the tests that use this class are fast and
+ * deterministic, and there are no restrictions on the direction of the flow between the test
+ * doubles (e.g. UI thread can post to background thread).<br>
+ * The drawback is that the code under test can't block waiting for other posted work (e.g. using
+ * a latch), because that work will never execute while the only thread is blocked. Use
+ * {@link ThreadPostersTestDouble} to test such code.
+ */
+public class DeterministicThreadPostersTestDouble {
+
+    private final DeterministicScheduler mScheduler = new DeterministicScheduler();
+
+    private final BackgroundThreadPoster mBackgroundThreadPosterTestDouble =
+            new DeterministicBackgroundThreadPosterTestDouble(mScheduler);
+    private final UiThreadPoster mUiThreadPosterTestDouble =
+            new DeterministicUiThreadPosterTestDouble(mScheduler);
+
+    /**
+     * Execute all the {@link Runnable}s posted to both test doubles, including the ones posted in
+     * the process, until there are none left. Delayed and periodic {@link Runnable}s that aren't
+     * due yet according to the virtual clock aren't executed.
+     */
+    public void runUntilIdle() {
+        mScheduler.runUntilIdle();
+    }
+
+    /**
+     * Execute all the {@link Runnable}s posted to both test doubles, and then advance the virtual
+     * time by the specified amount. The delayed and periodic {@link Runnable}s that become due in
+     * the process are executed in the order of their deadlines, and the work they post is
+     * executed before the next deadline (as if {@link #runUntilIdle()} was called after each of
+     * them).
+     * @param millis the amount of virtual time in milliseconds
+     */
+    public void advanceBy(long millis) {
+        mScheduler.advanceBy(millis);
+    }
+
+    /**
+     * Same as {@link #runUntilIdle()}; allows to replace {@link ThreadPostersTestDouble} in the
+     * existing tests without other changes.
+     */
+    public void join() {
+        runUntilIdle();
+    }
+
+    /**
+     * Same as {@link #advanceBy(long)}; allows to replace {@link ThreadPostersTestDouble} in the
+     * existing tests without other changes.
+     */
+    public void advanceTimeBy(long millis) {
+        advanceBy(millis);
+    }
+
+    public BackgroundThreadPoster getBackgroundTestDouble() {
+        return mBackgroundThreadPosterTestDouble;
+    }
+
+    public UiThreadPoster getUiTestDouble() {
+        return mUiThreadPosterTestDouble;
+    }
+}
@@ -0,0 +1,64 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import android.os.Handler;
+
+import com.techyourchance.threadposter.Cancellable;
+import com.techyourchance.threadposter.UiThreadPoster;
+
+/**
+ * Test double of {@link UiThreadPoster} that doesn't use threads at all: the posted
+ * {@link Runnable}s are executed by {@link DeterministicScheduler}.
+ */
+/* pp */ class DeterministicUiThreadPosterTestDouble extends UiThreadPoster {
+
+    private final DeterministicScheduler mScheduler;
+
+    /* pp */ DeterministicUiThreadPosterTestDouble(DeterministicScheduler scheduler) {
+        super(new Builder().setTicker(scheduler.getVirtualTimer().getTicker()));
+        mScheduler = scheduler;
+    }
+
+    @Override
+    protected Handler getMainHandler() {
+        // this class does not use Handler at all
+        return null;
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected void execute(Runnable runnable) {
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected void executeUrgent(Runnable runnable) {
+        // urgent work is executed in posting order, which keeps the tests deterministic
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected void executeWhenIdle(Runnable runnable) {
+        // the fake UI thread doesn't go idle, so idle work is treated as regular work
+        mScheduler.post(runnable);
+    }
+
+    @Override
+    protected Cancellable scheduleTimer(final Runnable trigger, long delayMillis) {
+        // expired timers are dispatched to the fake UI thread
+        return mScheduler.getVirtualTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                post(trigger);
+            }
+        }, delayMillis);
+    }
+
+    @Override
+    protected long getUptimeMillis() {
+        return mScheduler.getVirtualTimer().getUptimeMillis();
+    }
+}
@@ -0,0 +1,106 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Counts the {@link Runnable}s that were posted to one or more test doubles, but haven't completed
+ * yet, and allows to join until there are none left (global quiescence).<br>
+ * Joining threads are woken up only when there is new work that they need to dispatch, or when
+ * the count drops to zero, and not on each completion.
+ */
+/* pp */ class InFlightWork {
+
+    /**
+     * Test double that holds posted {@link Runnable}s until they are dispatched by joining thread
+     */
+    /* pp */ interface Dispatcher {
+
+        /**
+         * Hand the pending {@link Runnable}s over to execution. Must not block.
+         */
+        void dispatchPending();
+
+        /**
+         * Describe the work that hasn't completed yet (used when join times out).
+         */
+        void appendDiagnostics(StringBuilder diagnostics);
+    }
+
+    /* pp */ static final long DEFAULT_JOIN_TIMEOUT_MILLIS = 10000;
+
+    private final AtomicInteger mCount = new AtomicInteger(0);
+    private final Queue<Thread> mJoiningThreads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Must be called after the posted {@link Runnable} becomes visible to
+     * {@link Dispatcher#dispatchPending()}.
+     */
+    /* pp */ void onPosted() {
+        mCount.incrementAndGet();
+        wakeUpJoiningThreads();
+    }
+
+    /* pp */ void onCompleted() {
+        if (mCount.decrementAndGet() == 0) {
+            wakeUpJoiningThreads();
+        }
+    }
+
+    /* pp */ int getCount() {
+        return mCount.get();
+    }
+
+    private void wakeUpJoiningThreads() {
+        for (Thread joiningThread : mJoiningThreads) {
+            LockSupport.unpark(joiningThread);
+        }
+    }
+
+    /**
+     * Keep dispatching the pending work of the specified test doubles until all the work
+     * (including the work posted in the process, in any direction) completes.
+     * @throws AssertionError if the work doesn't complete within the specified timeout
+     */
+    /* pp */ void join(long timeoutMillis, Dispatcher... dispatchers) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Thread currentThread = Thread.currentThread();
+        // register before checking, so that either the check sees new work, or the poster of
+        // the new work sees this thread and wakes it up
+        mJoiningThreads.add(currentThread);
+        try {
+            while (true) {
+                for (Dispatcher dispatcher : dispatchers) {
+                    dispatcher.dispatchPending();
+                }
+                if (mCount.get() == 0) {
+                    return;
+                }
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new AssertionError(getTimeoutMessage(timeoutMillis, dispatchers));
+                }
+                LockSupport.parkNanos(this, remainingNanos);
+                if (Thread.interrupted()) {
+                    throw new RuntimeException("interrupted");
+                }
+            }
+        } finally {
+            mJoiningThreads.remove(currentThread);
+        }
+    }
+
+    private String getTimeoutMessage(long timeoutMillis, Dispatcher[] dispatchers) {
+        StringBuilder message = new StringBuilder()
+                .append("join timed out after ").append(timeoutMillis).append("ms with ")
+                .append(mCount.get()).append(" runnable(s) in flight");
+        for (Dispatcher dispatcher : dispatchers) {
+            message.append('\n');
+            dispatcher.appendDiagnostics(message);
+        }
+        return message.toString();
+    }
+}
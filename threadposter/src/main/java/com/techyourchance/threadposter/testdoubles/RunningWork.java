@@ -0,0 +1,47 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the threads that currently execute posted {@link Runnable}s, such that the diagnostics of
+ * join timeouts can show where they are stuck.
+ */
+/* pp */ class RunningWork {
+
+    private final Map<Thread, Runnable> mRunnables = new ConcurrentHashMap<>();
+
+    /**
+     * Wrap the specified {@link Runnable}, such that its execution is tracked, and the specified
+     * {@link InFlightWork} is notified when it completes (even if it throws).
+     */
+    /* pp */ Runnable track(final Runnable runnable, final InFlightWork inFlightWork) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                Thread currentThread = Thread.currentThread();
+                mRunnables.put(currentThread, runnable);
+                try {
+                    runnable.run();
+                } finally {
+                    mRunnables.remove(currentThread);
+                    inFlightWork.onCompleted();
+                }
+            }
+        };
+    }
+
+    /* pp */ int getCount() {
+        return mRunnables.size();
+    }
+
+    /* pp */ void appendDiagnostics(StringBuilder diagnostics) {
+        for (Map.Entry<Thread, Runnable> entry : mRunnables.entrySet()) {
+            diagnostics.append("\n    ").append(entry.getValue())
+                    .append(" running on ").append(entry.getKey().getName()).append(':');
+            for (StackTraceElement element : entry.getKey().getStackTrace()) {
+                diagnostics.append("\n        at ").append(element);
+            }
+        }
+    }
+}
@@ -6,24 +6,56 @@ import com.techyourchance.threadposter.UiThreadPoster;
 /**
  * This class should be used in unit tests to obtain test doubles of {@link UiThreadPoster} and
  * {@link BackgroundThreadPoster}.<br>
- * The reason for the existence of this class is that it handles special ordering requirements
- * between thread posters when {@link ThreadPostersTestDouble#join()} is called.
+ * The reason for the existence of this class is that it joins both thread posters together when
+ * {@link ThreadPostersTestDouble#join()} is called, so the work can flow between them in any
+ * direction.
  */
 public class ThreadPostersTestDouble {
 
+    // both test doubles share the same virtual time and the same count of in-flight work
+    private final VirtualTimer mVirtualTimer = new VirtualTimer();
+    private final InFlightWork mInFlightWork = new InFlightWork();
+
     private final BackgroundThreadPosterTestDouble mBackgroundThreadPosterTestDouble =
-            new BackgroundThreadPosterTestDouble();
+            new BackgroundThreadPosterTestDouble(mVirtualTimer, mInFlightWork);
     private final UiThreadPosterTestDouble mUiThreadPosterTestDouble =
-            new UiThreadPosterTestDouble();
+            new UiThreadPosterTestDouble(mVirtualTimer, mInFlightWork);
 
+    /**
+     * Execute all {@link Runnable}s posted to both test doubles, including the ones posted in the
+     * process, and wait until all of them complete. The caller will block until the operation
+     * completes.<br>
+     * The work can flow between the test doubles in any direction and any number of times (e.g.
+     * UI thread posts to background thread, which posts back to UI thread).
+     * @throws AssertionError if the work doesn't complete within 10 seconds; the message
+     *                        describes the work that is still pending or running
+     */
     public void join() {
-        // The ordering here is important - it's assumed that if both bg and ui thread posters
-        // involved, then the flow is from bg thread poster to ui thread poster.
-        // If the clients will try to use a reverse order (invoke bg thread poster from ui thread poster),
-        // then the tests will simply hang.
-        // Not optimal, but, at least, the clients will know that something is wrong right away.
-        mBackgroundThreadPosterTestDouble.join();
-        mUiThreadPosterTestDouble.join();
+        join(InFlightWork.DEFAULT_JOIN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Same as {@link #join()}, but with the specified timeout.
+     * @param timeoutMillis the timeout in milliseconds
+     */
+    public void join(long timeoutMillis) {
+        mInFlightWork.join(timeoutMillis, mBackgroundThreadPosterTestDouble, mUiThreadPosterTestDouble);
+    }
+
+    /**
+     * Advance the virtual time of both test doubles by the specified amount. Delayed and periodic
+     * {@link Runnable}s don't execute until their time comes according to this virtual clock. All
+     * the {@link Runnable}s that become due are executed in order, and the caller will block until
+     * the operation completes (as if {@link #join()} was called after each of them).
+     * @param millis the amount of virtual time in milliseconds
+     */
+    public void advanceTimeBy(long millis) {
+        mVirtualTimer.advanceBy(millis, new Runnable() {
+            @Override
+            public void run() {
+                join();
+            }
+        });
     }
 
     public BackgroundThreadPoster getBackgroundTestDouble() {
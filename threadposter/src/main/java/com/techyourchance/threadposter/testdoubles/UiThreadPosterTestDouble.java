@@ -2,10 +2,15 @@ package com.techyourchance.threadposter.testdoubles;
 
 import android.os.Handler;
 
+import com.techyourchance.threadposter.Cancellable;
 import com.techyourchance.threadposter.UiThreadPoster;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Test double of {@link UiThreadPoster} that can be used in tests in order to establish
@@ -14,10 +19,45 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * Instead of using Android's UI (aka main) thread, this implementation runs all {@link Runnable}s
  * on a single background thread in order, thus simulating serial execution on UI thread.
  */
-/* pp */  class UiThreadPosterTestDouble extends UiThreadPoster {
+/* pp */  class UiThreadPosterTestDouble extends UiThreadPoster implements InFlightWork.Dispatcher {
+
+    private static final long KEEP_ALIVE_SECONDS = 1L;
 
     private final Queue<Runnable> mRunnables = new ConcurrentLinkedQueue<>();
 
+    private final RunningWork mRunningWork = new RunningWork();
+
+    // the fake UI thread is reused by subsequent joins for a while
+    private final ThreadPoolExecutor mFakeUiThreadExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "fake-ui-thread");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+    );
+
+    private final VirtualTimer mVirtualTimer;
+    private final InFlightWork mInFlightWork;
+
+    /* pp */ UiThreadPosterTestDouble() {
+        this(new VirtualTimer(), new InFlightWork());
+    }
+
+    /* pp */ UiThreadPosterTestDouble(VirtualTimer virtualTimer, InFlightWork inFlightWork) {
+        super(new Builder().setTicker(virtualTimer.getTicker()));
+        mVirtualTimer = virtualTimer;
+        mInFlightWork = inFlightWork;
+        mFakeUiThreadExecutor.allowCoreThreadTimeOut(true);
+    }
+
     @Override
     protected Handler getMainHandler() {
         // need to override this method in order to prevent "stub" RuntimeException during unit
@@ -28,6 +68,58 @@ import java.util.concurrent.ConcurrentLinkedQueue;
     @Override
     public void post(final Runnable runnable) {
         mRunnables.add(runnable);
+        mInFlightWork.onPosted();
+    }
+
+    @Override
+    protected void execute(Runnable runnable) {
+        // each message of UiThreadPoster (e.g. a slice of work) is a separate "looper turn"
+        post(runnable);
+    }
+
+    @Override
+    protected void executeUrgent(Runnable runnable) {
+        // urgent work is executed in posting order, which keeps the tests deterministic
+        post(runnable);
+    }
+
+    @Override
+    protected void executeWhenIdle(Runnable runnable) {
+        // the fake UI thread doesn't go idle, so idle work is treated as regular work
+        post(runnable);
+    }
+
+    @Override
+    protected Cancellable scheduleTimer(final Runnable trigger, long delayMillis) {
+        // expired timers are dispatched to the fake UI thread
+        return mVirtualTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                post(trigger);
+            }
+        }, delayMillis);
+    }
+
+    @Override
+    protected long getUptimeMillis() {
+        return mVirtualTimer.getUptimeMillis();
+    }
+
+    @Override
+    public void dispatchPending() {
+        Runnable runnable;
+        while ((runnable = mRunnables.poll()) != null) {
+            // single thread executes the Runnables one at a time, in order
+            mFakeUiThreadExecutor.execute(mRunningWork.track(runnable, mInFlightWork));
+        }
+    }
+
+    @Override
+    public void appendDiagnostics(StringBuilder diagnostics) {
+        int pendingCount = mRunnables.size() + mFakeUiThreadExecutor.getQueue().size();
+        diagnostics.append("ui: ").append(pendingCount).append(" pending, ")
+                .append(mRunningWork.getCount()).append(" running");
+        mRunningWork.appendDiagnostics(diagnostics);
     }
 
     /**
@@ -36,24 +128,20 @@ import java.util.concurrent.ConcurrentLinkedQueue;
      * posted {@link Runnable}s and subsequent code.
      */
     /* pp */ void join() {
-        final Thread fakeUiThread = new Thread() {
+        mInFlightWork.join(InFlightWork.DEFAULT_JOIN_TIMEOUT_MILLIS, this);
+    }
+
+    /**
+     * Advance the virtual time of this "test double" by the specified amount. All the delayed and
+     * periodic {@link Runnable}s that become due in the process are executed, in order. The
+     * caller will block until the operation completes.
+     */
+    /* pp */ void advanceTimeBy(long millis) {
+        mVirtualTimer.advanceBy(millis, new Runnable() {
             @Override
             public void run() {
-                Runnable runnable;
-                while ((runnable = mRunnables.poll()) != null) {
-                    runnable.run();
-                }
+                join();
             }
-        };
-
-        fakeUiThread.start();
-
-        try {
-            fakeUiThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException("interrupted");
-        }
+        });
     }
-
-
 }
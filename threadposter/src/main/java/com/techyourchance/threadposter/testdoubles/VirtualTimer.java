@@ -0,0 +1,137 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import com.techyourchance.threadposter.Cancellable;
+import com.techyourchance.threadposter.Ticker;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual clock and timers that are used by test doubles instead of the real time.<br>
+ * The time doesn't advance by itself: timers expire only when {@link #advanceBy(long, Runnable)}
+ * is called, in the order of their deadlines.
+ */
+/* pp */ class VirtualTimer {
+
+    // guarded by this
+    private final PriorityQueue<Timer> mTimers = new PriorityQueue<>();
+    private long mUptimeMillis = 0;
+    private long mSequenceNumber = 0;
+
+    private final Ticker mTicker = new Ticker() {
+        @Override
+        public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(getUptimeMillis());
+        }
+    };
+
+    /* pp */ synchronized long getUptimeMillis() {
+        return mUptimeMillis;
+    }
+
+    /**
+     * @return {@link Ticker} that reads the virtual time of this timer
+     */
+    /* pp */ Ticker getTicker() {
+        return mTicker;
+    }
+
+    /* pp */ synchronized Cancellable schedule(Runnable trigger, long delayMillis) {
+        Timer timer = new Timer(trigger, mUptimeMillis + Math.max(0, delayMillis), mSequenceNumber++);
+        mTimers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Advance the virtual time by the specified amount, invoking the triggers of all the timers
+     * that expire in the process. The specified join {@link Runnable} is executed after each
+     * trigger, such that the work dispatched by the trigger (including re-scheduling of periodic
+     * work) completes before the next timer expires.
+     */
+    /* pp */ void advanceBy(long millis, Runnable join) {
+        long targetUptimeMillis;
+        synchronized (this) {
+            targetUptimeMillis = mUptimeMillis + millis;
+        }
+        while (true) {
+            Timer timer;
+            synchronized (this) {
+                timer = mTimers.peek();
+                if (timer == null || timer.mDeadlineMillis > targetUptimeMillis) {
+                    mUptimeMillis = targetUptimeMillis;
+                    return;
+                }
+                mTimers.poll();
+                mUptimeMillis = Math.max(mUptimeMillis, timer.mDeadlineMillis);
+            }
+            if (timer.expire()) {
+                join.run();
+            }
+        }
+    }
+
+    private final class Timer implements Cancellable, Comparable<Timer> {
+
+        private final long mDeadlineMillis;
+        private final long mSequenceNumber;
+
+        // guarded by VirtualTimer.this
+        private Runnable mTrigger;
+        private boolean mIsCancelled = false;
+
+        private Timer(Runnable trigger, long deadlineMillis, long sequenceNumber) {
+            mTrigger = trigger;
+            mDeadlineMillis = deadlineMillis;
+            mSequenceNumber = sequenceNumber;
+        }
+
+        private boolean expire() {
+            Runnable trigger;
+            synchronized (VirtualTimer.this) {
+                trigger = mTrigger;
+                mTrigger = null;
+            }
+            if (trigger == null) {
+                return false;
+            }
+            trigger.run();
+            return true;
+        }
+
+        @Override
+        public boolean cancel() {
+            return cancel(false);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (VirtualTimer.this) {
+                if (mTrigger == null) {
+                    return false;
+                }
+                mTrigger = null;
+                mIsCancelled = true;
+                mTimers.remove(this);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (VirtualTimer.this) {
+                return mIsCancelled;
+            }
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            if (mDeadlineMillis != other.mDeadlineMillis) {
+                return mDeadlineMillis < other.mDeadlineMillis ? -1 : 1;
+            }
+            if (mSequenceNumber != other.mSequenceNumber) {
+                return mSequenceNumber < other.mSequenceNumber ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+}
@@ -6,7 +6,17 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 
 public class BackgroundThreadPosterTest {
 
@@ -85,4 +95,1013 @@ public class BackgroundThreadPosterTest {
         // Assert
         semaphore2.acquireUninterruptibly();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void execute_boundedBusy_runnablesExecutedInPriorityOrder() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(-2);
+        final StringBuffer order = new StringBuffer();
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        SUT.post(new AppendingRunnable(order, "p", completionSemaphore), BackgroundThreadPoster.Priority.PREFETCH);
+        SUT.post(new AppendingRunnable(order, "d", completionSemaphore), BackgroundThreadPoster.Priority.DEFAULT);
+        SUT.post(new AppendingRunnable(order, "u", completionSemaphore), BackgroundThreadPoster.Priority.USER_BLOCKING);
+        blockingSemaphore.release();
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("udp"));
+    }
+
+    @Test
+    public void execute_boundedBusySamePriority_runnablesExecutedInPostingOrder() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(-2);
+        final StringBuffer order = new StringBuffer();
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        SUT.post(new AppendingRunnable(order, "a", completionSemaphore));
+        SUT.post(new AppendingRunnable(order, "b", completionSemaphore));
+        SUT.post(new AppendingRunnable(order, "c", completionSemaphore));
+        blockingSemaphore.release();
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("abc"));
+    }
+
+    @Test
+    public void execute_boundedManyRunnables_concurrencyNotExceedingMaxThreads() throws Exception {
+        // Arrange
+        final int maxThreads = 2;
+        final int numOfRunnables = 20;
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(maxThreads).build();
+        final AtomicInteger concurrentRunnables = new AtomicInteger(0);
+        final AtomicInteger maxConcurrentRunnables = new AtomicInteger(0);
+        final Semaphore completionSemaphore = new Semaphore(1 - numOfRunnables);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                int concurrent = concurrentRunnables.incrementAndGet();
+                int max;
+                while (concurrent > (max = maxConcurrentRunnables.get())) {
+                    maxConcurrentRunnables.compareAndSet(max, concurrent);
+                }
+                Thread.yield();
+                concurrentRunnables.decrementAndGet();
+                completionSemaphore.release();
+            }
+        };
+        // Act
+        for (int i = 0; i < numOfRunnables; i++) {
+            SUT.post(runnable);
+        }
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(maxConcurrentRunnables.get() <= maxThreads, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_nonPositiveMaxThreads_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new BackgroundThreadPoster.Builder().setMaxThreads(0);
+        // Assert
+    }
+
+    @Test
+    public void executeKeyed_sameKey_runnablesExecutedSeriallyInPostingOrder() throws Exception {
+        // Arrange
+        final int numOfRunnables = 50;
+        final Semaphore completionSemaphore = new Semaphore(1 - numOfRunnables);
+        final StringBuffer order = new StringBuffer();
+        final AtomicInteger concurrentRunnables = new AtomicInteger(0);
+        final AtomicInteger maxConcurrentRunnables = new AtomicInteger(0);
+        // Act
+        for (int i = 0; i < numOfRunnables; i++) {
+            final int index = i;
+            SUT.post("key", new Runnable() {
+                @Override
+                public void run() {
+                    int concurrent = concurrentRunnables.incrementAndGet();
+                    if (concurrent > maxConcurrentRunnables.get()) {
+                        maxConcurrentRunnables.set(concurrent);
+                    }
+                    order.append(index).append(",");
+                    Thread.yield();
+                    concurrentRunnables.decrementAndGet();
+                    completionSemaphore.release();
+                }
+            });
+        }
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        StringBuilder expectedOrder = new StringBuilder();
+        for (int i = 0; i < numOfRunnables; i++) {
+            expectedOrder.append(i).append(",");
+        }
+        assertThat(order.toString(), is(expectedOrder.toString()));
+        assertThat(maxConcurrentRunnables.get(), is(1));
+    }
+
+    @Test
+    public void executeKeyed_differentKeysInterdependent_executionSuccessful() throws Exception {
+        // Arrange
+        final Semaphore semaphore1 = new Semaphore(0);
+        final Semaphore semaphore2 = new Semaphore(0);
+        Runnable runnable1 = new Runnable() {
+            @Override
+            public void run() {
+                semaphore1.acquireUninterruptibly();
+                semaphore2.release();
+            }
+        };
+        Runnable runnable2 = new Runnable() {
+            @Override
+            public void run() {
+                semaphore1.release();
+            }
+        };
+        // Act
+        SUT.post("key1", runnable1);
+        SUT.post("key2", runnable2);
+        // Assert
+        semaphore2.acquireUninterruptibly();
+    }
+
+    @Test
+    public void executeKeyed_runnableThrows_subsequentRunnablesWithSameKeyExecuted() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        Runnable runnable1 = new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("test exception");
+            }
+        };
+        Runnable runnable2 = new Runnable() {
+            @Override
+            public void run() {
+                semaphore.release();
+            }
+        };
+        // Act
+        SUT.post("key", runnable1);
+        SUT.post("key", runnable2);
+        // Assert
+        semaphore.acquireUninterruptibly();
+    }
+
+    @Test
+    public void executeConsumer_argumentPassed() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        final StringBuffer result = new StringBuffer();
+        Consumer<String> consumer = new Consumer<String>() {
+            @Override
+            public void accept(String arg) {
+                result.append(arg);
+                semaphore.release();
+            }
+        };
+        // Act
+        SUT.post(consumer, "a");
+        // Assert
+        semaphore.acquireUninterruptibly();
+        assertThat(result.toString(), is("a"));
+    }
+
+    @Test
+    public void executeBiConsumer_argumentsPassed() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        final StringBuffer result = new StringBuffer();
+        BiConsumer<String, Integer> biConsumer = new BiConsumer<String, Integer>() {
+            @Override
+            public void accept(String arg1, Integer arg2) {
+                result.append(arg1).append(arg2);
+                semaphore.release();
+            }
+        };
+        // Act
+        SUT.post(biConsumer, "a", 1);
+        // Assert
+        semaphore.acquireUninterruptibly();
+        assertThat(result.toString(), is("a1"));
+    }
+
+    @Test
+    public void executeConsumer_boundedBusy_consumersExecutedInPriorityOrder() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(-2);
+        final StringBuffer order = new StringBuffer();
+        Consumer<String> consumer = new Consumer<String>() {
+            @Override
+            public void accept(String arg) {
+                order.append(arg);
+                completionSemaphore.release();
+            }
+        };
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        SUT.post(consumer, "p", BackgroundThreadPoster.Priority.PREFETCH);
+        SUT.post(new AppendingRunnable(order, "d", completionSemaphore));
+        SUT.post(consumer, "u", BackgroundThreadPoster.Priority.USER_BLOCKING);
+        blockingSemaphore.release();
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("udp"));
+    }
+
+    @Test
+    public void executeConsumer_boundedSteadyState_noAllocations() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        // Act
+        // Assert
+        assertSteadyStateConsumerPostsDontAllocate();
+    }
+
+    @Test
+    public void executeConsumer_boundedWithCapacitySteadyState_noAllocations() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder()
+                .setMaxThreads(1)
+                .setCapacity(64, SaturationPolicy.dropOldest())
+                .build();
+        // Act
+        // Assert
+        assertSteadyStateConsumerPostsDontAllocate();
+        assertThat(SUT.getRemainingCapacity(), is(64));
+    }
+
+    @Test
+    public void execute_withMetrics_waitAndRunTimesRecordedPerTag() throws Exception {
+        // Arrange
+        final PosterMetricsRecorder metricsRecorder = new PosterMetricsRecorder();
+        SUT = new BackgroundThreadPoster.Builder().setMetrics(metricsRecorder).build();
+        final Semaphore semaphore = new Semaphore(-1);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                semaphore.release();
+            }
+        };
+        // Act
+        SUT.post(new TaggedRunnable("tag", runnable));
+        SUT.post(runnable);
+        // Assert
+        semaphore.acquireUninterruptibly();
+        // the recording happens right after the execution
+        while (metricsRecorder.getActiveTasksCount() > 0) {
+            Thread.yield();
+        }
+        assertThat(metricsRecorder.getRunTimeHistogram().getCount(), is(2L));
+        assertThat(metricsRecorder.getWaitTimeHistogram().getCount(), is(2L));
+        assertThat(metricsRecorder.getRunTimeHistogram("tag").getCount(), is(1L));
+        assertThat(metricsRecorder.getPendingTasksCount(), is(0));
+    }
+
+    @Test
+    public void execute_boundedWithMetrics_pendingAndPeakActiveTasksTracked() throws Exception {
+        // Arrange
+        final PosterMetricsRecorder metricsRecorder = new PosterMetricsRecorder();
+        SUT = new BackgroundThreadPoster.Builder()
+                .setMaxThreads(1)
+                .setMetrics(metricsRecorder)
+                .build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore startedSemaphore = new Semaphore(0);
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        SUT.post(blockingRunnable);
+        startedSemaphore.acquireUninterruptibly();
+        // Assert
+        assertThat(metricsRecorder.getPendingTasksCount(), is(1));
+        assertThat(metricsRecorder.getActiveTasksCount(), is(1));
+        blockingSemaphore.release(2);
+        startedSemaphore.acquireUninterruptibly();
+        assertThat(metricsRecorder.getPeakActiveTasksCount(), is(1));
+        assertThat(SUT.getPeakThreadsCount(), is(1));
+    }
+
+    @Test
+    public void executeCancellable_cancelledBeforeStart_notExecuted() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        Cancellable cancellable = SUT.postCancellable(new AppendingRunnable(order, "a", completionSemaphore));
+        SUT.post(new AppendingRunnable(order, "b", completionSemaphore));
+        boolean result = cancellable.cancel();
+        blockingSemaphore.release();
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(result, is(true));
+        assertThat(order.toString(), is("b"));
+    }
+
+    @Test
+    public void executeCancellable_cancelledWithInterruptWhileRunning_interrupted() throws Exception {
+        // Arrange
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore interruptedSemaphore = new Semaphore(0);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interruptedSemaphore.release();
+                }
+            }
+        };
+        // Act
+        Cancellable cancellable = SUT.postCancellable(runnable);
+        startedSemaphore.acquireUninterruptibly();
+        cancellable.cancel(true);
+        // Assert
+        interruptedSemaphore.acquireUninterruptibly();
+        assertThat(cancellable.isCancelled(), is(true));
+    }
+
+    @Test
+    public void executeDelayed_executedAfterDelay() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        final long startNanos = System.nanoTime();
+        final AtomicLong elapsedMillis = new AtomicLong(0);
+        // Act
+        SUT.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                elapsedMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                semaphore.release();
+            }
+        }, 50);
+        // Assert
+        semaphore.acquireUninterruptibly();
+        assertThat(elapsedMillis.get() >= 50, is(true));
+    }
+
+    @Test
+    public void executeDelayed_cancelledBeforeDelay_notExecuted() throws Exception {
+        // Arrange
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        // Act
+        Cancellable cancellable = SUT.postDelayed(new AppendingRunnable(order, "a", completionSemaphore), 20);
+        boolean result = cancellable.cancel();
+        SUT.postDelayed(new AppendingRunnable(order, "b", completionSemaphore), 50);
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(result, is(true));
+        assertThat(order.toString(), is("b"));
+    }
+
+    @Test
+    public void executeAtFixedRate_executedPeriodicallyUntilCancelled() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        final AtomicInteger executionsCount = new AtomicInteger(0);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                executionsCount.incrementAndGet();
+                semaphore.release();
+            }
+        };
+        // Act
+        Cancellable cancellable = SUT.postAtFixedRate(runnable, 0, 20);
+        semaphore.acquireUninterruptibly(3);
+        cancellable.cancel();
+        int executionsCountAfterCancel = executionsCount.get();
+        Thread.sleep(100);
+        // Assert
+        assertThat(executionsCount.get(), is(executionsCountAfterCancel));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void executeAtFixedRate_nonPositivePeriod_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        SUT.postAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                // no-op
+            }
+        }, 0, 0);
+        // Assert
+    }
+
+    @Test
+    public void executeWithVirtualThreads_executedRegardlessOfRuntimeSupport() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setUseVirtualThreads(true).build();
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        // Act
+        SUT.post(new AppendingRunnable(order, "a", completionSemaphore));
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("a"));
+        assertThat(SUT.isUsingVirtualThreads(), is(VirtualThreads.getThreadFactory() != null));
+    }
+
+    @Test
+    public void isUsingVirtualThreads_defaultConfiguration_false() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        assertThat(SUT.isUsingVirtualThreads(), is(false));
+    }
+
+    @Test
+    public void executeAdaptive_executedAndMetricsReported() throws Exception {
+        // Arrange
+        final PosterMetricsRecorder metricsRecorder = new PosterMetricsRecorder();
+        SUT = new BackgroundThreadPoster.Builder()
+                .setAdaptiveThreads(1, 4, 10)
+                .setMetrics(metricsRecorder)
+                .build();
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        // Act
+        SUT.post(new AppendingRunnable(order, "a", completionSemaphore));
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        // the recording happens right after the execution
+        while (metricsRecorder.getActiveTasksCount() > 0) {
+            Thread.yield();
+        }
+        assertThat(order.toString(), is("a"));
+        assertThat(SUT.isAdaptive(), is(true));
+        assertThat(metricsRecorder.getWaitTimeHistogram().getCount(), is(1L));
+    }
+
+    @Test
+    public void isAdaptive_maxThreadsSetAfterAdaptiveThreads_false() throws Exception {
+        // Arrange
+        // Act
+        SUT = new BackgroundThreadPoster.Builder()
+                .setAdaptiveThreads(1, 4, 10)
+                .setMaxThreads(2)
+                .build();
+        // Assert
+        assertThat(SUT.isAdaptive(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAdaptiveThreads_maxLessThanMin_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new BackgroundThreadPoster.Builder().setAdaptiveThreads(4, 2, 10);
+        // Assert
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAdaptiveThreads_nonPositiveTargetWait_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new BackgroundThreadPoster.Builder().setAdaptiveThreads(1, 2, 0);
+        // Assert
+    }
+
+    @Test
+    public void executeCompute_executedOnComputeThread() throws Exception {
+        // Arrange
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer threadName = new StringBuffer();
+        // Act
+        SUT.postCompute(new Runnable() {
+            @Override
+            public void run() {
+                threadName.append(Thread.currentThread().getName());
+                completionSemaphore.release();
+            }
+        });
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(threadName.toString().startsWith("ThreadPoster-compute-"), is(true));
+    }
+
+    @Test
+    public void executeComputeAndIo_allComputeThreadsBusy_ioExecutedAndComputeNotOversubscribed() throws Exception {
+        // Arrange
+        int computeThreads = Runtime.getRuntime().availableProcessors();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore startedSemaphore = new Semaphore(0);
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        // Act
+        for (int i = 0; i < computeThreads + 1; i++) {
+            SUT.postCompute(blockingRunnable);
+        }
+        startedSemaphore.acquireUninterruptibly(computeThreads);
+        SUT.postIo(new AppendingRunnable(order, "io", completionSemaphore));
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("io"));
+        assertThat(startedSemaphore.availablePermits(), is(0));
+        assertThat(SUT.getAliveThreadsCount(), is(computeThreads + 1));
+        blockingSemaphore.release(computeThreads + 1);
+    }
+
+    @Test
+    public void executeWorkStealing_nestedPosts_allExecuted() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setWorkStealingThreads(2).build();
+        final Semaphore completionSemaphore = new Semaphore(-9);
+        final Runnable subtask = new Runnable() {
+            @Override
+            public void run() {
+                completionSemaphore.release();
+            }
+        };
+        // Act
+        SUT.post(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10; i++) {
+                    SUT.post(subtask);
+                }
+            }
+        });
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(SUT.isWorkStealing(), is(true));
+        assertThat(SUT.isBounded(), is(true));
+        assertThat(SUT.getPeakThreadsCount() <= 2, is(true));
+    }
+
+    @Test
+    public void executeWorkStealing_previousTaskCancelledWithInterrupt_nextTaskNotInterrupted() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setWorkStealingThreads(1).build();
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final AtomicBoolean isInterrupted = new AtomicBoolean(true);
+        Runnable interruptibleRunnable = new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    // restore the flag, as well-behaved code does
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Runnable nextRunnable = new Runnable() {
+            @Override
+            public void run() {
+                isInterrupted.set(Thread.currentThread().isInterrupted());
+                completionSemaphore.release();
+            }
+        };
+        // Act
+        Cancellable cancellable = SUT.postCancellable(interruptibleRunnable);
+        startedSemaphore.acquireUninterruptibly();
+        cancellable.cancel(true);
+        SUT.post(nextRunnable);
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(isInterrupted.get(), is(false));
+    }
+
+    @Test
+    public void initialization_workStealing_threadPoolExecutorNotConstructed() throws Exception {
+        // Arrange
+        // Act
+        SUT = new BackgroundThreadPoster.Builder().setWorkStealingThreads(2).build();
+        // Assert
+        assertThat(SUT.isInitialized(), is(true));
+        assertThat(SUT.getThreadPoolExecutor() == null, is(true));
+        assertThat(SUT.getThreadFactory() != null, is(true));
+    }
+
+    @Test
+    public void isWorkStealing_maxThreadsSetAfterWorkStealingThreads_false() throws Exception {
+        // Arrange
+        // Act
+        SUT = new BackgroundThreadPoster.Builder()
+                .setWorkStealingThreads(2)
+                .setMaxThreads(2)
+                .build();
+        // Assert
+        assertThat(SUT.isWorkStealing(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setWorkStealingThreads_nonPositive_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new BackgroundThreadPoster.Builder().setWorkStealingThreads(0);
+        // Assert
+    }
+
+    @Test
+    public void executeWithCapacity_saturated_newRunnableRejectedAndCapacityRestoredAfterCompletion() throws Exception {
+        // Arrange
+        final List<Runnable> rejected = new ArrayList<>();
+        SUT = new BackgroundThreadPoster.Builder()
+                .setMaxThreads(1)
+                .setCapacity(2, SaturationPolicy.reject(new Consumer<Runnable>() {
+                    @Override
+                    public void accept(Runnable arg) {
+                        rejected.add(arg);
+                    }
+                }))
+                .build();
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(0);
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+                completionSemaphore.release();
+            }
+        };
+        // Act
+        SUT.post(blockingRunnable);
+        SUT.postCompute(blockingRunnable);
+        boolean isSaturated = SUT.isSaturated();
+        SUT.post(blockingRunnable);
+        // Assert
+        assertThat(isSaturated, is(true));
+        assertThat(SUT.getRemainingCapacity(), is(0));
+        assertThat(rejected.size(), is(1));
+        blockingSemaphore.release(2);
+        completionSemaphore.acquireUninterruptibly(2);
+        // the capacity is released right after the execution
+        while (SUT.getRemainingCapacity() < 2) {
+            Thread.yield();
+        }
+        assertThat(SUT.isSaturated(), is(false));
+    }
+
+    @Test
+    public void executeCancellableWithCapacity_cancelledBeforeStart_capacityReleasedRightAway() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder()
+                .setMaxThreads(1)
+                .setCapacity(2, SaturationPolicy.dropNewest())
+                .build();
+        final StringBuffer order = new StringBuffer();
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        SUT.post(new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        });
+        startedSemaphore.acquireUninterruptibly();
+        Cancellable cancellable = SUT.postCancellable(new AppendingRunnable(order, "a", new Semaphore(0)));
+        boolean isSaturated = SUT.isSaturated();
+        // Act
+        cancellable.cancel();
+        // Assert
+        assertThat(isSaturated, is(true));
+        assertThat(SUT.isSaturated(), is(false));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+        blockingSemaphore.release();
+        while (SUT.getRemainingCapacity() < 2) {
+            Thread.yield();
+        }
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void getRemainingCapacity_capacityNotLimited_maxValue() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        assertThat(SUT.getRemainingCapacity(), is(Integer.MAX_VALUE));
+        assertThat(SUT.isSaturated(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCapacity_nonPositive_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new BackgroundThreadPoster.Builder().setCapacity(0, SaturationPolicy.dropNewest());
+        // Assert
+    }
+
+    @Test
+    public void postWithContext_singleThread_resourceCreatedOnceAndResetBetweenPosts() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setMaxThreads(1).build();
+        final AtomicInteger createdCount = new AtomicInteger(0);
+        final WorkerResource<StringBuilder> resource = new WorkerResource<StringBuilder>() {
+            @Override
+            protected StringBuilder create() {
+                createdCount.incrementAndGet();
+                return new StringBuilder();
+            }
+
+            @Override
+            protected void reset(StringBuilder stringBuilder) {
+                stringBuilder.setLength(0);
+            }
+        };
+        final Semaphore completionSemaphore = new Semaphore(-1);
+        final StringBuffer order = new StringBuffer();
+        Consumer<WorkerContext> consumer = new Consumer<WorkerContext>() {
+            @Override
+            public void accept(WorkerContext workerContext) {
+                StringBuilder stringBuilder = workerContext.get(resource);
+                order.append(stringBuilder.length());
+                stringBuilder.append("data");
+                completionSemaphore.release();
+            }
+        };
+        // Act
+        SUT.postWithContext(consumer);
+        SUT.postWithContext(consumer, BackgroundThreadPoster.Priority.PREFETCH);
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(order.toString(), is("00"));
+        assertThat(createdCount.get(), is(1));
+    }
+
+    @Test
+    public void executeLazy_executorConstructedOnFirstPost() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder().setLazyInitialization(true).build();
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer order = new StringBuffer();
+        boolean isInitializedBeforePost = SUT.isInitialized();
+        int aliveThreadsCountBeforePost = SUT.getAliveThreadsCount();
+        // Act
+        SUT.post(new AppendingRunnable(order, "a", completionSemaphore));
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(isInitializedBeforePost, is(false));
+        assertThat(aliveThreadsCountBeforePost, is(0));
+        assertThat(SUT.isInitialized(), is(true));
+        assertThat(order.toString(), is("a"));
+    }
+
+    @Test
+    public void isInitialized_defaultConfiguration_true() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        assertThat(SUT.isInitialized(), is(true));
+    }
+
+    @Test
+    public void prestart_lazyBounded_allThreadsStarted() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder()
+                .setMaxThreads(2)
+                .setLazyInitialization(true)
+                .build();
+        // Act
+        SUT.prestart();
+        // Assert
+        assertThat(SUT.isInitialized(), is(true));
+        assertThat(SUT.getAliveThreadsCount(), is(2));
+    }
+
+    @Test
+    public void prestart_workStealing_allThreadsStarted() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder()
+                .setWorkStealingThreads(2)
+                .setLazyInitialization(true)
+                .build();
+        // Act
+        SUT.prestart();
+        // Assert
+        assertThat(SUT.getAliveThreadsCount(), is(2));
+    }
+
+    @Test
+    public void execute_defaultConfiguration_backgroundThreadQos() throws Exception {
+        // Arrange
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final int[] priority = new int[1];
+        // Act
+        SUT.post(new Runnable() {
+            @Override
+            public void run() {
+                priority[0] = Thread.currentThread().getPriority();
+                completionSemaphore.release();
+            }
+        });
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(priority[0], is(ThreadQos.BACKGROUND.mJavaPriority));
+    }
+
+    @Test
+    public void execute_threadQosOfIoLaneSet_threadQosApplied() throws Exception {
+        // Arrange
+        SUT = new BackgroundThreadPoster.Builder()
+                .setThreadQos(BackgroundThreadPoster.Lane.IO, ThreadQos.DEFAULT)
+                .build();
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final int[] priority = new int[1];
+        // Act
+        SUT.postIo(new Runnable() {
+            @Override
+            public void run() {
+                priority[0] = Thread.currentThread().getPriority();
+                completionSemaphore.release();
+            }
+        });
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(priority[0], is(ThreadQos.DEFAULT.mJavaPriority));
+    }
+
+    @Test
+    public void executeUserInteractive_executedOnUserInteractiveThread() throws Exception {
+        // Arrange
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final StringBuffer threadName = new StringBuffer();
+        final int[] priority = new int[1];
+        // Act
+        SUT.postUserInteractive(new Runnable() {
+            @Override
+            public void run() {
+                threadName.append(Thread.currentThread().getName());
+                priority[0] = Thread.currentThread().getPriority();
+                completionSemaphore.release();
+            }
+        });
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(threadName.toString().startsWith("ThreadPoster-interactive-"), is(true));
+        assertThat(priority[0], is(ThreadQos.USER_INTERACTIVE.mJavaPriority));
+    }
+
+    @Test
+    public void executeBoostable_boostedWhileRunning_threadBoosted() throws Exception {
+        // Arrange
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore boostedSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(0);
+        final int[] priority = new int[1];
+        // Act
+        Boostable boostable = SUT.postBoostable(new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                boostedSemaphore.acquireUninterruptibly();
+                priority[0] = Thread.currentThread().getPriority();
+                completionSemaphore.release();
+            }
+        });
+        startedSemaphore.acquireUninterruptibly();
+        boostable.boost();
+        boostedSemaphore.release();
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+        assertThat(priority[0], is(ThreadQos.USER_INTERACTIVE.mJavaPriority));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Post {@link Consumer}s and {@link BiConsumer}s to single-threaded SUT in rounds, and assert
+     * that the posts themselves don't allocate once warmed up
+     */
+    private void assertSteadyStateConsumerPostsDontAllocate() {
+        final int numOfRounds = 100;
+        final int postsPerRound = 32; // less than the size of the pool of PooledTasks
+        final Counter counter = new Counter();
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final Semaphore completionSemaphore = new Semaphore(0);
+        Consumer<Counter> consumer = new Consumer<Counter>() {
+            @Override
+            public void accept(Counter arg) {
+                arg.mCount++;
+                completionSemaphore.release();
+            }
+        };
+        BiConsumer<Counter, Counter> biConsumer = new BiConsumer<Counter, Counter>() {
+            @Override
+            public void accept(Counter arg1, Counter arg2) {
+                arg1.mCount++;
+                completionSemaphore.release();
+            }
+        };
+        Runnable blockingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        long allocatedBytes = 0;
+        // the measurement itself allocates
+        long measurementBytes = getCurrentThreadAllocatedBytes();
+        measurementBytes = getCurrentThreadAllocatedBytes() - measurementBytes;
+        for (int round = 0; round < 2 * numOfRounds; round++) {
+            // the thread is blocked during the posts, so the posting thread doesn't wait for it
+            SUT.post(blockingRunnable);
+            startedSemaphore.acquireUninterruptibly();
+            long allocatedBytesBefore = getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < postsPerRound / 2; i++) {
+                SUT.post(consumer, counter);
+                SUT.post(biConsumer, counter, counter, BackgroundThreadPoster.Priority.PREFETCH);
+            }
+            long allocatedBytesAfter = getCurrentThreadAllocatedBytes();
+            if (round >= numOfRounds) { // the first half of the rounds warms up
+                allocatedBytes += allocatedBytesAfter - allocatedBytesBefore - measurementBytes;
+            }
+            blockingSemaphore.release();
+            completionSemaphore.acquireUninterruptibly(postsPerRound);
+        }
+        assertThat(counter.mCount, is(2 * numOfRounds * postsPerRound));
+        // less than one byte per post means that posts themselves don't allocate
+        assertThat(allocatedBytes < numOfRounds * postsPerRound, is(true));
+    }
+
+    private long getCurrentThreadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class AppendingRunnable implements Runnable {
+
+        private final StringBuffer mStringBuffer;
+        private final String mString;
+        private final Semaphore mCompletionSemaphore;
+
+        private AppendingRunnable(StringBuffer stringBuffer, String string, Semaphore completionSemaphore) {
+            mStringBuffer = stringBuffer;
+            mString = string;
+            mCompletionSemaphore = completionSemaphore;
+        }
+
+        @Override
+        public void run() {
+            mStringBuffer.append(mString);
+            mCompletionSemaphore.release();
+        }
+    }
+
+    private static class Counter {
+        private int mCount;
+    }
+}
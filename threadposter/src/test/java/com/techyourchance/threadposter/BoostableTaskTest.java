@@ -0,0 +1,112 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.Semaphore;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BoostableTaskTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private final Semaphore mStartedSemaphore = new Semaphore(0);
+    private final Semaphore mBoostedSemaphore = new Semaphore(0);
+    private final int[] mPriorities = new int[2];
+    private volatile int mPriorityAfterCompletion;
+
+    private WorkerThreadFactory mWorkerThreadFactory;
+
+    private BoostableTask SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mWorkerThreadFactory = new WorkerThreadFactory("test-", ThreadQos.BACKGROUND);
+        SUT = new BoostableTask(new Runnable() {
+            @Override
+            public void run() {
+                mPriorities[0] = Thread.currentThread().getPriority();
+                mStartedSemaphore.release();
+                mBoostedSemaphore.acquireUninterruptibly();
+                mPriorities[1] = Thread.currentThread().getPriority();
+            }
+        });
+    }
+
+    @Test
+    public void boost_whileRunning_threadBoostedUntilCompletion() throws Exception {
+        // Arrange
+        Thread thread = mWorkerThreadFactory.newThread(new RunAndRecordRunnable());
+        thread.start();
+        mStartedSemaphore.acquireUninterruptibly();
+        // Act
+        SUT.boost();
+        mBoostedSemaphore.release();
+        thread.join();
+        // Assert
+        assertThat(mPriorities[0], is(ThreadQos.BACKGROUND.mJavaPriority));
+        assertThat(mPriorities[1], is(ThreadQos.USER_INTERACTIVE.mJavaPriority));
+        assertThat(mPriorityAfterCompletion, is(ThreadQos.BACKGROUND.mJavaPriority));
+        assertThat(SUT.isBoosted(), is(true));
+    }
+
+    @Test
+    public void boost_beforeStart_executedBoosted() throws Exception {
+        // Arrange
+        Thread thread = mWorkerThreadFactory.newThread(new RunAndRecordRunnable());
+        // Act
+        SUT.boost();
+        mBoostedSemaphore.release();
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(mPriorities[0], is(ThreadQos.USER_INTERACTIVE.mJavaPriority));
+        assertThat(mPriorityAfterCompletion, is(ThreadQos.BACKGROUND.mJavaPriority));
+    }
+
+    @Test
+    public void boost_afterCompletion_noEffect() throws Exception {
+        // Arrange
+        mBoostedSemaphore.release();
+        Thread thread = mWorkerThreadFactory.newThread(new RunAndRecordRunnable());
+        thread.start();
+        thread.join();
+        // Act
+        SUT.boost();
+        // Assert
+        assertThat(SUT.isBoosted(), is(false));
+        assertThat(mPriorities[1], is(ThreadQos.BACKGROUND.mJavaPriority));
+    }
+
+    @Test
+    public void boost_notWorkerThread_priorityNotChanged() throws Exception {
+        // Arrange
+        Thread thread = new Thread(new RunAndRecordRunnable());
+        thread.setPriority(Thread.NORM_PRIORITY);
+        // Act
+        SUT.boost();
+        mBoostedSemaphore.release();
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(mPriorities[0], is(Thread.NORM_PRIORITY));
+        assertThat(mPriorityAfterCompletion, is(Thread.NORM_PRIORITY));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private class RunAndRecordRunnable implements Runnable {
+        @Override
+        public void run() {
+            SUT.run();
+            mPriorityAfterCompletion = Thread.currentThread().getPriority();
+        }
+    }
+}
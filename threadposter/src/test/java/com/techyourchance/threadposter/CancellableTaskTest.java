@@ -0,0 +1,133 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CancellableTaskTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private AtomicInteger mExecutionsCount;
+    private Runnable mRunnable;
+
+    private CancellableTask SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mExecutionsCount = new AtomicInteger(0);
+        mRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mExecutionsCount.incrementAndGet();
+            }
+        };
+        SUT = new CancellableTask(mRunnable, true);
+    }
+
+    @Test
+    public void run_notCancelled_runnableExecuted() throws Exception {
+        // Arrange
+        // Act
+        SUT.run();
+        // Assert
+        assertThat(mExecutionsCount.get(), is(1));
+        assertThat(SUT.isCancelled(), is(false));
+    }
+
+    @Test
+    public void cancel_beforeRun_runnableNotExecuted() throws Exception {
+        // Arrange
+        // Act
+        boolean result = SUT.cancel();
+        SUT.run();
+        // Assert
+        assertThat(result, is(true));
+        assertThat(SUT.isCancelled(), is(true));
+        assertThat(mExecutionsCount.get(), is(0));
+    }
+
+    @Test
+    public void cancel_afterRun_falseReturned() throws Exception {
+        // Arrange
+        SUT.run();
+        // Act
+        boolean result = SUT.cancel(true);
+        // Assert
+        assertThat(result, is(false));
+        assertThat(SUT.isCancelled(), is(false));
+    }
+
+    @Test
+    public void cancel_beforeRun_onCancelledBeforeStartInvoked() throws Exception {
+        // Arrange
+        final AtomicInteger callbacksCount = new AtomicInteger(0);
+        SUT = new CancellableTask(mRunnable, true) {
+            @Override
+            protected void onCancelledBeforeStart() {
+                callbacksCount.incrementAndGet();
+            }
+        };
+        // Act
+        SUT.cancel();
+        SUT.cancel();
+        // Assert
+        assertThat(callbacksCount.get(), is(1));
+    }
+
+    @Test
+    public void cancelWithInterrupt_running_runningThreadInterrupted() throws Exception {
+        // Arrange
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore interruptedSemaphore = new Semaphore(0);
+        SUT = new CancellableTask(new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interruptedSemaphore.release();
+                }
+            }
+        }, true);
+        new Thread(SUT).start();
+        startedSemaphore.acquireUninterruptibly();
+        // Act
+        boolean result = SUT.cancel(true);
+        // Assert
+        interruptedSemaphore.acquireUninterruptibly();
+        assertThat(result, is(true));
+        assertThat(SUT.isCancelled(), is(true));
+    }
+
+    @Test
+    public void cancelWithInterrupt_runningNonInterruptible_falseReturned() throws Exception {
+        // Arrange
+        final Semaphore startedSemaphore = new Semaphore(0);
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        SUT = new CancellableTask(new Runnable() {
+            @Override
+            public void run() {
+                startedSemaphore.release();
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        }, false);
+        new Thread(SUT).start();
+        startedSemaphore.acquireUninterruptibly();
+        // Act
+        boolean result = SUT.cancel(true);
+        // Assert
+        blockingSemaphore.release();
+        assertThat(result, is(false));
+        assertThat(SUT.isCancelled(), is(false));
+    }
+}
@@ -0,0 +1,176 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class KeyedRateLimiterTest {
+
+    private static final String KEY_1 = "key1";
+    private static final String KEY_2 = "key2";
+
+    private StringBuffer mOrder;
+
+    private TestKeyedRateLimiter SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mOrder = new StringBuffer();
+        SUT = new TestKeyedRateLimiter();
+    }
+
+    @Test
+    public void debounce_burst_onlyLatestDispatchedAfterQuietPeriod() throws Exception {
+        // Arrange
+        // Act
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+        SUT.advanceTimeBy(50);
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "b"));
+        SUT.advanceTimeBy(50);
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "c"));
+        SUT.advanceTimeBy(99);
+        // Assert
+        assertThat(mOrder.toString(), is(""));
+        SUT.advanceTimeBy(1);
+        assertThat(mOrder.toString(), is("c"));
+        assertThat(SUT.getActiveKeysCount(), is(0));
+    }
+
+    @Test
+    public void debounce_differentKeys_dispatchedIndependently() throws Exception {
+        // Arrange
+        // Act
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+        SUT.debounce(KEY_2, 50, new AppendingRunnable(mOrder, "b"));
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(mOrder.toString(), is("ba"));
+    }
+
+    @Test
+    public void debounce_afterBurstEnded_newBurstStarted() throws Exception {
+        // Arrange
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+        SUT.advanceTimeBy(100);
+        // Act
+        SUT.debounce(KEY_1, 100, new AppendingRunnable(mOrder, "b"));
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(mOrder.toString(), is("ab"));
+    }
+
+    @Test
+    public void throttle_burst_firstDispatchedRightAwayAndLatestAtIntervalEnd() throws Exception {
+        // Arrange
+        // Act
+        SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+        SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "b"));
+        SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "c"));
+        // Assert
+        assertThat(mOrder.toString(), is("a"));
+        SUT.advanceTimeBy(100);
+        assertThat(mOrder.toString(), is("ac"));
+    }
+
+    @Test
+    public void throttle_continuousCalls_dispatchedOncePerInterval() throws Exception {
+        // Arrange
+        // Act
+        for (int i = 0; i < 100; i++) {
+            SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+            SUT.advanceTimeBy(10);
+        }
+        // Assert
+        assertThat(mOrder.toString(), is("aaaaaaaaaaa"));
+    }
+
+    @Test
+    public void throttle_intervalWithoutCalls_burstEnded() throws Exception {
+        // Arrange
+        SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "a"));
+        // Act
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(SUT.getActiveKeysCount(), is(0));
+        SUT.throttle(KEY_1, 100, new AppendingRunnable(mOrder, "b"));
+        assertThat(mOrder.toString(), is("ab"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void debounce_nonPositiveDelay_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        SUT.debounce(KEY_1, 0, new AppendingRunnable(mOrder, "a"));
+        // Assert
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+
+    /**
+     * Executes the dispatched Runnables synchronously and expires the timers when the fake time
+     * is advanced
+     */
+    private static class TestKeyedRateLimiter extends KeyedRateLimiter {
+
+        private final List<Runnable> mTriggers = new ArrayList<>();
+        private final List<Long> mDeadlines = new ArrayList<>();
+        private long mUptimeMillis = 0;
+
+        @Override
+        /* pp */ void scheduleTimer(Runnable trigger, long delayMillis) {
+            mTriggers.add(trigger);
+            mDeadlines.add(mUptimeMillis + delayMillis);
+        }
+
+        @Override
+        /* pp */ long getUptimeMillis() {
+            return mUptimeMillis;
+        }
+
+        @Override
+        /* pp */ void dispatch(Runnable runnable) {
+            runnable.run();
+        }
+
+        private void advanceTimeBy(long millis) {
+            long targetUptimeMillis = mUptimeMillis + millis;
+            while (true) {
+                int next = -1;
+                for (int i = 0; i < mDeadlines.size(); i++) {
+                    if (mDeadlines.get(i) <= targetUptimeMillis
+                            && (next == -1 || mDeadlines.get(i) < mDeadlines.get(next))) {
+                        next = i;
+                    }
+                }
+                if (next == -1) {
+                    break;
+                }
+                mUptimeMillis = mDeadlines.remove(next);
+                mTriggers.remove(next).run();
+            }
+            mUptimeMillis = targetUptimeMillis;
+        }
+    }
+
+    private static class AppendingRunnable implements Runnable {
+
+        private final StringBuffer mStringBuffer;
+        private final String mString;
+
+        private AppendingRunnable(StringBuffer stringBuffer, String string) {
+            mStringBuffer = stringBuffer;
+            mString = string;
+        }
+
+        @Override
+        public void run() {
+            mStringBuffer.append(mString);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new LatencyHistogram();
+    }
+
+    @Test
+    public void getPercentile_noRecords_zeroReturned() throws Exception {
+        // Arrange
+        // Act
+        long result = SUT.getPercentileNanos(50);
+        // Assert
+        assertThat(result, is(0L));
+        assertThat(SUT.getCount(), is(0L));
+    }
+
+    @Test
+    public void getPercentile_smallValues_exactValuesReturned() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 4; i++) {
+            SUT.record(i);
+        }
+        // Act
+        // Assert
+        assertThat(SUT.getPercentileNanos(25), is(1L));
+        assertThat(SUT.getPercentileNanos(50), is(2L));
+        assertThat(SUT.getPercentileNanos(100), is(4L));
+        assertThat(SUT.getMaxNanos(), is(4L));
+        assertThat(SUT.getCount(), is(4L));
+    }
+
+    @Test
+    public void getPercentile_largeValues_resultWithinRelativeError() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 1000; i++) {
+            SUT.record(i * 1000L);
+        }
+        // Act
+        long p50 = SUT.getPercentileNanos(50);
+        long p99 = SUT.getPercentileNanos(99);
+        // Assert
+        assertThat(Math.abs(p50 - 500000L) <= 500000L / 8, is(true));
+        assertThat(Math.abs(p99 - 990000L) <= 990000L / 8, is(true));
+        assertThat(SUT.getPercentileNanos(100), is(1000000L));
+        assertThat(SUT.getMeanNanos(), is(500500L));
+    }
+
+    @Test
+    public void record_negativeValue_recordedAsZero() throws Exception {
+        // Arrange
+        // Act
+        SUT.record(-5);
+        // Assert
+        assertThat(SUT.getPercentileNanos(100), is(0L));
+        assertThat(SUT.getCount(), is(1L));
+    }
+
+    @Test
+    public void reset_previousRecordsCleared() throws Exception {
+        // Arrange
+        SUT.record(1000);
+        // Act
+        SUT.reset();
+        // Assert
+        assertThat(SUT.getCount(), is(0L));
+        assertThat(SUT.getMaxNanos(), is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPercentile_invalidPercentile_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        SUT.getPercentileNanos(101);
+        // Assert
+    }
+}
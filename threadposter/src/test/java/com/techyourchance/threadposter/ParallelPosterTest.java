@@ -0,0 +1,215 @@
+package com.techyourchance.threadposter;
+
+import com.techyourchance.threadposter.testdoubles.ThreadPostersTestDouble;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ParallelPosterTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private ThreadPostersTestDouble mThreadPostersTestDouble;
+    private CallbackRecorder<List<String>> mCallbackRecorder;
+
+    private ParallelPoster SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mThreadPostersTestDouble = new ThreadPostersTestDouble();
+        mCallbackRecorder = new CallbackRecorder<>();
+        SUT = new ParallelPoster(
+                mThreadPostersTestDouble.getBackgroundTestDouble(),
+                mThreadPostersTestDouble.getUiTestDouble()
+        );
+    }
+
+    @Test
+    public void postAll_allSucceed_resultsDeliveredOnceInOrder() throws Exception {
+        // Arrange
+        List<Callable<String>> callables = Arrays.asList(
+                returning("a"), returning("b"), returning("c")
+        );
+        // Act
+        SUT.postAll(callables, mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mSuccessCount, is(1));
+        assertThat(mCallbackRecorder.mFailureCount, is(0));
+        assertThat(mCallbackRecorder.mResult, is(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void postAll_emptyList_emptyResultDelivered() throws Exception {
+        // Arrange
+        // Act
+        SUT.postAll(Collections.<Callable<String>>emptyList(), mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mSuccessCount, is(1));
+        assertThat(mCallbackRecorder.mResult.isEmpty(), is(true));
+    }
+
+    @Test
+    public void postAll_multipleFail_failureDeliveredOnce() throws Exception {
+        // Arrange
+        List<Callable<String>> callables = Arrays.asList(
+                returning("a"), throwing(), throwing(), returning("d")
+        );
+        // Act
+        SUT.postAll(callables, mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mSuccessCount, is(0));
+        assertThat(mCallbackRecorder.mFailureCount, is(1));
+    }
+
+    @Test
+    public void postAll_pieceThrowsError_failureDeliveredOnce() throws Exception {
+        // Arrange
+        List<Callable<String>> callables = Arrays.asList(
+                returning("a"), throwingError(), returning("c")
+        );
+        // Act
+        SUT.postAll(callables, mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mSuccessCount, is(0));
+        assertThat(mCallbackRecorder.mFailureCount, is(1));
+        assertThat(mCallbackRecorder.mException instanceof ExecutionException, is(true));
+        assertThat(mCallbackRecorder.mException.getCause() instanceof AssertionError, is(true));
+    }
+
+    @Test
+    public void postAll_interdependentPieces_executedInParallel() throws Exception {
+        // Arrange
+        final Semaphore semaphore = new Semaphore(0);
+        Callable<String> callable1 = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                semaphore.acquireUninterruptibly();
+                return "a";
+            }
+        };
+        Callable<String> callable2 = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                semaphore.release();
+                return "b";
+            }
+        };
+        // Act
+        SUT.postAll(Arrays.asList(callable1, callable2), mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mResult, is(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void postAll_limitedParallelism_allPiecesExecutedWithinLimit() throws Exception {
+        // Arrange
+        final int numOfPieces = 20;
+        final AtomicInteger concurrentPieces = new AtomicInteger(0);
+        final AtomicInteger maxConcurrentPieces = new AtomicInteger(0);
+        List<Callable<String>> callables = new ArrayList<>();
+        for (int i = 0; i < numOfPieces; i++) {
+            callables.add(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    int concurrent = concurrentPieces.incrementAndGet();
+                    int max;
+                    while (concurrent > (max = maxConcurrentPieces.get())) {
+                        maxConcurrentPieces.compareAndSet(max, concurrent);
+                    }
+                    Thread.yield();
+                    concurrentPieces.decrementAndGet();
+                    return "";
+                }
+            });
+        }
+        // Act
+        SUT.postAll(callables, 2, mCallbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallbackRecorder.mResult.size(), is(numOfPieces));
+        assertThat(maxConcurrentPieces.get() <= 2, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void postAll_nonPositiveParallelism_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        SUT.postAll(Arrays.asList(returning("a")), 0, mCallbackRecorder);
+        // Assert
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private Callable<String> returning(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return result;
+            }
+        };
+    }
+
+    private Callable<String> throwing() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new Exception("test exception");
+            }
+        };
+    }
+
+    private Callable<String> throwingError() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new AssertionError("test error");
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class CallbackRecorder<T> implements UiCallback<T> {
+
+        private int mSuccessCount;
+        private int mFailureCount;
+        private T mResult;
+        private Exception mException;
+
+        @Override
+        public void onSuccess(T result) {
+            mSuccessCount++;
+            mResult = result;
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            mFailureCount++;
+            mException = exception;
+        }
+    }
+}
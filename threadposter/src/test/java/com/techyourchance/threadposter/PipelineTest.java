@@ -0,0 +1,169 @@
+package com.techyourchance.threadposter;
+
+import com.techyourchance.threadposter.testdoubles.ThreadPostersTestDouble;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PipelineTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private ThreadPostersTestDouble mThreadPostersTestDouble;
+    private ResultRecorder mResultRecorder;
+
+    private PipelinePoster SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mThreadPostersTestDouble = new ThreadPostersTestDouble();
+        mResultRecorder = new ResultRecorder();
+        SUT = new PipelinePoster(
+                mThreadPostersTestDouble.getBackgroundTestDouble(),
+                mThreadPostersTestDouble.getUiTestDouble()
+        );
+    }
+
+    @Test
+    public void post_backgroundThenUi_resultsPassedBetweenStages() throws Exception {
+        // Arrange
+        // Act
+        SUT.onBackground(returning("a"))
+                .thenBackground(appending("b"))
+                .thenUi(appending("c"))
+                .onError(mResultRecorder.mErrorHandler)
+                .post(mResultRecorder.mConsumer);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mResultRecorder.mResult, is("abc"));
+        assertThat(mResultRecorder.mErrorsCount, is(0));
+    }
+
+    @Test
+    public void post_consecutiveBackgroundStages_fusedOnSameThread() throws Exception {
+        // Arrange
+        final Thread[] threads = new Thread[3];
+        // Act
+        SUT.onBackground(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                threads[0] = Thread.currentThread();
+                return "";
+            }
+        }).thenBackground(new Function<String, String>() {
+            @Override
+            public String apply(String arg) throws Exception {
+                threads[1] = Thread.currentThread();
+                return arg;
+            }
+        }).thenUi(new Function<String, String>() {
+            @Override
+            public String apply(String arg) throws Exception {
+                threads[2] = Thread.currentThread();
+                return arg;
+            }
+        }).post();
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(threads[1], is(threads[0]));
+        assertThat(threads[2] == threads[0], is(false));
+    }
+
+    @Test
+    public void post_stageThrows_subsequentStagesSkippedAndErrorDeliveredOnce() throws Exception {
+        // Arrange
+        // Act
+        SUT.onBackground(returning("a"))
+                .thenBackground(throwing())
+                .thenUi(appending("c"))
+                .onError(mResultRecorder.mErrorHandler)
+                .post(mResultRecorder.mConsumer);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mResultRecorder.mResult, is((String) null));
+        assertThat(mResultRecorder.mErrorsCount, is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void then_stageChainedTwice_exceptionThrown() throws Exception {
+        // Arrange
+        Pipeline<String> pipeline = SUT.onBackground(returning("a"));
+        pipeline.thenBackground(appending("b"));
+        // Act
+        pipeline.thenBackground(appending("c"));
+        // Assert
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void post_postedTwice_exceptionThrown() throws Exception {
+        // Arrange
+        Pipeline<String> pipeline = SUT.onBackground(returning("a"));
+        pipeline.post();
+        // Act
+        pipeline.post();
+        // Assert
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private Callable<String> returning(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return result;
+            }
+        };
+    }
+
+    private Function<String, String> appending(final String suffix) {
+        return new Function<String, String>() {
+            @Override
+            public String apply(String arg) throws Exception {
+                return arg + suffix;
+            }
+        };
+    }
+
+    private Function<String, String> throwing() {
+        return new Function<String, String>() {
+            @Override
+            public String apply(String arg) throws Exception {
+                throw new Exception("test exception");
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class ResultRecorder {
+
+        private String mResult;
+        private int mErrorsCount;
+
+        private final Consumer<String> mConsumer = new Consumer<String>() {
+            @Override
+            public void accept(String result) {
+                mResult = result;
+            }
+        };
+
+        private final Consumer<Exception> mErrorHandler = new Consumer<Exception>() {
+            @Override
+            public void accept(Exception exception) {
+                mErrorsCount++;
+            }
+        };
+    }
+}
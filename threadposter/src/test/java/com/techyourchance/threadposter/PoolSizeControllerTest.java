@@ -0,0 +1,136 @@
+package com.techyourchance.threadposter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PoolSizeControllerTest {
+
+    private static final int MIN_THREADS = 2;
+    private static final int MAX_THREADS = 10;
+    private static final long TARGET_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ThreadPoolExecutor mThreadPoolExecutor;
+    private PosterMetricsRecorder mPosterMetricsRecorder;
+
+    private PoolSizeController SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mThreadPoolExecutor = new ThreadPoolExecutor(
+                MIN_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>()
+        );
+        mPosterMetricsRecorder = new PosterMetricsRecorder();
+        // zero control interval - each started task triggers evaluation
+        SUT = new PoolSizeController(
+                mThreadPoolExecutor, MIN_THREADS, MAX_THREADS, TARGET_WAIT_NANOS, 0, mPosterMetricsRecorder
+        );
+    }
+
+    @After
+    public void teardown() throws Exception {
+        mThreadPoolExecutor.shutdown();
+    }
+
+    @Test
+    public void onTaskStarted_waitAboveTarget_poolGrows() throws Exception {
+        // Arrange
+        // Act
+        SUT.onTaskStarted(null, TARGET_WAIT_NANOS * 2);
+        // Assert
+        assertThat(mThreadPoolExecutor.getCorePoolSize(), is(3));
+    }
+
+    @Test
+    public void onTaskStarted_waitAboveTargetRepeatedly_poolGrowsUpToMax() throws Exception {
+        // Arrange
+        // Act
+        for (int i = 0; i < 20; i++) {
+            SUT.onTaskStarted(null, TARGET_WAIT_NANOS * 2);
+            Thread.sleep(1);
+        }
+        // Assert
+        assertThat(mThreadPoolExecutor.getCorePoolSize(), is(MAX_THREADS));
+    }
+
+    @Test
+    public void onTaskStarted_waitWellBelowTarget_poolShrinksDownToMin() throws Exception {
+        // Arrange
+        mThreadPoolExecutor.setCorePoolSize(MAX_THREADS);
+        // Act
+        for (int i = 0; i < 20; i++) {
+            SUT.onTaskStarted(null, 0);
+            SUT.onTaskCompleted(null, 0, 0);
+            Thread.sleep(1);
+        }
+        // Assert
+        assertThat(mThreadPoolExecutor.getCorePoolSize(), is(MIN_THREADS));
+    }
+
+    @Test
+    public void onTaskStarted_waitAroundTarget_poolSizeUnchanged() throws Exception {
+        // Arrange
+        mThreadPoolExecutor.setCorePoolSize(5);
+        // Act
+        SUT.onTaskStarted(null, TARGET_WAIT_NANOS * 3 / 4);
+        // Assert
+        assertThat(mThreadPoolExecutor.getCorePoolSize(), is(5));
+    }
+
+    @Test
+    public void callbacks_forwardedToDelegate() throws Exception {
+        // Arrange
+        // Act
+        SUT.onTaskPosted(null);
+        SUT.onTaskStarted(null, 10);
+        SUT.onTaskCompleted(null, 10, 20);
+        // Assert
+        assertThat(mPosterMetricsRecorder.getWaitTimeHistogram().getCount(), is(1L));
+        assertThat(mPosterMetricsRecorder.getActiveTasksCount(), is(0));
+    }
+
+    @Test
+    public void starvationCheck_allThreadsBlockedAndTasksQueued_poolGrows() throws Exception {
+        // Arrange
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                1, MAX_THREADS, 60, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>()
+        );
+        SUT = new PoolSizeController(
+                threadPoolExecutor, 1, MAX_THREADS, TARGET_WAIT_NANOS, TimeUnit.MILLISECONDS.toNanos(20), null
+        );
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final CountDownLatch quickTasksLatch = new CountDownLatch(50);
+        Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        Runnable quickTask = new Runnable() {
+            @Override
+            public void run() {
+                quickTasksLatch.countDown();
+            }
+        };
+        // Act
+        threadPoolExecutor.execute(PooledTask.instrument(blockingTask, SUT));
+        for (int i = 0; i < 50; i++) {
+            threadPoolExecutor.execute(PooledTask.instrument(quickTask, SUT));
+        }
+        boolean isCompleted = quickTasksLatch.await(2, TimeUnit.SECONDS);
+        // Assert
+        blockingSemaphore.release();
+        threadPoolExecutor.shutdown();
+        assertThat(isCompleted, is(true));
+        assertThat(threadPoolExecutor.getCorePoolSize() > 1, is(true));
+    }
+}
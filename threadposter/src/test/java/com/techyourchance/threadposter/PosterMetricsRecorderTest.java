@@ -0,0 +1,80 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PosterMetricsRecorderTest {
+
+    private static final String TAG = "tag";
+
+    private PosterMetricsRecorder SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new PosterMetricsRecorder();
+    }
+
+    @Test
+    public void taskLifecycle_pendingAndActiveCountsTracked() throws Exception {
+        // Arrange
+        // Act
+        SUT.onTaskPosted(null);
+        SUT.onTaskPosted(null);
+        // Assert
+        assertThat(SUT.getPendingTasksCount(), is(2));
+        SUT.onTaskStarted(null, 10);
+        SUT.onTaskStarted(null, 10);
+        assertThat(SUT.getPendingTasksCount(), is(0));
+        assertThat(SUT.getActiveTasksCount(), is(2));
+        SUT.onTaskCompleted(null, 10, 20);
+        SUT.onTaskCompleted(null, 10, 20);
+        assertThat(SUT.getActiveTasksCount(), is(0));
+        assertThat(SUT.getPeakActiveTasksCount(), is(2));
+    }
+
+    @Test
+    public void onTaskCompleted_timesRecorded() throws Exception {
+        // Arrange
+        // Act
+        simulateTask(null, 100, 200);
+        // Assert
+        assertThat(SUT.getWaitTimeHistogram().getMaxNanos(), is(100L));
+        assertThat(SUT.getRunTimeHistogram().getMaxNanos(), is(200L));
+    }
+
+    @Test
+    public void onTaskCompleted_tagged_timesRecordedInTotalAndPerTag() throws Exception {
+        // Arrange
+        // Act
+        simulateTask(TAG, 100, 200);
+        simulateTask(null, 300, 400);
+        // Assert
+        assertThat(SUT.getWaitTimeHistogram().getCount(), is(2L));
+        assertThat(SUT.getWaitTimeHistogram(TAG).getCount(), is(1L));
+        assertThat(SUT.getWaitTimeHistogram(TAG).getMaxNanos(), is(100L));
+        assertThat(SUT.getRunTimeHistogram(TAG).getMaxNanos(), is(200L));
+        assertThat(SUT.getTags().size(), is(1));
+    }
+
+    @Test
+    public void getHistogram_unknownTag_nullReturned() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        assertThat(SUT.getWaitTimeHistogram(TAG) == null, is(true));
+        assertThat(SUT.getRunTimeHistogram(TAG) == null, is(true));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private void simulateTask(String tag, long waitNanos, long runNanos) {
+        SUT.onTaskPosted(tag);
+        SUT.onTaskStarted(tag, waitNanos);
+        SUT.onTaskCompleted(tag, waitNanos, runNanos);
+    }
+}
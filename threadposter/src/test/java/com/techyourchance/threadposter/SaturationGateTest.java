@@ -0,0 +1,305 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SaturationGateTest {
+
+    private static final int CAPACITY = 2;
+
+    private final StringBuilder mOrder = new StringBuilder();
+    private final List<Runnable> mRejected = new ArrayList<>();
+
+    private final Consumer<Runnable> mRejectionCallback = new Consumer<Runnable>() {
+        @Override
+        public void accept(Runnable arg) {
+            mRejected.add(arg);
+        }
+    };
+
+    private SaturationGate SUT;
+
+    @Test
+    public void admit_belowCapacity_admittedAndCapacityConsumed() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(CAPACITY, SaturationPolicy.dropNewest());
+        // Act
+        Runnable admitted = SUT.admit(new AppendingRunnable("a"));
+        // Assert
+        assertThat(SUT.getRemainingCapacity(), is(1));
+        assertThat(SUT.isSaturated(), is(false));
+        admitted.run();
+        assertThat(mOrder.toString(), is("a"));
+        assertThat(SUT.getRemainingCapacity(), is(2));
+    }
+
+    @Test
+    public void admit_dropNewestSaturated_newDropped() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(CAPACITY, SaturationPolicy.dropNewest());
+        Runnable admitted1 = SUT.admit(new AppendingRunnable("a"));
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        // Act
+        Runnable admitted3 = SUT.admit(new AppendingRunnable("c"));
+        // Assert
+        assertThat(SUT.isSaturated(), is(true));
+        assertThat(admitted3 == null, is(true));
+        admitted1.run();
+        admitted2.run();
+        assertThat(mOrder.toString(), is("ab"));
+    }
+
+    @Test
+    public void admit_dropOldestSaturated_oldestPendingDiscarded() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(CAPACITY, SaturationPolicy.dropOldest());
+        Runnable admitted1 = SUT.admit(new AppendingRunnable("a"));
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        // Act
+        Runnable admitted3 = SUT.admit(new AppendingRunnable("c"));
+        // Assert
+        admitted1.run();
+        admitted2.run();
+        admitted3.run();
+        assertThat(mOrder.toString(), is("bc"));
+        assertThat(SUT.getRemainingCapacity(), is(2));
+    }
+
+    @Test
+    public void admit_dropOldestSaturatedAllStarted_newDropped() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.dropOldest());
+        final Runnable[] admitted3 = new Runnable[1];
+        Runnable admitted1 = SUT.admit(new Runnable() {
+            @Override
+            public void run() {
+                // Act
+                admitted3[0] = SUT.admit(new AppendingRunnable("b"));
+            }
+        });
+        admitted1.run();
+        // Assert
+        assertThat(admitted3[0] == null, is(true));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+    }
+
+    @Test
+    public void admit_callerRunsSaturated_executedInline() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.callerRuns());
+        Runnable admitted1 = SUT.admit(new AppendingRunnable("a"));
+        // Act
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        // Assert
+        assertThat(admitted2 == null, is(true));
+        assertThat(mOrder.toString(), is("b"));
+        admitted1.run();
+        assertThat(mOrder.toString(), is("ba"));
+    }
+
+    @Test
+    public void admit_rejectSaturated_passedToCallback() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.reject(mRejectionCallback));
+        SUT.admit(new AppendingRunnable("a"));
+        Runnable runnable = new AppendingRunnable("b");
+        // Act
+        Runnable admitted = SUT.admit(runnable);
+        // Assert
+        assertThat(admitted == null, is(true));
+        assertThat(mRejected.size(), is(1));
+        assertThat(mRejected.get(0) == runnable, is(true));
+    }
+
+    @Test
+    public void admit_blockSaturatedCapacityFreedUp_admitted() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.block(5000, mRejectionCallback));
+        final Runnable admitted1 = SUT.admit(new AppendingRunnable("a"));
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                admitted1.run();
+            }
+        }).start();
+        // Act
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        // Assert
+        admitted2.run();
+        assertThat(mOrder.toString(), is("ab"));
+        assertThat(mRejected.size(), is(0));
+    }
+
+    @Test
+    public void admit_blockSaturatedTimeout_passedToCallback() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.block(10, mRejectionCallback));
+        SUT.admit(new AppendingRunnable("a"));
+        // Act
+        Runnable admitted = SUT.admit(new AppendingRunnable("b"));
+        // Assert
+        assertThat(admitted == null, is(true));
+        assertThat(mRejected.size(), is(1));
+    }
+
+    @Test
+    public void admit_runnableThrows_capacityReleased() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.dropNewest());
+        Runnable admitted = SUT.admit(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("expected");
+            }
+        });
+        // Act
+        try {
+            admitted.run();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        // Assert
+        assertThat(SUT.getRemainingCapacity(), is(1));
+    }
+
+    @Test
+    public void admit_taggedRunnable_tagPreserved() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.dropNewest());
+        final List<String> postedTags = new ArrayList<>();
+        PosterMetrics metrics = new PosterMetrics() {
+            @Override
+            public void onTaskPosted(String tag) {
+                postedTags.add(tag);
+            }
+
+            @Override
+            public void onTaskStarted(String tag, long waitNanos) {}
+
+            @Override
+            public void onTaskCompleted(String tag, long waitNanos, long runNanos) {}
+        };
+        // Act
+        Runnable admitted = SUT.admit(new TaggedRunnable("tag", new AppendingRunnable("a")));
+        PooledTask.instrument(admitted, metrics);
+        // Assert
+        assertThat(postedTags.size(), is(1));
+        assertThat(postedTags.get(0), is("tag"));
+    }
+
+    @Test
+    public void admit_pooledTask_notWrapped() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.dropNewest());
+        PooledTask task = PooledTask.obtain(new AppendingRunnable("a"));
+        // Act
+        Runnable admitted = SUT.admit(task);
+        // Assert
+        assertThat(admitted == task, is(true));
+        admitted.run();
+        assertThat(mOrder.toString(), is("a"));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+    }
+
+    @Test
+    public void admit_dropOldestOlderTaskStillPending_oldestPendingDiscardedEvenIfNewerStarted() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(3, SaturationPolicy.dropOldest());
+        Runnable admitted1 = SUT.admit(new AppendingRunnable("a"));
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        Runnable admitted3 = SUT.admit(new AppendingRunnable("c"));
+        admitted3.run();
+        admitted2.run();
+        Runnable admitted4 = SUT.admit(new AppendingRunnable("d"));
+        Runnable admitted5 = SUT.admit(new AppendingRunnable("e"));
+        // Act
+        Runnable admitted6 = SUT.admit(new AppendingRunnable("f"));
+        // Assert
+        admitted1.run();
+        admitted4.run();
+        admitted5.run();
+        admitted6.run();
+        assertThat(mOrder.toString(), is("cbdef"));
+        assertThat(SUT.getRemainingCapacity(), is(3));
+    }
+
+    @Test
+    public void newCancellableTask_cancelledBeforeStart_capacityReleasedRightAway() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(1, SaturationPolicy.dropNewest());
+        CancellableTask cancellableTask = SUT.newCancellableTask(new AppendingRunnable("a"));
+        Runnable admitted = SUT.admit(cancellableTask);
+        // Act
+        boolean isCancelled = cancellableTask.cancel();
+        // Assert
+        assertThat(isCancelled, is(true));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        admitted.run(); // dequeued after the cancellation
+        assertThat(SUT.getRemainingCapacity(), is(0));
+        admitted2.run();
+        assertThat(mOrder.toString(), is("b"));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+    }
+
+    @Test
+    public void newCancellableTask_cancelledAfterCompletion_capacityReleasedOnce() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(2, SaturationPolicy.dropNewest());
+        CancellableTask cancellableTask = SUT.newCancellableTask(new AppendingRunnable("a"));
+        SUT.admit(cancellableTask).run();
+        SUT.admit(new AppendingRunnable("b"));
+        // Act
+        boolean isCancelled = cancellableTask.cancel();
+        // Assert
+        assertThat(isCancelled, is(false));
+        assertThat(mOrder.toString(), is("a"));
+        assertThat(SUT.getRemainingCapacity(), is(1));
+    }
+
+    @Test
+    public void newCancellableTask_dropOldestCancelledBeforeStart_notDiscardedInsteadOfPendingTask() throws Exception {
+        // Arrange
+        SUT = new SaturationGate(2, SaturationPolicy.dropOldest());
+        CancellableTask cancellableTask = SUT.newCancellableTask(new AppendingRunnable("a"));
+        Runnable admitted1 = SUT.admit(cancellableTask);
+        Runnable admitted2 = SUT.admit(new AppendingRunnable("b"));
+        cancellableTask.cancel();
+        // Act
+        Runnable admitted3 = SUT.admit(new AppendingRunnable("c"));
+        // Assert
+        admitted1.run();
+        admitted2.run();
+        admitted3.run();
+        assertThat(mOrder.toString(), is("bc"));
+        assertThat(SUT.getRemainingCapacity(), is(2));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private class AppendingRunnable implements Runnable {
+
+        private final String mString;
+
+        private AppendingRunnable(String string) {
+            mString = string;
+        }
+
+        @Override
+        public void run() {
+            mOrder.append(mString);
+        }
+    }
+}
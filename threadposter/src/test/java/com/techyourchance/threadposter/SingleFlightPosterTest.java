@@ -0,0 +1,183 @@
+package com.techyourchance.threadposter;
+
+import com.techyourchance.threadposter.testdoubles.ThreadPostersTestDouble;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SingleFlightPosterTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private static final String KEY_1 = "key1";
+    private static final String KEY_2 = "key2";
+
+    private ThreadPostersTestDouble mThreadPostersTestDouble;
+    private AtomicInteger mCallsCount;
+
+    private SingleFlightPoster SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mThreadPostersTestDouble = new ThreadPostersTestDouble();
+        mCallsCount = new AtomicInteger(0);
+        SUT = new SingleFlightPoster(
+                mThreadPostersTestDouble.getBackgroundTestDouble(),
+                mThreadPostersTestDouble.getUiTestDouble()
+        );
+    }
+
+    @Test
+    public void postSingleFlight_concurrentSameKey_executedOnceAndResultSharedWithAllCallers() throws Exception {
+        // Arrange
+        List<CallbackRecorder<String>> callbackRecorders = new ArrayList<>();
+        // Act
+        for (int i = 0; i < 5; i++) {
+            CallbackRecorder<String> callbackRecorder = new CallbackRecorder<>();
+            callbackRecorders.add(callbackRecorder);
+            SUT.postSingleFlight(KEY_1, returning("a"), callbackRecorder);
+        }
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallsCount.get(), is(1));
+        for (CallbackRecorder<String> callbackRecorder : callbackRecorders) {
+            assertThat(callbackRecorder.mSuccessCount, is(1));
+            assertThat(callbackRecorder.mResult, is("a"));
+        }
+        assertThat(SUT.getInFlightKeysCount(), is(0));
+    }
+
+    @Test
+    public void postSingleFlight_differentKeys_executedIndependently() throws Exception {
+        // Arrange
+        CallbackRecorder<String> callbackRecorder1 = new CallbackRecorder<>();
+        CallbackRecorder<String> callbackRecorder2 = new CallbackRecorder<>();
+        // Act
+        SUT.postSingleFlight(KEY_1, returning("a"), callbackRecorder1);
+        SUT.postSingleFlight(KEY_2, returning("b"), callbackRecorder2);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallsCount.get(), is(2));
+        assertThat(callbackRecorder1.mResult, is("a"));
+        assertThat(callbackRecorder2.mResult, is("b"));
+    }
+
+    @Test
+    public void postSingleFlight_afterCompletion_executedAgain() throws Exception {
+        // Arrange
+        CallbackRecorder<String> callbackRecorder = new CallbackRecorder<>();
+        SUT.postSingleFlight(KEY_1, returning("a"), callbackRecorder);
+        mThreadPostersTestDouble.join();
+        // Act
+        SUT.postSingleFlight(KEY_1, returning("b"), callbackRecorder);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallsCount.get(), is(2));
+        assertThat(callbackRecorder.mSuccessCount, is(2));
+        assertThat(callbackRecorder.mResult, is("b"));
+    }
+
+    @Test
+    public void postSingleFlight_failure_failureSharedWithAllCallers() throws Exception {
+        // Arrange
+        CallbackRecorder<String> callbackRecorder1 = new CallbackRecorder<>();
+        CallbackRecorder<String> callbackRecorder2 = new CallbackRecorder<>();
+        // Act
+        SUT.postSingleFlight(KEY_1, throwing(), callbackRecorder1);
+        SUT.postSingleFlight(KEY_1, returning("a"), callbackRecorder2);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(mCallsCount.get(), is(1));
+        assertThat(callbackRecorder1.mFailureCount, is(1));
+        assertThat(callbackRecorder2.mFailureCount, is(1));
+        assertThat(callbackRecorder2.mSuccessCount, is(0));
+    }
+
+    @Test
+    public void postSingleFlight_error_failureDeliveredAndKeyReleased() throws Exception {
+        // Arrange
+        CallbackRecorder<String> callbackRecorder1 = new CallbackRecorder<>();
+        CallbackRecorder<String> callbackRecorder2 = new CallbackRecorder<>();
+        SUT.postSingleFlight(KEY_1, throwingError(), callbackRecorder1);
+        mThreadPostersTestDouble.join();
+        // Act
+        SUT.postSingleFlight(KEY_1, returning("a"), callbackRecorder2);
+        // Assert
+        mThreadPostersTestDouble.join();
+        assertThat(callbackRecorder1.mFailureCount, is(1));
+        assertThat(callbackRecorder1.mException instanceof ExecutionException, is(true));
+        assertThat(callbackRecorder2.mSuccessCount, is(1));
+        assertThat(callbackRecorder2.mResult, is("a"));
+        assertThat(SUT.getInFlightKeysCount(), is(0));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private Callable<String> returning(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                mCallsCount.incrementAndGet();
+                return result;
+            }
+        };
+    }
+
+    private Callable<String> throwing() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                mCallsCount.incrementAndGet();
+                throw new Exception("test exception");
+            }
+        };
+    }
+
+    private Callable<String> throwingError() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                mCallsCount.incrementAndGet();
+                throw new AssertionError("test error");
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class CallbackRecorder<T> implements UiCallback<T> {
+
+        private int mSuccessCount;
+        private int mFailureCount;
+        private T mResult;
+        private Exception mException;
+
+        @Override
+        public void onSuccess(T result) {
+            mSuccessCount++;
+            mResult = result;
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            mFailureCount++;
+            mException = exception;
+        }
+    }
+}
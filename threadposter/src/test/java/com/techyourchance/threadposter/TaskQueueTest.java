@@ -0,0 +1,175 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class TaskQueueTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private TaskQueue SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new TaskQueue();
+    }
+
+    @Test
+    public void poll_emptyQueue_nullReturned() throws Exception {
+        // Arrange
+        // Act
+        PooledTask result = SUT.poll();
+        // Assert
+        assertThat(result == null, is(true));
+        assertThat(SUT.isEmpty(), is(true));
+    }
+
+    @Test
+    public void poll_multipleTasks_returnedInInsertionOrder() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        Consumer<String> consumer = newAppendingConsumer(order);
+        SUT.add(PooledTask.obtain(consumer, "a"));
+        SUT.add(PooledTask.obtain(consumer, "b"));
+        SUT.add(PooledTask.obtain(consumer, "c"));
+        // Act
+        PooledTask task;
+        while ((task = SUT.poll()) != null) {
+            task.run();
+        }
+        // Assert
+        assertThat(order.toString(), is("abc"));
+        assertThat(SUT.isEmpty(), is(true));
+    }
+
+    @Test
+    public void poll_interleavedWithAdd_returnedInInsertionOrder() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        Consumer<String> consumer = newAppendingConsumer(order);
+        // Act
+        SUT.add(PooledTask.obtain(consumer, "a"));
+        SUT.poll().run();
+        SUT.add(PooledTask.obtain(consumer, "b"));
+        SUT.add(PooledTask.obtain(consumer, "c"));
+        SUT.poll().run();
+        SUT.add(PooledTask.obtain(consumer, "d"));
+        SUT.poll().run();
+        SUT.poll().run();
+        // Assert
+        assertThat(order.toString(), is("abcd"));
+        assertThat(SUT.poll() == null, is(true));
+    }
+
+    @Test
+    public void add_multipleProducers_allTasksPolledInPerProducerOrder() throws Exception {
+        // Arrange
+        final int numOfProducers = 4;
+        final int numOfTasksPerProducer = 10000;
+        final int[] lastPolledIndex = new int[numOfProducers];
+        BiConsumer<Integer, Integer> biConsumer = new BiConsumer<Integer, Integer>() {
+            @Override
+            public void accept(Integer producer, Integer index) {
+                if (lastPolledIndex[producer] != index - 1) {
+                    throw new AssertionError("out of order task of producer " + producer);
+                }
+                lastPolledIndex[producer] = index;
+            }
+        };
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        for (int i = 0; i < numOfProducers; i++) {
+            lastPolledIndex[i] = -1;
+            startProducer(i, numOfTasksPerProducer, biConsumer, startLatch);
+        }
+        // Act
+        startLatch.countDown();
+        int numOfPolledTasks = 0;
+        PooledTask task;
+        while (numOfPolledTasks < numOfProducers * numOfTasksPerProducer) {
+            if ((task = SUT.poll()) != null) {
+                task.run();
+                numOfPolledTasks++;
+            }
+        }
+        // Assert
+        for (int i = 0; i < numOfProducers; i++) {
+            assertThat(lastPolledIndex[i], is(numOfTasksPerProducer - 1));
+        }
+        assertThat(SUT.isEmpty(), is(true));
+    }
+
+    @Test
+    public void addAndPoll_steadyState_noAllocations() throws Exception {
+        // Arrange
+        final int numOfTasks = 10000;
+        final Object arg = new Object();
+        Consumer<Object> consumer = new Consumer<Object>() {
+            @Override
+            public void accept(Object arg) {
+                // no-op
+            }
+        };
+        for (int i = 0; i < numOfTasks; i++) { // warm up
+            SUT.add(PooledTask.obtain(consumer, arg));
+            SUT.poll().run();
+        }
+        // Act
+        long allocatedBytesBefore = getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < numOfTasks; i++) {
+            SUT.add(PooledTask.obtain(consumer, arg));
+            SUT.add(PooledTask.obtain(consumer, arg));
+            SUT.poll().run();
+            SUT.poll().run();
+        }
+        long allocatedBytes = getCurrentThreadAllocatedBytes() - allocatedBytesBefore;
+        // Assert
+        // less than one byte per task means that neither the tasks nor the queue allocate
+        assertThat(allocatedBytes < numOfTasks, is(true));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private Consumer<String> newAppendingConsumer(final StringBuffer stringBuffer) {
+        return new Consumer<String>() {
+            @Override
+            public void accept(String arg) {
+                stringBuffer.append(arg);
+            }
+        };
+    }
+
+    private void startProducer(final int producer,
+                               final int numOfTasks,
+                               final BiConsumer<Integer, Integer> biConsumer,
+                               final CountDownLatch startLatch) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < numOfTasks; i++) {
+                    SUT.add(PooledTask.obtain(biConsumer, producer, i));
+                }
+            }
+        }).start();
+    }
+
+    private long getCurrentThreadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,166 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class TimingWheelTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private TimingWheel SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new TimingWheel();
+    }
+
+    @Test
+    public void schedule_triggerInvokedNotBeforeDelay() throws Exception {
+        // Arrange
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long startNanos = System.nanoTime();
+        final AtomicInteger elapsedMillis = new AtomicInteger(0);
+        // Act
+        SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                elapsedMillis.set((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                latch.countDown();
+            }
+        }, 50);
+        // Assert
+        latch.await();
+        assertThat(elapsedMillis.get() >= 50, is(true));
+    }
+
+    @Test
+    public void schedule_delayLongerThanWheelRound_triggerInvokedNotBeforeDelay() throws Exception {
+        // Arrange
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long startNanos = System.nanoTime();
+        final AtomicInteger elapsedMillis = new AtomicInteger(0);
+        // Act
+        SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                elapsedMillis.set((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                latch.countDown();
+            }
+        }, 3000);
+        // Assert
+        latch.await();
+        assertThat(elapsedMillis.get() >= 3000, is(true));
+    }
+
+    @Test
+    public void schedule_cancelled_triggerNotInvoked() throws Exception {
+        // Arrange
+        final AtomicInteger triggersCount = new AtomicInteger(0);
+        final CountDownLatch latch = new CountDownLatch(1);
+        // Act
+        Cancellable cancellable = SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                triggersCount.incrementAndGet();
+            }
+        }, 20);
+        boolean result = cancellable.cancel();
+        SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 50);
+        // Assert
+        latch.await();
+        assertThat(result, is(true));
+        assertThat(cancellable.isCancelled(), is(true));
+        assertThat(triggersCount.get(), is(0));
+    }
+
+    @Test
+    public void schedule_cancelAfterTrigger_falseReturned() throws Exception {
+        // Arrange
+        final CountDownLatch latch = new CountDownLatch(1);
+        // Act
+        Cancellable cancellable = SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 0);
+        latch.await();
+        // Assert
+        assertThat(cancellable.cancel(), is(false));
+        assertThat(cancellable.isCancelled(), is(false));
+    }
+
+    @Test
+    public void schedule_manyTimers_allTriggersInvoked() throws Exception {
+        // Arrange
+        final int numOfTimers = 20000;
+        final CountDownLatch latch = new CountDownLatch(numOfTimers);
+        Runnable trigger = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        // Act
+        for (int i = 0; i < numOfTimers; i++) {
+            SUT.schedule(trigger, i % 200);
+        }
+        // Assert
+        latch.await();
+    }
+
+    @Test
+    public void schedule_triggerThrows_otherTriggersInvoked() throws Exception {
+        // Arrange
+        final CountDownLatch latch = new CountDownLatch(2);
+        Runnable trigger = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        // Act
+        SUT.schedule(trigger, 10);
+        SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("test exception");
+            }
+        }, 20);
+        SUT.schedule(trigger, 50);
+        // Assert
+        latch.await();
+    }
+
+    @Test
+    public void schedule_sparseTimer_timerThreadDoesNotWakeUpOnEachTick() throws Exception {
+        // Arrange
+        final CountDownLatch latch = new CountDownLatch(1);
+        // Act
+        SUT.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 1000);
+        latch.await();
+        // Assert
+        // waking up on each tick would amount to about 100 wake-ups
+        assertThat(SUT.getWakeUpsCount() < 10, is(true));
+    }
+}
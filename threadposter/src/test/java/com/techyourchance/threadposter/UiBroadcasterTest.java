@@ -0,0 +1,226 @@
+package com.techyourchance.threadposter;
+
+import com.techyourchance.threadposter.testdoubles.DeterministicThreadPostersTestDouble;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class UiBroadcasterTest {
+
+    private static final Consumer<Listener> NOTIFY_PING = new Consumer<Listener>() {
+        @Override
+        public void accept(Listener listener) {
+            listener.onPing();
+        }
+    };
+
+    private static final BiConsumer<Listener, String> NOTIFY_EVENT = new BiConsumer<Listener, String>() {
+        @Override
+        public void accept(Listener listener, String event) {
+            listener.onEvent(event);
+        }
+    };
+
+    private static final BiConsumer<Listener, String> NOTIFY_OTHER_EVENT = new BiConsumer<Listener, String>() {
+        @Override
+        public void accept(Listener listener, String event) {
+            listener.onEvent("other:" + event);
+        }
+    };
+
+    private DeterministicThreadPostersTestDouble mThreadPostersTestDouble;
+    private StringBuilder mOrder;
+    private Listener mListener1;
+    private Listener mListener2;
+
+    private UiBroadcaster<Listener> SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mThreadPostersTestDouble = new DeterministicThreadPostersTestDouble();
+        mOrder = new StringBuilder();
+        mListener1 = new Listener("1");
+        mListener2 = new Listener("2");
+        SUT = new UiBroadcaster<>(mThreadPostersTestDouble.getUiTestDouble());
+    }
+
+    @Test
+    public void broadcast_multipleListeners_allNotifiedInRegistrationOrderOnUiThread() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.registerListener(mListener2);
+        // Act
+        SUT.broadcast(NOTIFY_EVENT, "a");
+        String orderBeforeRunUntilIdle = mOrder.toString();
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(orderBeforeRunUntilIdle, is(""));
+        assertThat(mOrder.toString(), is("1:a;2:a;"));
+    }
+
+    @Test
+    public void broadcast_withoutEvent_allListenersNotified() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.registerListener(mListener2);
+        // Act
+        SUT.broadcast(NOTIFY_PING);
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:ping;2:ping;"));
+    }
+
+    @Test
+    public void broadcast_multipleEvents_allDeliveredInOrder() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        // Act
+        SUT.broadcast(NOTIFY_EVENT, "a");
+        SUT.broadcast(NOTIFY_EVENT, "b");
+        SUT.broadcast(NOTIFY_PING);
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:a;1:b;1:ping;"));
+    }
+
+    @Test
+    public void registerListener_alreadyRegistered_notifiedOnce() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.registerListener(mListener1);
+        // Act
+        SUT.broadcast(NOTIFY_EVENT, "a");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(SUT.getListenersCount(), is(1));
+        assertThat(mOrder.toString(), is("1:a;"));
+    }
+
+    @Test
+    public void unregisterListener_beforeDelivery_notNotified() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.registerListener(mListener2);
+        SUT.broadcast(NOTIFY_EVENT, "a");
+        // Act
+        SUT.unregisterListener(mListener1);
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(SUT.getListenersCount(), is(1));
+        assertThat(mOrder.toString(), is("2:a;"));
+    }
+
+    @Test
+    public void unregisterListener_duringDelivery_currentEventDeliveredToAll() throws Exception {
+        // Arrange
+        SUT.registerListener(new Listener("0") {
+            @Override
+            void onEvent(String event) {
+                super.onEvent(event);
+                SUT.unregisterListener(mListener2);
+            }
+        });
+        SUT.registerListener(mListener2);
+        // Act
+        SUT.broadcast(NOTIFY_EVENT, "a");
+        SUT.broadcast(NOTIFY_EVENT, "b");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("0:a;2:a;0:b;"));
+    }
+
+    @Test
+    public void unregisterListener_notRegistered_noEffect() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        // Act
+        SUT.unregisterListener(mListener2);
+        // Assert
+        assertThat(SUT.getListenersCount(), is(1));
+    }
+
+    @Test
+    public void broadcastConflated_burstBeforeDelivery_onlyLatestEventDelivered() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.registerListener(mListener2);
+        // Act
+        SUT.broadcastConflated(NOTIFY_EVENT, "a");
+        SUT.broadcastConflated(NOTIFY_EVENT, "b");
+        SUT.broadcastConflated(NOTIFY_EVENT, "c");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:c;2:c;"));
+    }
+
+    @Test
+    public void broadcastConflated_afterDelivery_newEventDelivered() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        SUT.broadcastConflated(NOTIFY_EVENT, "a");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Act
+        SUT.broadcastConflated(NOTIFY_EVENT, "b");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:a;1:b;"));
+    }
+
+    @Test
+    public void broadcastConflated_differentNotifiers_notMerged() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        // Act
+        SUT.broadcastConflated(NOTIFY_EVENT, "a");
+        SUT.broadcastConflated(NOTIFY_OTHER_EVENT, "b");
+        SUT.broadcastConflated(NOTIFY_EVENT, "c");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:c;1:other:b;"));
+    }
+
+    @Test
+    public void broadcastConflated_mixedWithRegularBroadcasts_mergedEventDeliveredAtEarliestPosition() throws Exception {
+        // Arrange
+        SUT.registerListener(mListener1);
+        // Act
+        SUT.broadcastConflated(NOTIFY_EVENT, "a");
+        SUT.broadcast(NOTIFY_PING);
+        SUT.broadcastConflated(NOTIFY_EVENT, "b");
+        mThreadPostersTestDouble.runUntilIdle();
+        // Assert
+        assertThat(mOrder.toString(), is("1:b;1:ping;"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registerListener_null_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        SUT.registerListener(null);
+        // Assert
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private class Listener {
+
+        private final String mName;
+
+        private Listener(String name) {
+            mName = name;
+        }
+
+        void onEvent(String event) {
+            mOrder.append(mName).append(":").append(event).append(";");
+        }
+
+        void onPing() {
+            mOrder.append(mName).append(":ping;");
+        }
+    }
+}
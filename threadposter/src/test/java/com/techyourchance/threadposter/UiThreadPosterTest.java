@@ -6,9 +6,17 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -25,6 +33,11 @@ public class UiThreadPosterTest {
             protected Handler getMainHandler() {
                 return mUiHandlerMock;
             }
+
+            @Override
+            protected long getUptimeMillis() {
+                return 0;
+            }
         };
     }
 
@@ -45,4 +58,518 @@ public class UiThreadPosterTest {
         verify(mUiHandlerMock, times(1)).post(ac.capture());
         assertThat(ac.getValue(), is(runnable));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void executeBatching_multipleRunnables_singleMessageScheduled() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        SUT = newBatchingUiThreadPoster(10);
+        // Act
+        SUT.post(new AppendingRunnable(order, "a"));
+        SUT.post(new AppendingRunnable(order, "b"));
+        SUT.post(new AppendingRunnable(order, "c"));
+        // Assert
+        verify(mUiHandlerMock, times(1)).post(any(Runnable.class));
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void executeBatching_dispatch_allRunnablesExecutedInOrder() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        SUT = newBatchingUiThreadPoster(10);
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(new AppendingRunnable(order, "a"));
+        SUT.post(new AppendingRunnable(order, "b"));
+        SUT.post(new AppendingRunnable(order, "c"));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("abc"));
+    }
+
+    @Test
+    public void executeBatching_postAfterDispatch_newMessageScheduled() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        SUT = newBatchingUiThreadPoster(10);
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(new AppendingRunnable(order, "a"));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        SUT.post(new AppendingRunnable(order, "b"));
+        // Assert
+        verify(mUiHandlerMock, times(2)).post(any(Runnable.class));
+    }
+
+    @Test
+    public void executeBatching_moreRunnablesThanBudget_remainderExecutedOnNextDispatch() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        SUT = newBatchingUiThreadPoster(2);
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(new AppendingRunnable(order, "a"));
+        SUT.post(new AppendingRunnable(order, "b"));
+        SUT.post(new AppendingRunnable(order, "c"));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("ab"));
+        verify(mUiHandlerMock, times(2)).post(ac.capture());
+        ac.getValue().run();
+        assertThat(order.toString(), is("abc"));
+    }
+
+    @Test
+    public void executeConsumer_delegatesToUiHandlerWithArgument() throws Exception {
+        // Arrange
+        final StringBuffer result = new StringBuffer();
+        Consumer<String> consumer = new Consumer<String>() {
+            @Override
+            public void accept(String arg) {
+                result.append(arg);
+            }
+        };
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(consumer, "a");
+        // Assert
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        assertThat(result.toString(), is("a"));
+    }
+
+    @Test
+    public void executeBatching_consumersAndRunnables_allExecutedInOrder() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        SUT = newBatchingUiThreadPoster(10);
+        BiConsumer<String, String> biConsumer = new BiConsumer<String, String>() {
+            @Override
+            public void accept(String arg1, String arg2) {
+                order.append(arg1).append(arg2);
+            }
+        };
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(new AppendingRunnable(order, "a"));
+        SUT.post(biConsumer, "b", "c");
+        SUT.post(new AppendingRunnable(order, "d"));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("abcd"));
+    }
+
+    @Test
+    public void execute_withMetrics_queueDepthAndTimesRecorded() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        final PosterMetricsRecorder metricsRecorder = new PosterMetricsRecorder();
+        SUT = new UiThreadPoster(new UiThreadPoster.Builder().setMetrics(metricsRecorder)) {
+            @Override
+            protected Handler getMainHandler() {
+                return mUiHandlerMock;
+            }
+        };
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.post(new TaggedRunnable("tag", new AppendingRunnable(order, "a")));
+        SUT.post(new AppendingRunnable(order, "b"));
+        // Assert
+        assertThat(metricsRecorder.getPendingTasksCount(), is(2));
+        verify(mUiHandlerMock, times(2)).post(ac.capture());
+        for (Runnable runnable : ac.getAllValues()) {
+            runnable.run();
+        }
+        assertThat(order.toString(), is("ab"));
+        assertThat(metricsRecorder.getPendingTasksCount(), is(0));
+        assertThat(metricsRecorder.getRunTimeHistogram().getCount(), is(2L));
+        assertThat(metricsRecorder.getRunTimeHistogram("tag").getCount(), is(1L));
+    }
+
+    @Test
+    public void executeCancellable_cancelledBeforeStart_removedFromUiHandlerAndNotExecuted() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        Cancellable cancellable = SUT.postCancellable(new AppendingRunnable(order, "a"));
+        boolean result = cancellable.cancel();
+        // Assert
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        verify(mUiHandlerMock, times(1)).removeCallbacks(ac.getValue());
+        ac.getValue().run(); // in case the removal raced with the dispatch
+        assertThat(result, is(true));
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void executeCancellable_notCancelled_executed() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        Cancellable cancellable = SUT.postCancellable(new AppendingRunnable(order, "a"));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("a"));
+        assertThat(cancellable.cancel(), is(false));
+    }
+
+    @Test
+    public void executeDelayed_delegatesToUiHandlerWithDelay() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.postDelayed(new AppendingRunnable(order, "a"), 100);
+        // Assert
+        verify(mUiHandlerMock, times(1)).postDelayed(ac.capture(), eq(100L));
+        ac.getValue().run();
+        assertThat(order.toString(), is("a"));
+    }
+
+    @Test
+    public void executeDelayed_cancelled_removedFromUiHandlerAndNotExecuted() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        Cancellable cancellable = SUT.postDelayed(new AppendingRunnable(order, "a"), 100);
+        boolean result = cancellable.cancel();
+        // Assert
+        verify(mUiHandlerMock, times(1)).postDelayed(ac.capture(), eq(100L));
+        verify(mUiHandlerMock, times(1)).removeCallbacks(ac.getValue());
+        ac.getValue().run(); // in case the removal raced with the dispatch
+        assertThat(result, is(true));
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void scheduleTimer_cancelAfterExpiration_falseReturned() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        Cancellable timer = SUT.scheduleTimer(new AppendingRunnable(order, "a"), 100);
+        verify(mUiHandlerMock, times(1)).postDelayed(ac.capture(), eq(100L));
+        ac.getValue().run();
+        // Act
+        boolean result = timer.cancel();
+        // Assert
+        assertThat(result, is(false));
+        assertThat(timer.isCancelled(), is(false));
+        assertThat(order.toString(), is("a"));
+    }
+
+    @Test
+    public void scheduleTimer_cancelTwice_trueReturnedOnlyOnce() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        Cancellable timer = SUT.scheduleTimer(new AppendingRunnable(order, "a"), 100);
+        // Act
+        boolean result1 = timer.cancel();
+        boolean result2 = timer.cancel();
+        // Assert
+        assertThat(result1, is(true));
+        assertThat(result2, is(false));
+        assertThat(timer.isCancelled(), is(true));
+        verify(mUiHandlerMock, times(1)).postDelayed(ac.capture(), eq(100L));
+        ac.getValue().run(); // in case the removal raced with the dispatch
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void executeAtFixedRate_rescheduledAfterEachExecution() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.postAtFixedRate(new AppendingRunnable(order, "a"), 0, 100);
+        verify(mUiHandlerMock, times(1)).postDelayed(ac.capture(), anyLong());
+        ac.getValue().run();
+        verify(mUiHandlerMock, times(2)).postDelayed(ac.capture(), anyLong());
+        ac.getValue().run();
+        // Assert
+        verify(mUiHandlerMock, times(3)).postDelayed(any(Runnable.class), anyLong());
+        assertThat(order.toString(), is("aa"));
+    }
+
+    @Test
+    public void executeLazy_handlerConstructedOnFirstPost() throws Exception {
+        // Arrange
+        final int[] handlersCount = new int[1];
+        SUT = new UiThreadPoster(new UiThreadPoster.Builder().setLazyInitialization(true)) {
+            @Override
+            protected Handler getMainHandler() {
+                handlersCount[0]++;
+                return mUiHandlerMock;
+            }
+        };
+        boolean isInitializedBeforePost = SUT.isInitialized();
+        // Act
+        SUT.post(new AppendingRunnable(new StringBuffer(), "a"));
+        SUT.post(new AppendingRunnable(new StringBuffer(), "b"));
+        // Assert
+        assertThat(isInitializedBeforePost, is(false));
+        assertThat(SUT.isInitialized(), is(true));
+        assertThat(handlersCount[0], is(1));
+        verify(mUiHandlerMock, times(2)).post(any(Runnable.class));
+    }
+
+    @Test
+    public void prestart_lazy_handlerConstructed() throws Exception {
+        // Arrange
+        SUT = new UiThreadPoster(new UiThreadPoster.Builder().setLazyInitialization(true)) {
+            @Override
+            protected Handler getMainHandler() {
+                return mUiHandlerMock;
+            }
+        };
+        // Act
+        SUT.prestart();
+        // Assert
+        assertThat(SUT.isInitialized(), is(true));
+    }
+
+    @Test
+    public void executeSliced_multipleRunnables_singleMessageScheduled() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        // Act
+        SUT.postSliced(new AppendingRunnable(order, "a"));
+        SUT.postSliced(new AppendingRunnable(order, "b"));
+        // Assert
+        verify(mUiHandlerMock, times(1)).post(any(Runnable.class));
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void executeSliced_budgetRunsOut_remainingRunnablesExecutedOnNextLooperTurns() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        final FakeTicker fakeTicker = new FakeTicker();
+        SUT = newSlicingUiThreadPoster(10, fakeTicker);
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        for (String string : new String[] {"a", "b", "c", "d", "e"}) {
+            SUT.postSliced(new TimeConsumingRunnable(order, string, fakeTicker, 4));
+        }
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        // Act
+        ac.getValue().run();
+        String orderAfterFirstTurn = order.toString();
+        ac.getValue().run();
+        // Assert
+        assertThat(orderAfterFirstTurn, is("abc"));
+        assertThat(order.toString(), is("abcde"));
+        verify(mUiHandlerMock, times(2)).post(any(Runnable.class));
+    }
+
+    @Test
+    public void executeSliced_runnableExceedsBudget_singleRunnableExecutedPerLooperTurn() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        final FakeTicker fakeTicker = new FakeTicker();
+        SUT = newSlicingUiThreadPoster(10, fakeTicker);
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        SUT.postSliced(new TimeConsumingRunnable(order, "a", fakeTicker, 20));
+        SUT.postSliced(new TimeConsumingRunnable(order, "b", fakeTicker, 20));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        // Act
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("a"));
+        verify(mUiHandlerMock, times(2)).post(any(Runnable.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSliceBudget_nonPositive_exceptionThrown() throws Exception {
+        // Arrange
+        // Act
+        new UiThreadPoster.Builder().setSliceBudget(0);
+        // Assert
+    }
+
+    @Test
+    public void executeUrgent_multipleRunnables_singleFrontOfQueueMessageExecutesAllInOrder() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.postUrgent(new AppendingRunnable(order, "a"));
+        SUT.postUrgent(new AppendingRunnable(order, "b"));
+        SUT.postUrgent(new AppendingRunnable(order, "c"));
+        verify(mUiHandlerMock, times(1)).postAtFrontOfQueue(ac.capture());
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("abc"));
+        verify(mUiHandlerMock, never()).post(any(Runnable.class));
+    }
+
+    @Test
+    public void executeUrgent_postAfterDispatch_newMessageScheduled() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        // Act
+        SUT.postUrgent(new AppendingRunnable(order, "a"));
+        verify(mUiHandlerMock, times(1)).postAtFrontOfQueue(ac.capture());
+        ac.getValue().run();
+        SUT.postUrgent(new AppendingRunnable(order, "b"));
+        // Assert
+        verify(mUiHandlerMock, times(2)).postAtFrontOfQueue(any(Runnable.class));
+    }
+
+    @Test
+    public void executeUrgent_runnableRepostsItself_dispatchReturnsAndRepostDeferredToRegularMessage() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        ArgumentCaptor<Runnable> ac = ArgumentCaptor.forClass(Runnable.class);
+        SUT.postUrgent(new Runnable() {
+            @Override
+            public void run() {
+                order.append("a");
+                SUT.postUrgent(this);
+            }
+        });
+        verify(mUiHandlerMock, times(1)).postAtFrontOfQueue(ac.capture());
+        // Act
+        ac.getValue().run();
+        // Assert
+        assertThat(order.toString(), is("a"));
+        verify(mUiHandlerMock, times(1)).postAtFrontOfQueue(any(Runnable.class));
+        verify(mUiHandlerMock, times(1)).post(ac.capture());
+        ac.getValue().run();
+        assertThat(order.toString(), is("aa"));
+    }
+
+    @Test
+    public void executeIdle_multipleRunnables_singleRunnableExecutedPerIdlePeriod() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        final List<Runnable> idleRunnables = new ArrayList<>();
+        SUT = newIdleCapturingUiThreadPoster(idleRunnables);
+        SUT.postIdle(new AppendingRunnable(order, "a"));
+        SUT.postIdle(new AppendingRunnable(order, "b"));
+        assertThat(idleRunnables.size(), is(1));
+        // Act
+        idleRunnables.get(0).run();
+        String orderAfterFirstIdlePeriod = order.toString();
+        idleRunnables.get(1).run();
+        // Assert
+        assertThat(orderAfterFirstIdlePeriod, is("a"));
+        assertThat(order.toString(), is("ab"));
+        assertThat(idleRunnables.size(), is(2));
+        verify(mUiHandlerMock, never()).post(any(Runnable.class));
+    }
+
+    @Test
+    public void executeIdle_postAfterDispatch_newIdleDispatchScheduled() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        final List<Runnable> idleRunnables = new ArrayList<>();
+        SUT = newIdleCapturingUiThreadPoster(idleRunnables);
+        // Act
+        SUT.postIdle(new AppendingRunnable(order, "a"));
+        idleRunnables.get(0).run();
+        SUT.postIdle(new AppendingRunnable(order, "b"));
+        // Assert
+        assertThat(idleRunnables.size(), is(2));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper methods
+    // ---------------------------------------------------------------------------------------------
+
+    private UiThreadPoster newBatchingUiThreadPoster(int maxRunnablesPerBatch) {
+        return new UiThreadPoster(new UiThreadPoster.Builder().setBatching(maxRunnablesPerBatch)) {
+            @Override
+            protected Handler getMainHandler() {
+                return mUiHandlerMock;
+            }
+        };
+    }
+
+    private UiThreadPoster newSlicingUiThreadPoster(long sliceBudgetMillis, Ticker ticker) {
+        return new UiThreadPoster(
+                new UiThreadPoster.Builder().setSliceBudget(sliceBudgetMillis).setTicker(ticker)
+        ) {
+            @Override
+            protected Handler getMainHandler() {
+                return mUiHandlerMock;
+            }
+        };
+    }
+
+    private UiThreadPoster newIdleCapturingUiThreadPoster(final List<Runnable> idleRunnables) {
+        return new UiThreadPoster() {
+            @Override
+            protected Handler getMainHandler() {
+                return mUiHandlerMock;
+            }
+
+            @Override
+            protected void executeWhenIdle(Runnable runnable) {
+                // IdleHandler requires a real Looper
+                idleRunnables.add(runnable);
+            }
+        };
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class AppendingRunnable implements Runnable {
+
+        private final StringBuffer mStringBuffer;
+        private final String mString;
+
+        private AppendingRunnable(StringBuffer stringBuffer, String string) {
+            mStringBuffer = stringBuffer;
+            mString = string;
+        }
+
+        @Override
+        public void run() {
+            mStringBuffer.append(mString);
+        }
+    }
+
+    private static class FakeTicker implements Ticker {
+
+        private long mNanos;
+
+        private void advanceBy(long millis) {
+            mNanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long read() {
+            return mNanos;
+        }
+    }
+
+    private static class TimeConsumingRunnable extends AppendingRunnable {
+
+        private final FakeTicker mFakeTicker;
+        private final long mDurationMillis;
+
+        private TimeConsumingRunnable(StringBuffer stringBuffer, String string, FakeTicker fakeTicker, long durationMillis) {
+            super(stringBuffer, string);
+            mFakeTicker = fakeTicker;
+            mDurationMillis = durationMillis;
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            mFakeTicker.advanceBy(mDurationMillis);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class WorkStealingExecutorTest {
+
+    private static final int NUM_OF_WORKERS = 4;
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(10);
+
+    private WorkStealingExecutor SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new WorkStealingExecutor(NUM_OF_WORKERS, KEEP_ALIVE_NANOS, new QuietThreadFactory());
+    }
+
+    @Test
+    public void execute_concurrentProducers_allExecuted() throws Exception {
+        // Arrange
+        final int numOfProducers = 8;
+        final int postsPerProducer = 10000;
+        final CountDownLatch completionLatch = new CountDownLatch(numOfProducers * postsPerProducer);
+        final Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                completionLatch.countDown();
+            }
+        };
+        // Act
+        for (int i = 0; i < numOfProducers; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < postsPerProducer; j++) {
+                        SUT.execute(runnable);
+                    }
+                }
+            }).start();
+        }
+        // Assert
+        completionLatch.await();
+        assertThat(SUT.getPeakAliveWorkersCount() <= NUM_OF_WORKERS, is(true));
+    }
+
+    @Test
+    public void execute_subtasksSpawnedFromWorkers_allExecuted() throws Exception {
+        // Arrange
+        final int numOfRoots = 100;
+        final int subtasksPerRoot = 100;
+        final CountDownLatch completionLatch = new CountDownLatch(numOfRoots * subtasksPerRoot);
+        final Runnable subtask = new Runnable() {
+            @Override
+            public void run() {
+                completionLatch.countDown();
+            }
+        };
+        Runnable root = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < subtasksPerRoot; i++) {
+                    SUT.execute(subtask);
+                }
+            }
+        };
+        // Act
+        for (int i = 0; i < numOfRoots; i++) {
+            SUT.execute(root);
+        }
+        // Assert
+        completionLatch.await();
+    }
+
+    @Test
+    public void execute_subtasksSpawnedByBlockedWorker_stolenByOtherWorkers() throws Exception {
+        // Arrange
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        final CountDownLatch subtasksLatch = new CountDownLatch(NUM_OF_WORKERS);
+        final Runnable subtask = new Runnable() {
+            @Override
+            public void run() {
+                subtasksLatch.countDown();
+            }
+        };
+        Runnable root = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < NUM_OF_WORKERS; i++) {
+                    SUT.execute(subtask);
+                }
+                // the subtasks are in the local queue of this worker, which doesn't process it
+                blockingSemaphore.acquireUninterruptibly();
+            }
+        };
+        // Act
+        SUT.execute(root);
+        // Assert
+        subtasksLatch.await();
+        blockingSemaphore.release();
+    }
+
+    @Test
+    public void execute_runnableThrows_subsequentRunnablesExecuted() throws Exception {
+        // Arrange
+        final CountDownLatch completionLatch = new CountDownLatch(NUM_OF_WORKERS * 2);
+        Runnable throwingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("expected");
+            }
+        };
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                completionLatch.countDown();
+            }
+        };
+        // Act
+        for (int i = 0; i < NUM_OF_WORKERS * 2; i++) {
+            SUT.execute(throwingRunnable);
+            SUT.execute(runnable);
+        }
+        // Assert
+        completionLatch.await();
+    }
+
+    @Test
+    public void execute_workersIdleLongerThanKeepAlive_workersTerminatedAndRestartedOnDemand() throws Exception {
+        // Arrange
+        final Semaphore completionSemaphore = new Semaphore(0);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                completionSemaphore.release();
+            }
+        };
+        SUT.execute(runnable);
+        completionSemaphore.acquireUninterruptibly();
+        // Act
+        while (SUT.getAliveWorkersCount() > 0) {
+            Thread.sleep(10);
+        }
+        SUT.execute(runnable);
+        // Assert
+        completionSemaphore.acquireUninterruptibly();
+    }
+
+    @Test
+    public void getAliveWorkersCount_noWorkPosted_zero() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        assertThat(SUT.getAliveWorkersCount(), is(0));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Doesn't print the exceptions thrown on purpose by the tests
+     */
+    private static class QuietThreadFactory implements ThreadFactory {
+
+        private final ThreadFactory mDefaultThreadFactory = Executors.defaultThreadFactory();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = mDefaultThreadFactory.newThread(runnable);
+            thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread t, Throwable e) {
+                    // no-op
+                }
+            });
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class WorkerContextTest {
+
+    private CountingWorkerResource mResource1;
+    private CountingWorkerResource mResource2;
+
+    private WorkerContext SUT;
+
+    @Before
+    public void setup() throws Exception {
+        mResource1 = new CountingWorkerResource();
+        mResource2 = new CountingWorkerResource();
+        SUT = new WorkerContext();
+    }
+
+    @Test
+    public void get_sameResourceTwice_createdOnceAndSameInstanceReturned() throws Exception {
+        // Arrange
+        // Act
+        StringBuilder result1 = SUT.get(mResource1);
+        StringBuilder result2 = SUT.get(mResource1);
+        // Assert
+        assertThat(result1 == result2, is(true));
+        assertThat(mResource1.mCreatedCount, is(1));
+    }
+
+    @Test
+    public void get_differentResources_differentInstancesReturned() throws Exception {
+        // Arrange
+        // Act
+        StringBuilder result1 = SUT.get(mResource1);
+        StringBuilder result2 = SUT.get(mResource2);
+        // Assert
+        assertThat(result1 == result2, is(false));
+    }
+
+    @Test
+    public void get_afterReset_sameInstanceReturnedInResetState() throws Exception {
+        // Arrange
+        StringBuilder stringBuilder = SUT.get(mResource1);
+        stringBuilder.append("data");
+        // Act
+        SUT.reset();
+        StringBuilder result = SUT.get(mResource1);
+        // Assert
+        assertThat(result == stringBuilder, is(true));
+        assertThat(result.length(), is(0));
+        assertThat(mResource1.mCreatedCount, is(1));
+    }
+
+    @Test
+    public void reset_onlyResourcesUsedSinceLastResetAreReset() throws Exception {
+        // Arrange
+        SUT.get(mResource1);
+        SUT.get(mResource2);
+        SUT.reset();
+        SUT.get(mResource1);
+        SUT.get(mResource1);
+        // Act
+        SUT.reset();
+        // Assert
+        assertThat(mResource1.mResetCount, is(2));
+        assertThat(mResource2.mResetCount, is(1));
+    }
+
+    @Test
+    public void release_allCreatedResourcesReleasedOnce() throws Exception {
+        // Arrange
+        SUT.get(mResource1);
+        SUT.get(mResource2);
+        SUT.reset();
+        // Act
+        SUT.release();
+        SUT.release();
+        // Assert
+        assertThat(mResource1.mReleasedCount, is(1));
+        assertThat(mResource2.mReleasedCount, is(1));
+    }
+
+    @Test
+    public void get_manyResources_allReturned() throws Exception {
+        // Arrange
+        CountingWorkerResource[] resources = new CountingWorkerResource[100];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = new CountingWorkerResource();
+        }
+        // Act
+        for (CountingWorkerResource resource : resources) {
+            SUT.get(resource).append("data");
+        }
+        SUT.reset();
+        // Assert
+        for (CountingWorkerResource resource : resources) {
+            assertThat(resource.mCreatedCount, is(1));
+            assertThat(resource.mResetCount, is(1));
+            assertThat(SUT.get(resource).length(), is(0));
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class CountingWorkerResource extends WorkerResource<StringBuilder> {
+
+        private int mCreatedCount;
+        private int mResetCount;
+        private int mReleasedCount;
+
+        @Override
+        protected StringBuilder create() {
+            mCreatedCount++;
+            return new StringBuilder();
+        }
+
+        @Override
+        protected void reset(StringBuilder resource) {
+            mResetCount++;
+            resource.setLength(0);
+        }
+
+        @Override
+        protected void release(StringBuilder resource) {
+            mReleasedCount++;
+        }
+    }
+}
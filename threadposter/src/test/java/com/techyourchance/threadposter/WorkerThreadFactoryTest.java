@@ -0,0 +1,177 @@
+package com.techyourchance.threadposter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class WorkerThreadFactoryTest {
+
+    private final AtomicInteger mCreatedCount = new AtomicInteger(0);
+    private final AtomicInteger mResetCount = new AtomicInteger(0);
+    private final AtomicInteger mReleasedCount = new AtomicInteger(0);
+
+    private final WorkerResource<StringBuilder> mResource = new WorkerResource<StringBuilder>() {
+        @Override
+        protected StringBuilder create() {
+            mCreatedCount.incrementAndGet();
+            return new StringBuilder();
+        }
+
+        @Override
+        protected void reset(StringBuilder resource) {
+            mResetCount.incrementAndGet();
+            resource.setLength(0);
+        }
+
+        @Override
+        protected void release(StringBuilder resource) {
+            mReleasedCount.incrementAndGet();
+        }
+    };
+
+    private final Consumer<WorkerContext> mConsumer = new Consumer<WorkerContext>() {
+        @Override
+        public void accept(WorkerContext workerContext) {
+            workerContext.get(mResource).append("data");
+        }
+    };
+
+    private WorkerThreadFactory SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new WorkerThreadFactory("test-", ThreadQos.BACKGROUND);
+    }
+
+    @Test
+    public void newThread_namedWithPrefix() throws Exception {
+        // Arrange
+        // Act
+        Thread thread1 = SUT.newThread(new NoOpRunnable());
+        Thread thread2 = SUT.newThread(new NoOpRunnable());
+        // Assert
+        assertThat(thread1.getName(), is("test-1"));
+        assertThat(thread2.getName(), is("test-2"));
+        assertThat(thread1.isDaemon(), is(false));
+    }
+
+    @Test
+    public void newThread_threadQosApplied() throws Exception {
+        // Arrange
+        final int[] priority = new int[1];
+        Thread thread = SUT.newThread(new Runnable() {
+            @Override
+            public void run() {
+                priority[0] = Thread.currentThread().getPriority();
+            }
+        });
+        // Act
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(priority[0], is(ThreadQos.BACKGROUND.mJavaPriority));
+    }
+
+    @Test
+    public void runWithContext_workerThread_resourceReusedAcrossWorkAndReleasedOnTermination() throws Exception {
+        // Arrange
+        Thread thread = SUT.newThread(new Runnable() {
+            @Override
+            public void run() {
+                WorkerThreadFactory.runWithContext(mConsumer);
+                WorkerThreadFactory.runWithContext(mConsumer);
+                // Act
+            }
+        });
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(mCreatedCount.get(), is(1));
+        assertThat(mResetCount.get(), is(2));
+        assertThat(mReleasedCount.get(), is(1));
+    }
+
+    @Test
+    public void runWithContext_nestedOnWorkerThread_outerResourceNotShared() throws Exception {
+        // Arrange
+        final String[] outerData = new String[1];
+        Thread thread = SUT.newThread(new Runnable() {
+            @Override
+            public void run() {
+                WorkerThreadFactory.runWithContext(new Consumer<WorkerContext>() {
+                    @Override
+                    public void accept(WorkerContext workerContext) {
+                        StringBuilder resource = workerContext.get(mResource);
+                        resource.append("outer");
+                        // Act
+                        WorkerThreadFactory.runWithContext(mConsumer);
+                        outerData[0] = resource.toString();
+                    }
+                });
+            }
+        });
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(outerData[0], is("outer"));
+        assertThat(mCreatedCount.get(), is(2));
+        assertThat(mResetCount.get(), is(1));
+        assertThat(mReleasedCount.get(), is(2));
+    }
+
+    @Test
+    public void runWithContext_otherThread_temporaryContextReleasedAfterWork() throws Exception {
+        // Arrange
+        // Act
+        WorkerThreadFactory.runWithContext(mConsumer);
+        WorkerThreadFactory.runWithContext(mConsumer);
+        // Assert
+        assertThat(mCreatedCount.get(), is(2));
+        assertThat(mResetCount.get(), is(0));
+        assertThat(mReleasedCount.get(), is(2));
+    }
+
+    @Test
+    public void runWithContext_consumerThrows_resourcesReset() throws Exception {
+        // Arrange
+        final RuntimeException[] caught = new RuntimeException[1];
+        Thread thread = SUT.newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WorkerThreadFactory.runWithContext(new Consumer<WorkerContext>() {
+                        @Override
+                        public void accept(WorkerContext workerContext) {
+                            workerContext.get(mResource).append("data");
+                            throw new RuntimeException("expected");
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    caught[0] = e;
+                }
+            }
+        });
+        // Act
+        thread.start();
+        thread.join();
+        // Assert
+        assertThat(caught[0].getMessage(), is("expected"));
+        assertThat(mResetCount.get(), is(1));
+        assertThat(mReleasedCount.get(), is(1));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class NoOpRunnable implements Runnable {
+        @Override
+        public void run() {
+            // no-op
+        }
+    }
+}
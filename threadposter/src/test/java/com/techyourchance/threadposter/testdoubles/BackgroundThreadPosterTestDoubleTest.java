@@ -196,6 +196,112 @@ public class BackgroundThreadPosterTestDoubleTest {
         assertThat(counter.getCount(), is(3));
     }
 
+    @Test
+    public void executeDelayedThenAdvanceTime_beforeDelay_sideEffectsNotVisible() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        SUT.postDelayed(runnable, 100);
+        SUT.advanceTimeBy(99);
+        // Assert
+        SUT.join();
+        assertThat(counter.getCount(), is(0));
+    }
+
+    @Test
+    public void executeDelayedThenAdvanceTime_afterDelay_sideEffectsVisible() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        SUT.postDelayed(runnable, 100);
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(counter.getCount(), is(1));
+    }
+
+    @Test
+    public void executeDelayedThenAdvanceTime_cancelled_sideEffectsNotVisible() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        SUT.postDelayed(runnable, 100).cancel();
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(counter.getCount(), is(0));
+    }
+
+    @Test
+    public void executeAtFixedRateThenAdvanceTime_executedOncePerPeriod() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        SUT.postAtFixedRate(runnable, 10, 100);
+        SUT.advanceTimeBy(1000);
+        // Assert
+        assertThat(counter.getCount(), is(10));
+    }
+
+    @Test
+    public void executeDebouncedThenAdvanceTime_burst_executedOnce() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        for (int i = 0; i < 10; i++) {
+            SUT.postDebounced("key", 100, runnable);
+            SUT.advanceTimeBy(10);
+        }
+        SUT.advanceTimeBy(100);
+        // Assert
+        assertThat(counter.getCount(), is(1));
+    }
+
+    @Test
+    public void executeComputeThenJoin_singleRunnable_sideEffectsVisibleAfterJoin() throws Exception {
+        // Arrange
+        final Counter counter = new Counter();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                counter.increment();
+            }
+        };
+        // Act
+        SUT.postCompute(runnable);
+        // Assert
+        SUT.join();
+        assertThat(counter.getCount(), is(1));
+    }
+
     /**
      * This class will be used in order to check side effects in tests
      */
@@ -212,4 +318,4 @@ public class BackgroundThreadPosterTestDoubleTest {
         }
     }
 
-}
\ No newline at end of file
+}
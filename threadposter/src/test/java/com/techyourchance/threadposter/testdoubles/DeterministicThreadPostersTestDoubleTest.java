@@ -0,0 +1,173 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.Cancellable;
+import com.techyourchance.threadposter.UiThreadPoster;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class DeterministicThreadPostersTestDoubleTest {
+
+    private BackgroundThreadPoster mBackgroundThreadPoster;
+    private UiThreadPoster mUiThreadPoster;
+
+    private DeterministicThreadPostersTestDouble SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new DeterministicThreadPostersTestDouble();
+        mBackgroundThreadPoster = SUT.getBackgroundTestDouble();
+        mUiThreadPoster = SUT.getUiTestDouble();
+    }
+
+    @Test
+    public void post_beforeRunUntilIdle_notExecuted() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        // Act
+        mBackgroundThreadPoster.post(new AppendingRunnable(order, "bg"));
+        mUiThreadPoster.post(new AppendingRunnable(order, "ui"));
+        // Assert
+        assertThat(order.toString(), is(""));
+    }
+
+    @Test
+    public void postThenRunUntilIdle_bothPosters_executedInPostingOrderOnCallingThread() throws Exception {
+        // Arrange
+        final StringBuilder order = new StringBuilder();
+        final Thread testThread = Thread.currentThread();
+        // Act
+        mUiThreadPoster.post(new AppendingRunnable(order, "ui1"));
+        mBackgroundThreadPoster.post(new AppendingRunnable(order, "bg1"));
+        mBackgroundThreadPoster.postCompute(new AppendingRunnable(order, "bg2"));
+        mUiThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                order.append(Thread.currentThread() == testThread ? "ui2" : "wrong thread");
+            }
+        });
+        SUT.runUntilIdle();
+        // Assert
+        assertThat(order.toString(), is("ui1bg1bg2ui2"));
+    }
+
+    @Test
+    public void postThenRunUntilIdle_uiPostsToBackground_nestedWorkExecuted() throws Exception {
+        // Arrange
+        final StringBuilder order = new StringBuilder();
+        // Act
+        mUiThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                order.append("ui");
+                mBackgroundThreadPoster.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.append("bg");
+                        mUiThreadPoster.post(new AppendingRunnable(order, "ui"));
+                    }
+                });
+            }
+        });
+        SUT.runUntilIdle();
+        // Assert
+        assertThat(order.toString(), is("uibgui"));
+    }
+
+    @Test
+    public void postSlicedThenRunUntilIdle_executedInPostingOrder() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        // Act
+        mUiThreadPoster.postSliced(new AppendingRunnable(order, "s1"));
+        mUiThreadPoster.postSliced(new AppendingRunnable(order, "s2"));
+        mUiThreadPoster.post(new AppendingRunnable(order, "ui"));
+        String orderBeforeRunUntilIdle = order.toString();
+        SUT.runUntilIdle();
+        // Assert
+        assertThat(orderBeforeRunUntilIdle, is(""));
+        assertThat(order.toString(), is("s1s2ui"));
+    }
+
+    @Test
+    public void postUrgentAndPostIdleThenRunUntilIdle_executedInPostingOrder() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        // Act
+        mUiThreadPoster.postIdle(new AppendingRunnable(order, "idle"));
+        mUiThreadPoster.post(new AppendingRunnable(order, "ui"));
+        mUiThreadPoster.postUrgent(new AppendingRunnable(order, "urgent"));
+        String orderBeforeRunUntilIdle = order.toString();
+        SUT.runUntilIdle();
+        // Assert
+        assertThat(orderBeforeRunUntilIdle, is(""));
+        assertThat(order.toString(), is("idleuiurgent"));
+    }
+
+    @Test
+    public void postDelayedThenAdvanceBy_bothPosters_executedInDeadlineOrder() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        mBackgroundThreadPoster.postDelayed(new AppendingRunnable(order, "bg30"), 30);
+        mUiThreadPoster.postDelayed(new AppendingRunnable(order, "ui10"), 10);
+        mUiThreadPoster.postDelayed(new AppendingRunnable(order, "ui50"), 50);
+        // Act
+        SUT.advanceBy(29);
+        String orderAfter29 = order.toString();
+        SUT.advanceBy(1);
+        // Assert
+        assertThat(orderAfter29, is("ui10"));
+        assertThat(order.toString(), is("ui10bg30"));
+    }
+
+    @Test
+    public void postAtFixedRateThenAdvanceBy_executedPeriodicallyUntilCancelled() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        Cancellable cancellable = mBackgroundThreadPoster.postAtFixedRate(new AppendingRunnable(order, "x"), 10, 10);
+        // Act
+        SUT.advanceBy(35);
+        cancellable.cancel();
+        SUT.advanceBy(100);
+        // Assert
+        assertThat(order.toString(), is("xxx"));
+    }
+
+    @Test
+    public void postDebouncedThenAdvanceBy_burst_executedOnce() throws Exception {
+        // Arrange
+        StringBuilder order = new StringBuilder();
+        // Act
+        for (int i = 0; i < 10; i++) {
+            mUiThreadPoster.postDebounced("key", 100, new AppendingRunnable(order, String.valueOf(i)));
+            SUT.advanceBy(10);
+        }
+        SUT.advanceBy(100);
+        // Assert
+        assertThat(order.toString(), is("9"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private static class AppendingRunnable implements Runnable {
+
+        private final StringBuilder mStringBuilder;
+        private final String mString;
+
+        private AppendingRunnable(StringBuilder stringBuilder, String string) {
+            mStringBuilder = stringBuilder;
+            mString = string;
+        }
+
+        @Override
+        public void run() {
+            mStringBuilder.append(mString);
+        }
+    }
+}
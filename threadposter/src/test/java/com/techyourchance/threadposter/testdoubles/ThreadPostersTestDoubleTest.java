@@ -0,0 +1,148 @@
+package com.techyourchance.threadposter.testdoubles;
+
+import com.techyourchance.threadposter.BackgroundThreadPoster;
+import com.techyourchance.threadposter.UiThreadPoster;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ThreadPostersTestDoubleTest {
+
+    @ClassRule
+    public final static Timeout TIMEOUT = Timeout.seconds(5);
+
+    private BackgroundThreadPoster mBackgroundThreadPoster;
+    private UiThreadPoster mUiThreadPoster;
+
+    private ThreadPostersTestDouble SUT;
+
+    @Before
+    public void setup() throws Exception {
+        SUT = new ThreadPostersTestDouble();
+        mBackgroundThreadPoster = SUT.getBackgroundTestDouble();
+        mUiThreadPoster = SUT.getUiTestDouble();
+    }
+
+    @Test
+    public void join_uiPostsToBackgroundRepeatedly_allSideEffectsVisibleAfterJoin() throws Exception {
+        // Arrange
+        final StringBuffer order = new StringBuffer();
+        // Act
+        mUiThreadPoster.post(new PingPongRunnable(order, 5, true));
+        SUT.join();
+        // Assert
+        assertThat(order.toString(), is("uibguibguibguibguibg"));
+    }
+
+    @Test
+    public void join_backgroundBlocksUntilUiRunnableExecutes_completes() throws Exception {
+        // Arrange
+        final CountDownLatch uiExecutedLatch = new CountDownLatch(1);
+        final StringBuffer order = new StringBuffer();
+        // Act
+        mBackgroundThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                mUiThreadPoster.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.append("ui");
+                        uiExecutedLatch.countDown();
+                    }
+                });
+                try {
+                    uiExecutedLatch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                order.append("bg");
+            }
+        });
+        SUT.join();
+        // Assert
+        assertThat(order.toString(), is("uibg"));
+    }
+
+    @Test
+    public void join_workDoesNotComplete_assertionErrorWithDiagnosticsThrown() throws Exception {
+        // Arrange
+        final Semaphore blockingSemaphore = new Semaphore(0);
+        mBackgroundThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                blockingSemaphore.acquireUninterruptibly();
+            }
+
+            @Override
+            public String toString() {
+                return "StuckRunnable";
+            }
+        });
+        mUiThreadPoster.post(new Runnable() {
+            @Override
+            public void run() {
+                // no-op
+            }
+        });
+        String message = null;
+        // Act
+        try {
+            SUT.join(100);
+        } catch (AssertionError e) {
+            message = e.getMessage();
+        }
+        // Assert
+        blockingSemaphore.release();
+        assertThat(message.contains("1 runnable(s) in flight"), is(true));
+        assertThat(message.contains("background: 0 pending, 1 running"), is(true));
+        assertThat(message.contains("StuckRunnable running on"), is(true));
+        assertThat(message.contains("ui: 0 pending, 0 running"), is(true));
+        SUT.join();
+    }
+
+    @Test
+    public void join_noWorkPosted_returnsImmediately() throws Exception {
+        // Arrange
+        // Act
+        SUT.join();
+        // Assert
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Helper classes
+    // ---------------------------------------------------------------------------------------------
+
+    private class PingPongRunnable implements Runnable {
+
+        private final StringBuffer mOrder;
+        private final int mRemainingRounds;
+        private final boolean mIsOnUiThread;
+
+        private PingPongRunnable(StringBuffer order, int remainingRounds, boolean isOnUiThread) {
+            mOrder = order;
+            mRemainingRounds = remainingRounds;
+            mIsOnUiThread = isOnUiThread;
+        }
+
+        @Override
+        public void run() {
+            if (mIsOnUiThread) {
+                mOrder.append("ui");
+                mBackgroundThreadPoster.post(new PingPongRunnable(mOrder, mRemainingRounds, false));
+            } else {
+                mOrder.append("bg");
+                if (mRemainingRounds > 1) {
+                    mUiThreadPoster.post(new PingPongRunnable(mOrder, mRemainingRounds - 1, true));
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.techyourchance.threadposter.testdoubles;
 
+import com.techyourchance.threadposter.Cancellable;
+
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -152,6 +154,81 @@ public class UiThreadPosterTestDoubleTest {
         assertThat(appender.getString(), is("cba"));
     }
 
+    @Test
+    public void executeCancellableThenJoin_cancelled_sideEffectsNotVisibleAfterJoin() throws Exception {
+        // Arrange
+        final Appender appender = new Appender();
+        Runnable runnable1 = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("a");
+            }
+        };
+        Runnable runnable2 = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("b");
+            }
+        };
+        // Act
+        Cancellable cancellable = SUT.postCancellable(runnable1);
+        SUT.post(runnable2);
+        cancellable.cancel();
+        // Assert
+        SUT.join();
+        assertThat(appender.getString(), is("b"));
+    }
+
+    @Test
+    public void executeDelayedThenAdvanceTime_executedInOrderOfDeadlines() throws Exception {
+        // Arrange
+        final Appender appender = new Appender();
+        Runnable runnable1 = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("a");
+            }
+        };
+        Runnable runnable2 = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("b");
+            }
+        };
+        Runnable runnable3 = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("c");
+            }
+        };
+        // Act
+        SUT.postDelayed(runnable1, 200);
+        SUT.postDelayed(runnable2, 100);
+        SUT.postDelayed(runnable3, 300);
+        SUT.advanceTimeBy(250);
+        // Assert
+        assertThat(appender.getString(), is("ba"));
+    }
+
+    @Test
+    public void executeAtFixedRateThenAdvanceTime_cancelled_notExecutedAnymore() throws Exception {
+        // Arrange
+        final Appender appender = new Appender();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                appender.append("a");
+            }
+        };
+        // Act
+        Cancellable cancellable = SUT.postAtFixedRate(runnable, 0, 100);
+        SUT.advanceTimeBy(250);
+        cancellable.cancel();
+        SUT.advanceTimeBy(250);
+        // Assert
+        assertThat(appender.getString(), is("aaa"));
+    }
+
     /**
      * This class will be used in order to check side effects in tests
      */
@@ -167,4 +244,4 @@ public class UiThreadPosterTestDoubleTest {
             return mString;
         }
     }
-}
\ No newline at end of file
+}